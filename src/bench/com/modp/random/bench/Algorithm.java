@@ -0,0 +1,340 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.modp.random.bench;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.modp.random.*;
+
+/**
+ * The generators that are benchmarked, with a common way to
+ * create, reseed and get 64-bit and double values from each.
+ *
+ * <p>
+ * The <code>JDK_</code> entries are the <code>java.util</code> generators,
+ * wrapped as a {@link RandomGenerator}, to use as a baseline.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public enum Algorithm {
+
+    LinearSunJDK {
+        public RandomGenerator create(long seed) {
+            return new LinearSunJDK(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((LinearSunJDK) g).setSeed(seed);
+        }
+    },
+
+    MersenneTwister {
+        public RandomGenerator create(long seed) {
+            return new MersenneTwister((int) seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((MersenneTwister) g).setSeed((int) seed);
+        }
+    },
+
+    MersenneTwister64 {
+        public RandomGenerator create(long seed) {
+            return new MersenneTwister64(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((MersenneTwister64) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((MersenneTwister64) g).next64();
+        }
+    },
+
+    Rule30Cells192 {
+        public RandomGenerator create(long seed) {
+            return new Rule30Cells192(seed, ~seed, seed ^ 0x9E3779B97F4A7C15L);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Rule30Cells192) g).setSeed(seed, ~seed, seed ^ 0x9E3779B97F4A7C15L);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Rule30Cells192) g).next64();
+        }
+    },
+
+    /**
+     * 256 cells, 8 taps
+     */
+    Rule30Cells {
+        public RandomGenerator create(long seed) {
+            return new Rule30Cells(256, 8, seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Rule30Cells) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Rule30Cells) g).next64();
+        }
+    },
+
+    BaileyCrandall {
+        public RandomGenerator create(long seed) {
+            return new BaileyCrandall(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((BaileyCrandall) g).setSeed(seed);
+        }
+        public double nextDouble(RandomGenerator g) {
+            return ((BaileyCrandall) g).nextDouble();
+        }
+    },
+
+    /**
+     * 512-bit modulus, fixed so construction doesn't include
+     * the (random length) prime search.
+     */
+    BlumBlumShub {
+        public RandomGenerator create(long seed) {
+            return new BlumBlumShub(BBS_N, seedBytes(seed));
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((BlumBlumShub) g).setSeed(seedBytes(seed));
+        }
+    },
+
+    Philox4x32 {
+        public RandomGenerator create(long seed) {
+            return new Philox4x32(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Philox4x32) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Philox4x32) g).next64();
+        }
+    },
+
+    Threefry2x64 {
+        public RandomGenerator create(long seed) {
+            return new Threefry2x64(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Threefry2x64) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Threefry2x64) g).next64();
+        }
+    },
+
+    SplitMix64 {
+        public RandomGenerator create(long seed) {
+            return new SplitMix64(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((SplitMix64) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((SplitMix64) g).next64();
+        }
+    },
+
+    Xoshiro256StarStar {
+        public RandomGenerator create(long seed) {
+            return new Xoshiro256StarStar(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Xoshiro256StarStar) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Xoshiro256StarStar) g).next64();
+        }
+    },
+
+    Xoshiro256PlusPlus {
+        public RandomGenerator create(long seed) {
+            return new Xoshiro256PlusPlus(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Xoshiro256PlusPlus) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Xoshiro256PlusPlus) g).next64();
+        }
+    },
+
+    Xoroshiro128PlusPlus {
+        public RandomGenerator create(long seed) {
+            return new Xoroshiro128PlusPlus(seed);
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((Xoroshiro128PlusPlus) g).setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((Xoroshiro128PlusPlus) g).next64();
+        }
+    },
+
+    JDK_Random {
+        public RandomGenerator create(long seed) {
+            return new RandomAdapter(new Random(seed));
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((RandomAdapter) g).r.setSeed(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((RandomAdapter) g).r.nextLong();
+        }
+        public double nextDouble(RandomGenerator g) {
+            return ((RandomAdapter) g).r.nextDouble();
+        }
+    },
+
+    JDK_SplittableRandom {
+        public RandomGenerator create(long seed) {
+            return new SplittableRandomGenerator(new SplittableRandom(seed));
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ((SplittableRandomGenerator) g).r = new SplittableRandom(seed);
+        }
+        public long next64(RandomGenerator g) {
+            return ((SplittableRandomGenerator) g).r.nextLong();
+        }
+        public double nextDouble(RandomGenerator g) {
+            return ((SplittableRandomGenerator) g).r.nextDouble();
+        }
+    },
+
+    /**
+     * Seeding isn't supported, the seed is ignored.
+     */
+    JDK_ThreadLocalRandom {
+        public RandomGenerator create(long seed) {
+            return new RandomGenerator() {
+                public long next(int numBits) {
+                    return ThreadLocalRandom.current().nextInt() >>> (32 - numBits);
+                }
+            };
+        }
+        public void reseed(RandomGenerator g, long seed) {
+            ThreadLocalRandom.current();
+        }
+        public long next64(RandomGenerator g) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        public double nextDouble(RandomGenerator g) {
+            return ThreadLocalRandom.current().nextDouble();
+        }
+    };
+
+    /**
+     * A fixed 512-bit Blum-Blum-Shub modulus
+     */
+    static final BigInteger BBS_N =
+        com.modp.random.BlumBlumShub.generateN(512, new Random(1L));
+
+    /**
+     * Construct a new generator.
+     *
+     * @param seed the seed, converted as needed
+     * @return new generator
+     */
+    public abstract RandomGenerator create(long seed);
+
+    /**
+     * Reseed an existing generator.
+     *
+     * @param g a generator returned by <code>create</code>
+     * @param seed the seed
+     */
+    public abstract void reseed(RandomGenerator g, long seed);
+
+    /**
+     * Get 64 random bits, using the native method if there is one.
+     */
+    public long next64(RandomGenerator g) {
+        return (g.next(32) << 32) | (g.next(32) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get a double in [0,1), using the native method if there
+     * is one.  Otherwise this is the same as
+     * <code>java.util.Random#nextDouble</code>
+     */
+    public double nextDouble(RandomGenerator g) {
+        return ((g.next(26) << 27) + g.next(27)) * 0x1.0p-53;
+    }
+
+    static byte[] seedBytes(long seed) {
+        byte[] b = new byte[64];
+        for (int i = 0; i < b.length; ++i) {
+            b[i] = (byte) (seed >>> ((i & 7) * 8) ^ i);
+        }
+        return b;
+    }
+
+    /**
+     * Wraps <code>java.util.Random</code>
+     */
+    static final class RandomAdapter implements RandomGenerator {
+        final Random r;
+
+        RandomAdapter(Random r) {
+            this.r = r;
+        }
+
+        public long next(int numBits) {
+            return r.nextInt() >>> (32 - numBits);
+        }
+    }
+
+    /**
+     * Wraps <code>SplittableRandom</code>, which can't be reseeded,
+     * so <code>reseed</code> swaps the instance.
+     */
+    static final class SplittableRandomGenerator implements RandomGenerator {
+        SplittableRandom r;
+
+        SplittableRandomGenerator(SplittableRandom r) {
+            this.r = r;
+        }
+
+        public long next(int numBits) {
+            return r.nextInt() >>> (32 - numBits);
+        }
+    }
+}
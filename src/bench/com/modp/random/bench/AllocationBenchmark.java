@@ -0,0 +1,158 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.modp.random.bench;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.modp.random.RandomGenerator;
+
+/**
+ * Allocation rate of the generation and seeding paths that should not
+ * allocate.
+ *
+ * <p>
+ * Running <code>main</code> runs these with the JMH GC profiler and
+ * exits with status 1 if any of them allocates one byte or more per
+ * operation:
+ * </p>
+ * <pre>
+ * mvn -Pbench compile exec:exec -Djmh.main=com.modp.random.bench.AllocationBenchmark
+ * </pre>
+ * <p>
+ * <code>BlumBlumShub</code> is left out, since it allocates
+ * <code>BigInteger</code>s on every bit, as is
+ * <code>JDK_SplittableRandom</code> which has to create a new instance
+ * to reseed.  <code>AllocationTest</code> does a quicker version of the
+ * same check as part of the unit tests.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+    /**
+     * Limit for <code>gc.alloc.rate.norm</code>, in bytes per operation
+     */
+    static final double LIMIT = 1.0;
+
+    @Param({"LinearSunJDK", "MersenneTwister", "MersenneTwister64",
+            "Rule30Cells192", "Rule30Cells", "BaileyCrandall",
+            "Philox4x32", "Threefry2x64", "SplitMix64", "Xoshiro256StarStar",
+            "Xoshiro256PlusPlus", "Xoroshiro128PlusPlus"})
+    public Algorithm algorithm;
+
+    private RandomGenerator gen;
+
+    private long seed;
+
+    @Setup
+    public void setup() {
+        gen = algorithm.create(1L);
+    }
+
+    @Benchmark
+    public long next32() {
+        return gen.next(32);
+    }
+
+    @Benchmark
+    public long next64() {
+        return algorithm.next64(gen);
+    }
+
+    @Benchmark
+    public double nextDouble() {
+        return algorithm.nextDouble(gen);
+    }
+
+    @Benchmark
+    public RandomGenerator reseed() {
+        algorithm.reseed(gen, ++seed);
+        return gen;
+    }
+
+    /**
+     * Run the benchmarks with the GC profiler, and check the results.
+     *
+     * @param args regular JMH command line options
+     */
+    public static void main(String[] args) throws Exception {
+        Options opts = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(AllocationBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        Collection<RunResult> results = new Runner(opts).run();
+
+        int failures = 0;
+        for (RunResult rr : results) {
+            String name = rr.getParams().getBenchmark() + " "
+                + rr.getParams().getParam("algorithm");
+            double norm = Double.NaN;
+            for (Map.Entry<String, Result> e : rr.getSecondaryResults().entrySet()) {
+                if (e.getKey().endsWith("gc.alloc.rate.norm")) {
+                    norm = e.getValue().getScore();
+                }
+            }
+            boolean ok = norm < LIMIT;
+            System.out.printf("%-6s %-70s %10.3f B/op%n", ok ? "OK" : "FAIL", name, norm);
+            if (!ok) {
+                failures++;
+            }
+        }
+        if (failures != 0) {
+            System.out.println(failures + " benchmark(s) allocated " + LIMIT + " B/op or more");
+            System.exit(1);
+        }
+    }
+}
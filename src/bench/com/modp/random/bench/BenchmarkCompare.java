@@ -0,0 +1,387 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.modp.random.bench;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares a JMH JSON result with a stored baseline.
+ *
+ * <p>
+ * The baseline is a plain text file, one throughput benchmark per line,
+ * so changes to it are easy to read in a diff:
+ * </p>
+ * <pre>
+ * # benchmark  params  ops/s  low  high
+ * GeneratorBenchmark.next32  algorithm=LinearSunJDK  4.329e+08  4.280e+08  4.378e+08
+ * </pre>
+ * <p>
+ * <i>low</i> and <i>high</i> are the JMH 99.9% confidence interval.
+ * A benchmark is a regression only if the new interval is entirely
+ * below the baseline interval, <b>and</b> the score dropped by more than
+ * the tolerance (default 5%).  If either side has no interval (a single
+ * iteration) only the tolerance is used.  Only throughput results are
+ * compared.
+ * </p>
+ * <p>
+ * An interval much wider than the tolerance can never show a
+ * regression, so it is no gate at all.  A score whose interval is wider
+ * than the maximum spread (default 20% of the score, high minus low) is
+ * NOISY: on the baseline side it fails the comparison, since the
+ * baseline needs to be recorded again with more forks and iterations on
+ * a quieter machine; on the new side it fails too, since the run can't
+ * tell whether anything got slower.
+ * </p>
+ * <pre>
+ * BenchmarkCompare [-update] [-tolerance 0.05] [-spread 0.2] baseline.txt jmh-result.json
+ * </pre>
+ * <p>
+ * The report is printed to stdout, and the exit status is 1 if there
+ * was a regression or a noisy score.  With <code>-update</code> the
+ * baseline is rewritten from the result instead; noisy results are
+ * left out (any old entry for them is kept) and the exit status is 1.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BenchmarkCompare {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * One benchmark score, always in operations per second.
+     */
+    static final class Score {
+        final String benchmark;
+        final String params;
+        final double score;
+        final double low;
+        final double high;
+
+        Score(String benchmark, String params, double score, double low, double high) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.score = score;
+            this.low = low;
+            this.high = high;
+        }
+
+        String key() {
+            return benchmark + " " + params;
+        }
+
+        boolean hasInterval() {
+            return !Double.isNaN(low) && !Double.isNaN(high);
+        }
+
+        /**
+         * @return the width of the interval as a fraction of the score,
+         *  or 0 if there is no interval
+         */
+        double spread() {
+            return hasInterval() ? (high - low) / score : 0.0;
+        }
+
+        /**
+         * True if the interval is too wide for the score to be a gate.
+         */
+        boolean isNoisy(double maxSpread) {
+            return !(spread() <= maxSpread);
+        }
+    }
+
+    /**
+     * Result of comparing a single benchmark
+     */
+    enum Verdict {
+        SAME, FASTER, SLOWER, NEW, MISSING, NOISY
+    }
+
+    /** Default largest interval width, as a fraction of the score */
+    static final double MAX_SPREAD = 0.2;
+
+    /**
+     * Compare a new score with the baseline.
+     *
+     * @param base baseline score, or null
+     * @param run new score, or null
+     * @param tolerance relative change to ignore, e.g. 0.05
+     * @param maxSpread widest interval, as a fraction of the score,
+     *  that is still a usable gate
+     */
+    static Verdict compare(Score base, Score run, double tolerance, double maxSpread) {
+        if (base == null) {
+            return Verdict.NEW;
+        }
+        if (run == null) {
+            return Verdict.MISSING;
+        }
+        if (base.isNoisy(maxSpread) || run.isNoisy(maxSpread)) {
+            return Verdict.NOISY;
+        }
+        boolean intervals = base.hasInterval() && run.hasInterval();
+        if (run.score < base.score * (1.0 - tolerance)
+            && (!intervals || run.high < base.low)) {
+            return Verdict.SLOWER;
+        }
+        if (run.score > base.score * (1.0 + tolerance)
+            && (!intervals || run.low > base.high)) {
+            return Verdict.FASTER;
+        }
+        return Verdict.SAME;
+    }
+
+    /**
+     * Read throughput results from a JMH JSON file.
+     */
+    static Map<String, Score> readResult(File f) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        Reader in = new InputStreamReader(new FileInputStream(f), UTF8);
+        try {
+            JsonArray runs = JsonParser.parseReader(in).getAsJsonArray();
+            for (JsonElement e : runs) {
+                JsonObject run = e.getAsJsonObject();
+                if (!"thrpt".equals(run.get("mode").getAsString())) {
+                    continue;
+                }
+                String name = run.get("benchmark").getAsString();
+                name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+
+                StringBuilder params = new StringBuilder();
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> p : run.getAsJsonObject("params").entrySet()) {
+                        if (params.length() != 0) {
+                            params.append(',');
+                        }
+                        params.append(p.getKey()).append('=').append(p.getValue().getAsString());
+                    }
+                }
+                if (params.length() == 0) {
+                    params.append('-');
+                }
+
+                JsonObject m = run.getAsJsonObject("primaryMetric");
+                double scale = perSecond(m.get("scoreUnit").getAsString());
+                JsonArray ci = m.getAsJsonArray("scoreConfidence");
+                Score s = new Score(name, params.toString(),
+                                    number(m.get("score")) * scale,
+                                    number(ci.get(0)) * scale,
+                                    number(ci.get(1)) * scale);
+                scores.put(s.key(), s);
+            }
+        } finally {
+            in.close();
+        }
+        return scores;
+    }
+
+    /**
+     * JMH writes "NaN" as a string
+     */
+    private static double number(JsonElement e) {
+        return Double.parseDouble(e.getAsString());
+    }
+
+    /**
+     * Scale to convert a throughput unit to ops/s
+     */
+    static double perSecond(String unit) {
+        if ("ops/s".equals(unit)) {
+            return 1.0;
+        } else if ("ops/ms".equals(unit)) {
+            return 1e3;
+        } else if ("ops/us".equals(unit)) {
+            return 1e6;
+        } else if ("ops/ns".equals(unit)) {
+            return 1e9;
+        } else if ("ops/min".equals(unit)) {
+            return 1.0 / 60.0;
+        }
+        throw new IllegalArgumentException("Unknown throughput unit: " + unit);
+    }
+
+    /**
+     * Read a baseline file.  A missing file is an empty baseline.
+     */
+    static Map<String, Score> readBaseline(File f) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        if (!f.exists()) {
+            return scores;
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(f), UTF8));
+        try {
+            String line;
+            int lineno = 0;
+            while ((line = in.readLine()) != null) {
+                lineno++;
+                line = line.trim();
+                if (line.length() == 0 || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts.length != 5) {
+                    throw new IOException(f + ":" + lineno + ": expected 5 fields");
+                }
+                Score s = new Score(parts[0], parts[1],
+                                    Double.parseDouble(parts[2]),
+                                    Double.parseDouble(parts[3]),
+                                    Double.parseDouble(parts[4]));
+                scores.put(s.key(), s);
+            }
+        } finally {
+            in.close();
+        }
+        return scores;
+    }
+
+    /**
+     * Write a baseline file, sorted by benchmark and parameters.
+     */
+    static void writeBaseline(File f, Map<String, Score> scores) throws IOException {
+        List<String> keys = new ArrayList<String>(scores.keySet());
+        Collections.sort(keys);
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(f), UTF8));
+        try {
+            out.println("# JMH throughput baseline, see BenchmarkCompare");
+            out.println("# benchmark  params  ops/s  low  high");
+            for (String k : keys) {
+                Score s = scores.get(k);
+                out.printf(Locale.ROOT, "%s  %s  %.4e  %.4e  %.4e%n",
+                           s.benchmark, s.params, s.score, s.low, s.high);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Print a report of all benchmarks.
+     *
+     * @return number of regressions and noisy scores
+     */
+    static int report(Map<String, Score> base, Map<String, Score> run,
+                      double tolerance, double maxSpread, PrintStream out) {
+        Set<String> keys = new TreeSet<String>(base.keySet());
+        keys.addAll(run.keySet());
+
+        int slower = 0;
+        int noisy = 0;
+        out.printf(Locale.ROOT, "%-8s %-60s %12s %12s %8s%n",
+                   "RESULT", "BENCHMARK", "BASE ops/s", "NEW ops/s", "CHANGE");
+        for (String k : keys) {
+            Score b = base.get(k);
+            Score r = run.get(k);
+            Verdict v = compare(b, r, tolerance, maxSpread);
+            if (v == Verdict.SLOWER) {
+                slower++;
+            } else if (v == Verdict.NOISY) {
+                noisy++;
+            }
+            String change = (b != null && r != null)
+                ? String.format(Locale.ROOT, "%+7.1f%%", 100.0 * (r.score - b.score) / b.score)
+                : "";
+            out.printf(Locale.ROOT, "%-8s %-60s %12.4g %12.4g %8s%n", v, k,
+                       b == null ? Double.NaN : b.score,
+                       r == null ? Double.NaN : r.score,
+                       change);
+        }
+        out.println();
+        if (slower == 0 && noisy == 0) {
+            out.println("PASS");
+        } else {
+            out.println("FAIL: " + slower + " regression(s), " + noisy
+                        + " noisy score(s) (interval wider than "
+                        + Math.round(100 * maxSpread) + "% of the score)");
+        }
+        return slower + noisy;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean update = false;
+        double tolerance = 0.05;
+        double maxSpread = MAX_SPREAD;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; ++i) {
+            if ("-update".equals(args[i])) {
+                update = true;
+            } else if ("-tolerance".equals(args[i]) && i + 1 < args.length) {
+                tolerance = Double.parseDouble(args[++i]);
+            } else if ("-spread".equals(args[i]) && i + 1 < args.length) {
+                maxSpread = Double.parseDouble(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: BenchmarkCompare [-update] [-tolerance 0.05] [-spread 0.2] baseline.txt jmh-result.json");
+            System.exit(2);
+        }
+
+        File baseFile = new File(files.get(0));
+        Map<String, Score> run = readResult(new File(files.get(1)));
+        if (update) {
+            Map<String, Score> base = readBaseline(baseFile);
+            int rejected = 0;
+            for (Score s : run.values()) {
+                if (s.isNoisy(maxSpread)) {
+                    System.err.printf(Locale.ROOT, "Rejected %s: interval %.4g .. %.4g is %.0f%% of the score%n",
+                                      s.key(), s.low, s.high, 100 * s.spread());
+                    rejected++;
+                } else {
+                    base.put(s.key(), s);
+                }
+            }
+            writeBaseline(baseFile, base);
+            System.out.println("Updated " + (run.size() - rejected) + " result(s) in " + baseFile);
+            if (rejected != 0) {
+                System.err.println(rejected + " noisy result(s) not written; run again with more forks"
+                                   + " and iterations on a quieter machine");
+                System.exit(1);
+            }
+            return;
+        }
+        if (report(readBaseline(baseFile), run, tolerance, maxSpread, System.out) != 0) {
+            System.exit(1);
+        }
+    }
+}
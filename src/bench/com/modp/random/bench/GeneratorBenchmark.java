@@ -0,0 +1,138 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.modp.random.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.modp.random.BitBufferedGenerator;
+import com.modp.random.RandomGenerator;
+
+/**
+ * Throughput of each generator.
+ *
+ * <p>
+ * Every benchmark returns its result so JMH consumes it, and the loops
+ * are left to JMH, so the JIT can't remove the work as it could in
+ * the old {@link com.modp.random.misc.SpeedTest}.
+ * </p>
+ *
+ * <pre>
+ * mvn -Pbench compile exec:exec -Djmh.args="GeneratorBenchmark"
+ * </pre>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+
+    @Param({"LinearSunJDK", "MersenneTwister", "MersenneTwister64",
+            "Rule30Cells192", "Rule30Cells", "BaileyCrandall", "BlumBlumShub",
+            "Philox4x32", "Threefry2x64", "SplitMix64", "Xoshiro256StarStar",
+            "Xoshiro256PlusPlus", "Xoroshiro128PlusPlus",
+            "JDK_Random", "JDK_SplittableRandom", "JDK_ThreadLocalRandom"})
+    public Algorithm algorithm;
+
+    private RandomGenerator gen;
+
+    private BitBufferedGenerator buffered;
+
+    private long seed;
+
+    @Setup
+    public void setup() {
+        gen = algorithm.create(1L);
+        buffered = new BitBufferedGenerator(algorithm.create(1L));
+    }
+
+    @Benchmark
+    public long next1() {
+        return gen.next(1);
+    }
+
+    @Benchmark
+    public long next8() {
+        return gen.next(8);
+    }
+
+    @Benchmark
+    public boolean nextBooleanBuffered() {
+        return buffered.nextBoolean();
+    }
+
+    @Benchmark
+    public int nextInt6Buffered() {
+        return buffered.nextInt(6);
+    }
+
+    @Benchmark
+    public long next32() {
+        return gen.next(32);
+    }
+
+    @Benchmark
+    public long next64() {
+        return algorithm.next64(gen);
+    }
+
+    @Benchmark
+    public double nextDouble() {
+        return algorithm.nextDouble(gen);
+    }
+
+    /**
+     * Cost of a new instance, including seeding
+     */
+    @Benchmark
+    public RandomGenerator construct() {
+        return algorithm.create(++seed);
+    }
+
+    /**
+     * Cost of reseeding an existing instance
+     */
+    @Benchmark
+    public RandomGenerator reseed() {
+        algorithm.reseed(gen, ++seed);
+        return gen;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.modp.random.Shuffles;
+import com.modp.random.SplittableGenerator;
+
+/**
+ * Plain and parallel shuffles of an <code>int</code> array.
+ *
+ * <p>
+ * The parallel shuffle splits the generator once per chunk.  For the
+ * Mersenne Twisters a split is a jump costing milliseconds, so they get
+ * few, big chunks, and at 2<sup>18</sup> elements fall back to a plain
+ * shuffle.  <code>parallel</code> should stay close to, or under,
+ * <code>plain</code> for every generator and size; compare the two
+ * with
+ * </p>
+ * <pre>
+ * mvn -Pbench compile exec:exec -Djmh.args=ShuffleBenchmark
+ * </pre>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    @Param({"MersenneTwister", "MersenneTwister64", "Xoshiro256StarStar", "SplitMix64"})
+    public Algorithm algorithm;
+
+    @Param({"262144", "4194304"})
+    public int size;
+
+    private SplittableGenerator gen;
+
+    private int[] a;
+
+    @Setup
+    public void setup() {
+        gen = (SplittableGenerator) algorithm.create(1L);
+        a = new int[size];
+        for (int i = 0; i < size; ++i) {
+            a[i] = i;
+        }
+    }
+
+    @Benchmark
+    public int[] plain() {
+        Shuffles.shuffle(a, gen);
+        return a;
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        Shuffles.parallelShuffle(a, gen);
+        return a;
+    }
+}
@@ -35,6 +35,9 @@
 
 package com.modp.random;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
 /**
  * The Bailey-Crandall random number generator.
  *
@@ -78,7 +81,7 @@ package com.modp.random;
  * @author Nick Galbreath -- nickg [at] modp [dot] com
  * @version 1 06-Jul-05
  */
-public class BaileyCrandall implements RandomGenerator {
+public class BaileyCrandall implements SplittableGenerator, StatefulGenerator {
     /**
      * Constant: 3<sup>33</sup>
      */
@@ -94,9 +97,21 @@ public class BaileyCrandall implements RandomGenerator {
      */
     private static final long POW2_53 = 9007199254740992L;
 
+    /**
+     * log<sub>2</sub> of the block size used by <code>split()</code>.
+     */
+    private static final int SPLIT_LOG2 = 28;
+
+    /**
+     * floor(log<sub>2</sub>(period)), the period is 2*3<sup>32</sup>.
+     */
+    private static final int PERIOD_LOG2 = 51;
+
     // the iterates
     private double d1;
 
+    private int splitLevel = 0;
+
     // tmp variables
     private double[] dd1 = new double[2];
 
@@ -104,6 +119,8 @@ public class BaileyCrandall implements RandomGenerator {
 
     private double[] dd3 = new double[2];
 
+    private double[] ddm = new double[2];
+
     /**
      * Constructor. Seed set to current time.
      */
@@ -120,6 +137,14 @@ public class BaileyCrandall implements RandomGenerator {
 	setSeed(seed);
     }
 
+    /**
+     * Copy constructor, without the cost of seeding.
+     */
+    private BaileyCrandall(final BaileyCrandall other) {
+	d1 = other.d1;
+	splitLevel = other.splitLevel;
+    }
+
     /**
      * Resets internal state with new seed
      */
@@ -163,6 +188,51 @@ public class BaileyCrandall implements RandomGenerator {
 	}
     }
 
+    /**
+     * Skip ahead <code>n</code> iterates.
+     *
+     * <p>
+     * Each iterate multiplies by 2<sup>53</sup> mod 3<sup>33</sup>, so
+     * this is one modular exponentiation.
+     * </p>
+     *
+     * @param n number of iterates to skip, must not be negative
+     */
+    public void skip(final long n) {
+	if (n < 0L) {
+	    throw new IllegalArgumentException("n must not be negative: " + n);
+	}
+	final BigInteger m = BigInteger.valueOf((long) POW3_33);
+	final BigInteger mul = BigInteger.valueOf(POW2_53).mod(m)
+	    .modPow(BigInteger.valueOf(n), m);
+	d1 = (double) BigInteger.valueOf((long) d1).multiply(mul).mod(m).longValue();
+    }
+
+    /**
+     * Split using <code>skip</code>.
+     *
+     * <p>
+     * The sequence is cut into blocks of 2<sup>28</sup> iterates.
+     * The new generator starts 2<sup>28+k</sup> iterates ahead, where
+     * <i>k</i> is the number of earlier splits in this generator's
+     * history.  Generators never share a block as long as each one
+     * uses fewer than 2<sup>28</sup> iterates per block.  The period
+     * is 2*3<sup>32</sup>, so a history can have at most 23 splits.
+     * </p>
+     *
+     * @throws IllegalStateException if the split would wrap the period
+     */
+    public BaileyCrandall split() {
+	if (SPLIT_LOG2 + splitLevel >= PERIOD_LOG2) {
+	    throw new IllegalStateException("too many splits: " + splitLevel);
+	}
+	BaileyCrandall child = new BaileyCrandall(this);
+	child.skip(1L << (SPLIT_LOG2 + splitLevel));
+	splitLevel++;
+	child.splitLevel = splitLevel;
+	return child;
+    }
+
     /**
      * Get the internal iterate (or state) Used for debugging and validation.
      *
@@ -228,7 +298,8 @@ public class BaileyCrandall implements RandomGenerator {
 
 	double p1 = p;
 	double r = 1.0;
-	double[] ddm = { am, 0.0 };
+	ddm[0] = am;
+	ddm[1] = 0.0;
 	while (true) {
 	    if (p1 >= ptl) {
 		// r = (2*r) mod am
@@ -339,4 +410,39 @@ public class BaileyCrandall implements RandomGenerator {
 	c[1] = t2 - (s1 - t1);
 	return;
     }
+
+    /**
+     * State record: the iterate and the split count.
+     */
+    public int stateSize() {
+	return StateFormat.HEADER + 12;
+    }
+
+    public void saveState(ByteBuffer buf) {
+	StateFormat.write(buf, StateFormat.BAILEY_CRANDALL, 1);
+	buf.putDouble(d1);
+	buf.putInt(splitLevel);
+    }
+
+    public void restoreState(ByteBuffer buf) {
+	StateFormat.read(buf, StateFormat.BAILEY_CRANDALL, 1, 12);
+	final int p = buf.position();
+	final double d = buf.getDouble(p);
+	if (!(d >= 1.0 && d < POW3_33) || d != Math.floor(d)) {
+	    buf.position(p - StateFormat.HEADER);
+	    throw new IllegalArgumentException("Bad iterate: " + d);
+	}
+	final int level = buf.getInt(p + 8);
+	if (level < 0 || level > PERIOD_LOG2 - SPLIT_LOG2) {
+	    buf.position(p - StateFormat.HEADER);
+	    throw new IllegalArgumentException("bad split level: " + level);
+	}
+	d1 = d;
+	splitLevel = level;
+	buf.position(p + 12);
+    }
+
+    public BaileyCrandall copy() {
+	return new BaileyCrandall(this);
+    }
 }
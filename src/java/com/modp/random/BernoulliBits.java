@@ -0,0 +1,262 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * Random bitsets where each bit is set with probability <i>p</i>.
+ *
+ * <p>
+ * Each bit is set if a uniform <i>U</i> is less than <i>p</i>.  All 64
+ * bits of a word are done at once: the first random word is the first
+ * binary digit of 64 <i>U</i>s, and is compared with the first digit
+ * of <i>p</i> using AND/OR.  Bits where they differ are decided, the
+ * rest go on to the next digit.  Half the undecided bits are decided by
+ * each word, so a whole word takes about 7 random words, for any
+ * <i>p</i>, and fewer when <i>p</i> has a short binary expansion
+ * (<i>p</i> = 1/2 takes one, 1/4 or 3/4 two).  Compare with 64 calls
+ * to <code>next</code> a bit at a time.
+ * </p>
+ *
+ * <p>
+ * For tiny <i>p</i> that is still a lot of words for very few set bits,
+ * so below {@link #SKIP_THRESHOLD} (or above 1 - <code>SKIP_THRESHOLD</code>,
+ * for clear bits) the set bits are found directly by drawing the
+ * geometric gaps between them, using one random double per set bit.
+ * </p>
+ *
+ * <p>
+ * <i>p</i> is used to 63 bits, so it's exact for any double larger than
+ * 2<sup>-10</sup>.  Not thread-safe, as the generator usually isn't.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BernoulliBits {
+
+    /**
+     * Below this, the geometric skip is used by default.  With
+     * <code>SplitMix64</code> the two cost the same, about 20 ns a word,
+     * at 1/128.
+     */
+    public static final double SKIP_THRESHOLD = 1.0 / 128.0;
+
+    private final RandomGenerator generator;
+
+    /** The generator if it makes 64 bits at a time, else null */
+    private final BulkGenerator bulk;
+
+    private final double p;
+
+    /** p as a 63-bit binary fraction, then shifted up one */
+    private final long digits;
+
+    /** True if using the geometric skip */
+    private final boolean skip;
+
+    /** True if the skip is finding clear bits, for p near 1 */
+    private final boolean invert;
+
+    /** 1 / log(1 - q) where q is the skip probability */
+    private final double skipScale;
+
+    /**
+     * Constructor, using the geometric skip when <i>p</i> is within
+     * {@link #SKIP_THRESHOLD} of 0 or 1.
+     *
+     * @param generator the source of bits
+     * @param p probability a bit is set, 0 to 1
+     */
+    public BernoulliBits(final RandomGenerator generator, final double p) {
+        this(generator, p, p < SKIP_THRESHOLD || p > 1.0 - SKIP_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param generator the source of bits
+     * @param p probability a bit is set, 0 to 1
+     * @param skip if true use the geometric skip, otherwise compare
+     *   words
+     */
+    public BernoulliBits(final RandomGenerator generator, final double p,
+                         final boolean skip) {
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("p must be in [0,1]: " + p);
+        }
+        this.generator = generator;
+        this.bulk = (generator instanceof BulkGenerator) ? (BulkGenerator) generator : null;
+        this.p = p;
+        this.digits = (p == 1.0) ? 0L : (long) Math.scalb(p, 63) << 1;
+        this.skip = skip;
+        this.invert = p > 0.5;
+        final double q = invert ? 1.0 - p : p;
+        this.skipScale = 1.0 / Math.log1p(-q);
+    }
+
+    /**
+     * @return the probability a bit is set
+     */
+    public double getProbability() {
+        return p;
+    }
+
+    /**
+     * @return true if the geometric skip is used
+     */
+    public boolean isSkipping() {
+        return skip;
+    }
+
+    /**
+     * Returns 64 bits, each set with probability <i>p</i>.
+     */
+    public long nextWord() {
+        if (p == 0.0) {
+            return 0L;
+        }
+        if (p == 1.0) {
+            return -1L;
+        }
+        return skip ? skipWord() : compare();
+    }
+
+    /**
+     * Fill an array.
+     *
+     * @param bits bitset to fill, bit <i>i</i> is bit <i>i</i> mod 64 of
+     *  <code>bits[</code><i>i</i> / 64<code>]</code>
+     */
+    public void fill(final long[] bits) {
+        fill(bits, 0, bits.length);
+    }
+
+    /**
+     * Fill part of an array.
+     *
+     * @param bits bitset to fill
+     * @param offset first word to fill
+     * @param length number of words to fill
+     */
+    public void fill(final long[] bits, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset > bits.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length
+                                                + ", array " + bits.length);
+        }
+        final int end = offset + length;
+        if (p == 0.0 || p == 1.0) {
+            final long w = (p == 0.0) ? 0L : -1L;
+            for (int i = offset; i < end; ++i) {
+                bits[i] = w;
+            }
+        } else if (skip) {
+            fillSkip(bits, offset, length);
+        } else {
+            for (int i = offset; i < end; ++i) {
+                bits[i] = compare();
+            }
+        }
+    }
+
+    /**
+     * One word by comparing 64 uniforms with p, a binary digit at a
+     * time.
+     */
+    private long compare() {
+        long result = 0L;
+        long undecided = -1L;
+        long rest = digits;
+        // once the rest of p is 0, an undecided U is >= p
+        while (rest != 0L && undecided != 0L) {
+            final long r = word();
+            if (rest < 0L) {
+                // digit 1, U < p where U's digit is 0
+                result |= undecided & ~r;
+                undecided &= r;
+            } else {
+                // digit 0, U > p where U's digit is 1
+                undecided &= ~r;
+            }
+            rest <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Set (or clear) bits at geometric gaps.
+     */
+    private void fillSkip(final long[] bits, final int offset, final int length) {
+        final long fill = invert ? -1L : 0L;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            bits[i] = fill;
+        }
+        final long size = 64L * length;
+        long pos = -1L;
+        while (true) {
+            // gap is Geometric(q): floor(log(U) / log(1 - q)), U in (0,1]
+            final double u = 1.0 - RandomStreams.toDouble(word());
+            final double gap = Math.floor(Math.log(u) * skipScale);
+            if (gap >= size - pos - 1) {
+                return;
+            }
+            pos += 1L + (long) gap;
+            bits[offset + (int) (pos >>> 6)] ^= 1L << pos;
+        }
+    }
+
+    /**
+     * One word by the geometric skip, the same as
+     * <code>fillSkip</code> with a length of 1.
+     */
+    private long skipWord() {
+        long w = 0L;
+        int pos = -1;
+        while (true) {
+            final double u = 1.0 - RandomStreams.toDouble(word());
+            final double gap = Math.floor(Math.log(u) * skipScale);
+            if (gap >= 63 - pos) {
+                return invert ? ~w : w;
+            }
+            pos += 1 + (int) gap;
+            w ^= 1L << pos;
+        }
+    }
+
+    private long word() {
+        return (bulk != null) ? bulk.next64() : RandomStreams.nextLong(generator);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * A generator that keeps the bits other generators throw away.
+ *
+ * <p>
+ * Most generators make a whole word per step, and <code>next(1)</code>
+ * throws away all but one bit of it.  This wraps a generator and keeps
+ * each word in a buffer, handing out <code>numBits</code> at a time, so
+ * 32 calls to <code>next(1)</code> use one <code>MersenneTwister</code>
+ * step, and 64 use one step of a {@link BulkGenerator}.  Bounded draws
+ * with {@link #nextInt(int)} use only as many bits as the bound needs.
+ * </p>
+ *
+ * <p>
+ * Bits are handed out from the most significant end of each word, so
+ * <code>next(32)</code> returns the same bits as the generator would
+ * (never sign extended), and <code>next(k)</code> for smaller <i>k</i>
+ * returns the same bit sequence cut up differently.  It is not
+ * thread-safe.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BitBufferedGenerator implements RandomGenerator {
+
+    private final RandomGenerator generator;
+
+    /** The generator if it makes 64 bits at a time, else null */
+    private final BulkGenerator bulk;
+
+    /** Bits per generator step */
+    private final int width;
+
+    /** Unused bits, at the top */
+    private long buffer;
+
+    /** Number of unused bits */
+    private int available;
+
+    /**
+     * Constructor, using 64-bit words from a {@link BulkGenerator},
+     * otherwise 32-bit words.
+     *
+     * @param generator the source of bits
+     */
+    public BitBufferedGenerator(final RandomGenerator generator) {
+        this(generator, (generator instanceof BulkGenerator) ? 64 : 32);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param generator the source of bits
+     * @param width bits to take per step: 64 for a {@link BulkGenerator},
+     *   or 1 to 32 using <code>next(width)</code>
+     */
+    public BitBufferedGenerator(final RandomGenerator generator, final int width) {
+        if (width == 64 && !(generator instanceof BulkGenerator)) {
+            throw new IllegalArgumentException("64-bit words need a BulkGenerator");
+        }
+        if (width < 1 || (width > 32 && width != 64)) {
+            throw new IllegalArgumentException("width must be in [1,32] or 64: " + width);
+        }
+        this.generator = generator;
+        this.bulk = (width == 64) ? (BulkGenerator) generator : null;
+        this.width = width;
+    }
+
+    /**
+     * @return the generator bits come from
+     */
+    public RandomGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * @return bits taken per generator step
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Throw away the buffered bits, so the next call starts a new word.
+     */
+    public void clear() {
+        buffer = 0L;
+        available = 0;
+    }
+
+    /**
+     * Returns 1 to 32 random bits.
+     */
+    public long next(final int numBits) {
+        if (numBits < 1 || numBits > 32) {
+            throw new IllegalArgumentException("numBits must be in [1,32]: " + numBits);
+        }
+        if (numBits <= available) {
+            final long r = buffer >>> (64 - numBits);
+            buffer <<= numBits;
+            available -= numBits;
+            return r;
+        }
+        return nextSlow(numBits);
+    }
+
+    /**
+     * Use up what's left, then as many new words as needed.
+     */
+    private long nextSlow(final int numBits) {
+        long r = 0L;
+        int need = numBits;
+        while (need > 0) {
+            if (available == 0) {
+                fill();
+            }
+            final int take = Math.min(need, available);
+            r = (r << take) | (buffer >>> (64 - take));
+            buffer <<= take;
+            available -= take;
+            need -= take;
+        }
+        return r;
+    }
+
+    /**
+     * Returns one random bit.
+     */
+    public boolean nextBoolean() {
+        if (available == 0) {
+            fill();
+        }
+        final boolean r = buffer < 0L;
+        buffer <<= 1;
+        --available;
+        return r;
+    }
+
+    /**
+     * Returns a uniform value in [0, bound).
+     *
+     * <p>
+     * Uses the fewest bits that can hold <code>bound - 1</code>, and
+     * tries again if the value is too big, which happens less than half
+     * the time.  A power of two bound never retries.
+     * </p>
+     *
+     * @param bound upper limit, positive
+     */
+    public int nextInt(final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        if (bound == 1) {
+            return 0;
+        }
+        final int bits = 32 - Integer.numberOfLeadingZeros(bound - 1);
+        int r;
+        do {
+            r = (int) next(bits);
+        } while (r >= bound);
+        return r;
+    }
+
+    /**
+     * Take a new word from the generator.
+     */
+    private void fill() {
+        if (bulk != null) {
+            buffer = bulk.next64();
+        } else {
+            buffer = generator.next(width) << (64 - width);
+        }
+        available = width;
+    }
+}
@@ -37,6 +37,7 @@ package com.modp.random;
 import java.util.Random;
 import java.security.SecureRandom;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 /**
  * The Blum-Blum-Shub random number generator.
@@ -83,7 +84,7 @@ import java.math.BigInteger;
  * @version 3 -- 06-Jul-2005
  *
  */
-public class BlumBlumShub implements RandomGenerator {
+public class BlumBlumShub implements StatefulGenerator {
 
     // pre-compute a few values
     private static final BigInteger two = BigInteger.valueOf(2L);
@@ -199,6 +200,9 @@ public class BlumBlumShub implements RandomGenerator {
     /**
      * Returns up to numBit random bits
      *
+     * <p>Note: this allocates new <code>BigInteger</code> objects
+     * for every bit.</p>
+     *
      * @return int
      */
     public long next(int numBits) {
@@ -212,6 +216,61 @@ public class BlumBlumShub implements RandomGenerator {
 	return result;
     }
 
+    /**
+     * State record: <i>n</i> and the state, each as a length and
+     * big-endian two's complement bytes.
+     */
+    public int stateSize() {
+	return StateFormat.HEADER + 8 + n.toByteArray().length
+	    + state.toByteArray().length;
+    }
+
+    public void saveState(ByteBuffer buf) {
+	byte[] nb = n.toByteArray();
+	byte[] sb = state.toByteArray();
+	StateFormat.write(buf, StateFormat.BLUM_BLUM_SHUB, 1);
+	buf.putInt(nb.length);
+	buf.put(nb);
+	buf.putInt(sb.length);
+	buf.put(sb);
+    }
+
+    public void restoreState(ByteBuffer buf) {
+	StateFormat.read(buf, StateFormat.BLUM_BLUM_SHUB, 1, 8);
+	final int start = buf.position();
+	try {
+	    BigInteger nv = getBigInteger(buf);
+	    BigInteger sv = getBigInteger(buf);
+	    if (nv.signum() <= 0 || sv.signum() < 0 || sv.compareTo(nv) >= 0) {
+		throw new IllegalArgumentException("Bad Blum-Blum-Shub state");
+	    }
+	    n = nv;
+	    state = sv;
+	} catch (RuntimeException e) {
+	    buf.position(start - StateFormat.HEADER);
+	    if (e instanceof IllegalArgumentException) {
+		throw e;
+	    }
+	    throw new IllegalArgumentException("State record too short");
+	}
+    }
+
+    private static BigInteger getBigInteger(ByteBuffer buf) {
+	int len = buf.getInt();
+	if (len < 1 || len > buf.remaining()) {
+	    throw new IllegalArgumentException("Bad Blum-Blum-Shub state");
+	}
+	byte[] b = new byte[len];
+	buf.get(b);
+	return new BigInteger(b);
+    }
+
+    public BlumBlumShub copy() {
+	BlumBlumShub r = new BlumBlumShub(n, new byte[1]);
+	r.state = state;
+	return r;
+    }
+
     /**
      * A quickie test application for BlumBlumShub.
      */
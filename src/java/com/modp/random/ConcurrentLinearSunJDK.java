@@ -0,0 +1,185 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A thread-safe, lock-free version of {@link LinearSunJDK}.
+ *
+ * <p>
+ * All threads share one <code>java.util.Random</code> sequence.  Like
+ * <code>java.util.Random</code> the state is updated with a
+ * compare-and-set loop, but here the state is on its own cache line.
+ * </p>
+ *
+ * <p>
+ * With many threads the CAS itself is the bottleneck.  Threads that need
+ * many values should take a block of them with
+ * {@link #reserve(long, LinearSunJDK)} or {@link #nextInts}, which claim
+ * <i>n</i> consecutive outputs with a single CAS, using skip-ahead
+ * to find the end of the block.  Every output is still handed out exactly
+ * once, but the order in which threads see them is up to the scheduler.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ConcurrentLinearSunJDK implements StatefulGenerator {
+
+    private final static long multiplier = 0x5DEECE66DL;
+    private final static long mask = (1L << 48) - 1;
+
+    private final PaddedAtomicLong state = new PaddedAtomicLong(0L);
+
+    /**
+     * Constructor, initializes seed with current time
+     */
+    public ConcurrentLinearSunJDK() {
+        setSeed(System.currentTimeMillis());
+    }
+
+    public ConcurrentLinearSunJDK(final long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Set the seed, the same as <code>java.util.Random#setSeed</code>
+     */
+    public void setSeed(final long seed) {
+        state.set((seed ^ multiplier) & mask);
+    }
+
+    /**
+     * Get the raw 48-bit internal state.
+     *
+     * @see LinearSunJDK#getState()
+     */
+    public long getState() {
+        return state.get();
+    }
+
+    /*
+     * @see com.modp.random.RandomGenerator#next(int)
+     */
+    public long next(final int numBits) {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = LinearSunJDK.step(current);
+        } while (!state.compareAndSet(current, next));
+        return LinearSunJDK.output(next, numBits);
+    }
+
+    /**
+     * Claim the next <code>n</code> outputs with a single CAS.
+     *
+     * @param n number of outputs to claim, 1 or more
+     * @return the raw state just before the first claimed output
+     */
+    public long reserve(final long n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        long current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, LinearSunJDK.skip(current, n)));
+        return current;
+    }
+
+    /**
+     * Claim the next <code>n</code> outputs, and set up a local
+     * generator to produce them.
+     *
+     * <p>
+     * The next <code>n</code> calls to <code>block.next</code> return the
+     * claimed outputs.  Calls after that overlap with outputs that belong
+     * to other threads.
+     * </p>
+     *
+     * @param n number of outputs to claim, 1 or more
+     * @param block generator to set up, owned by the calling thread
+     */
+    public void reserve(final long n, final LinearSunJDK block) {
+        block.setState(reserve(n));
+    }
+
+    /**
+     * Fill an array with consecutive 32-bit outputs, using one CAS.
+     *
+     * @param dest array to fill
+     * @param offset first index to write
+     * @param length number of values to write
+     */
+    public void nextInts(final int[] dest, final int offset, final int length) {
+        if (length == 0) {
+            return;
+        }
+        long s = reserve(length);
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            s = LinearSunJDK.step(s);
+            dest[i] = (int) LinearSunJDK.output(s, 32);
+        }
+    }
+
+    /**
+     * State record: the raw 48-bit state.  This is a snapshot, other
+     * threads may move the state on while it is taken.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 8;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.CONCURRENT_LINEAR_SUN_JDK, 1);
+        buf.putLong(state.get());
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.CONCURRENT_LINEAR_SUN_JDK, 1, 8);
+        state.set(buf.getLong() & mask);
+    }
+
+    public ConcurrentLinearSunJDK copy() {
+        ConcurrentLinearSunJDK r = new ConcurrentLinearSunJDK(0L);
+        r.state.set(state.get());
+        return r;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Running numbered tasks on a <code>ForkJoinPool</code>.  Give each
+ * task its own generator from {@link Substreams} and the results don't
+ * depend on the pool.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+final class ForkJoinSupport {
+
+    private ForkJoinSupport() {
+    }
+
+    interface Task {
+        void run(int index);
+    }
+
+    /**
+     * Run a task for each index on the pool, and wait.
+     */
+    static void forEach(final ForkJoinPool pool, final int count, final Task task) {
+        if (count > 0) {
+            pool.invoke(new Range(task, 0, count));
+        }
+    }
+
+    /**
+     * Start a task for each index on the pool, without waiting.
+     *
+     * @param count number of indexes, 1 or more
+     * @return the running tasks, to join
+     */
+    static ForkJoinTask<Void> fork(final ForkJoinPool pool, final int count, final Task task) {
+        return pool.submit(new Range(task, 0, count));
+    }
+
+    private static final class Range extends RecursiveAction {
+        private final Task task;
+        private final int from;
+        private final int to;
+
+        Range(final Task task, final int from, final int to) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from == 1) {
+                task.run(from);
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Range(task, from, mid), new Range(task, mid, to));
+            }
+        }
+    }
+}
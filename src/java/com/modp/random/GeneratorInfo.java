@@ -0,0 +1,187 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * What a registered generator algorithm is and can do.
+ *
+ * <p>
+ * The capabilities are bit flags, so a query can ask for several at
+ * once, for example <code>SPLITTABLE | BULK</code>.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class GeneratorInfo {
+
+    /**
+     * Implements {@link JumpableGenerator}, so {@link Substreams} and
+     * {@link MonteCarloEngine} make its streams by jumping
+     */
+    public static final int JUMPABLE = 1;
+
+    /** Implements {@link SplittableGenerator} */
+    public static final int SPLITTABLE = 2;
+
+    /** Implements {@link BulkGenerator} */
+    public static final int BULK = 4;
+
+    /** Meant to be unpredictable, not just statistically random */
+    public static final int CRYPTO = 8;
+
+    /**
+     * Can move ahead any number of steps without generating, with
+     * <code>skip</code> or <code>seek</code>
+     */
+    public static final int SKIPPABLE = 16;
+
+    private final String name;
+    private final int stateBits;
+    private final int periodLog2;
+    private final int outputBits;
+    private final int flags;
+    private final double cost;
+
+    /**
+     * Constructor.
+     *
+     * @param name name used to look up the algorithm
+     * @param stateBits size of the state, in bits
+     * @param periodLog2 log<sub>2</sub> of the period, rounded, or 0 if
+     *   it isn't known
+     * @param outputBits random bits made per step, but no more than
+     *   one call can return through the interfaces it implements
+     * @param flags capability flags
+     * @param cost rough nanoseconds per 64 bits, used to rank
+     *   algorithms against each other
+     */
+    public GeneratorInfo(final String name, final int stateBits,
+                         final int periodLog2, final int outputBits,
+                         final int flags, final double cost) {
+        this.name = name;
+        this.stateBits = stateBits;
+        this.periodLog2 = periodLog2;
+        this.outputBits = outputBits;
+        this.flags = flags;
+        this.cost = cost;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStateBits() {
+        return stateBits;
+    }
+
+    /**
+     * @return log<sub>2</sub> of the period, or 0 if it isn't known
+     */
+    public int getPeriodLog2() {
+        return periodLog2;
+    }
+
+    /**
+     * @return random bits made per step of the algorithm, no more
+     *   than one call can return
+     */
+    public int getOutputBits() {
+        return outputBits;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return true if all the given flags are set
+     */
+    public boolean has(final int required) {
+        return (flags & required) == required;
+    }
+
+    public boolean isJumpable() {
+        return has(JUMPABLE);
+    }
+
+    public boolean isSplittable() {
+        return has(SPLITTABLE);
+    }
+
+    public boolean isBulk() {
+        return has(BULK);
+    }
+
+    public boolean isCrypto() {
+        return has(CRYPTO);
+    }
+
+    public boolean isSkippable() {
+        return has(SKIPPABLE);
+    }
+
+    /**
+     * @return rough nanoseconds per 64 bits, only useful for comparing
+     *   algorithms
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public String toString() {
+        StringBuffer buf = new StringBuffer(name);
+        buf.append(" state=").append(stateBits);
+        buf.append(" period=2^").append(periodLog2 == 0 ? "?" : String.valueOf(periodLog2));
+        buf.append(" output=").append(outputBits);
+        if (isJumpable()) {
+            buf.append(" jumpable");
+        }
+        if (isSkippable()) {
+            buf.append(" skippable");
+        }
+        if (isSplittable()) {
+            buf.append(" splittable");
+        }
+        if (isBulk()) {
+            buf.append(" bulk");
+        }
+        if (isCrypto()) {
+            buf.append(" crypto");
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Usage counters for one or more {@link InstrumentedGenerator}s.
+ *
+ * <p>
+ * Counters are striped (<code>LongAdder</code>), so many threads can
+ * update the same metrics without fighting over one cache line.  Give
+ * each subsystem its own metrics and share it between that subsystem's
+ * generators to see how many bits each one uses.
+ * </p>
+ *
+ * <p>
+ * The metrics can be published as a JMX MBean named
+ * <code>com.modp.random:type=Generator,name=</code><i>name</i>.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class GeneratorMetrics implements GeneratorMetricsMBean {
+
+    /**
+     * System property that turns on {@link InstrumentedGenerator#wrap}
+     */
+    public static final String ENABLED_PROPERTY = "com.modp.random.metrics";
+
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private final String name;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder bits = new LongAdder();
+
+    private final LongAdder refills = new LongAdder();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private ObjectName objectName;
+
+    /**
+     * Constructor.
+     *
+     * @param name what the generators are used for, e.g. "sessions"
+     */
+    public GeneratorMetrics(final String name) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        this.name = name;
+    }
+
+    /**
+     * @return true if the {@value #ENABLED_PROPERTY} system property was
+     *   "true" when this class was loaded
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    void call(final long numBits) {
+        calls.increment();
+        bits.add(numBits);
+    }
+
+    void refill() {
+        refills.increment();
+    }
+
+    void latency(final long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * @return the latency histogram, filled in by timed generators
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getBits() {
+        return bits.sum();
+    }
+
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    public long getLatencyCount() {
+        return latency.getCount();
+    }
+
+    public double getLatencyMeanNanos() {
+        return latency.getMean();
+    }
+
+    public long getLatencyP50Nanos() {
+        return latency.getPercentile(50.0);
+    }
+
+    public long getLatencyP99Nanos() {
+        return latency.getPercentile(99.0);
+    }
+
+    public long getLatencyP999Nanos() {
+        return latency.getPercentile(99.9);
+    }
+
+    public long getLatencyMaxNanos() {
+        return latency.getMax();
+    }
+
+    public void reset() {
+        calls.reset();
+        bits.reset();
+        refills.reset();
+        latency.reset();
+    }
+
+    /**
+     * Register with the platform MBean server.
+     *
+     * @return the name registered under
+     * @throws JMException if the name is taken, or JMX fails
+     */
+    public synchronized ObjectName register() throws JMException {
+        if (objectName == null) {
+            ObjectName on = new ObjectName("com.modp.random:type=Generator,name="
+                                           + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            objectName = on;
+        }
+        return objectName;
+    }
+
+    /**
+     * Remove from the platform MBean server, if registered.
+     *
+     * @throws JMException if JMX fails
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    public String toString() {
+        return name + ": calls=" + getCalls() + " bits=" + getBits()
+            + " refills=" + getRefills() + " p99=" + getLatencyP99Nanos() + "ns";
+    }
+}
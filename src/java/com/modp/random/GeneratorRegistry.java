@@ -0,0 +1,217 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up generator algorithms by name or by capability.
+ *
+ * <p>
+ * The default registry holds every {@link GeneratorProvider} found with
+ * <code>ServiceLoader</code>, which includes everything in this
+ * package (see {@link StandardProviders}).  Providers are cheap to
+ * load; no generator is made until {@link #create(String, long)} is
+ * called.
+ * </p>
+ *
+ * <pre>
+ * GeneratorRegistry reg = GeneratorRegistry.getDefault();
+ * RandomGenerator a = reg.create("MersenneTwister64", 42L);
+ * GeneratorProvider p = reg.find(GeneratorInfo.SPLITTABLE, 64);
+ * RandomGenerator b = p.create(42L);
+ * </pre>
+ *
+ * <p>
+ * Names are matched without regard to case.  If two providers use the
+ * same name, the first one registered wins.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class GeneratorRegistry {
+
+    /**
+     * Holder for the default registry, loaded on first use.
+     */
+    private static final class Default {
+        static final GeneratorRegistry INSTANCE =
+            load(GeneratorRegistry.class.getClassLoader());
+    }
+
+    /**
+     * Providers by lower case name, in registration order.
+     */
+    private final Map<String, GeneratorProvider> providers =
+        new LinkedHashMap<String, GeneratorProvider>();
+
+    /**
+     * Constructor, for an empty registry.
+     */
+    public GeneratorRegistry() {
+    }
+
+    /**
+     * @return the registry of all providers found with ServiceLoader
+     */
+    public static GeneratorRegistry getDefault() {
+        return Default.INSTANCE;
+    }
+
+    /**
+     * Make a registry from the providers a class loader can find.
+     *
+     * @param loader the class loader to search
+     * @return a new registry
+     */
+    public static GeneratorRegistry load(final ClassLoader loader) {
+        GeneratorRegistry reg = new GeneratorRegistry();
+        Iterator<GeneratorProvider> it =
+            ServiceLoader.load(GeneratorProvider.class, loader).iterator();
+        while (it.hasNext()) {
+            reg.register(it.next());
+        }
+        return reg;
+    }
+
+    /**
+     * Add a provider.
+     *
+     * @param provider the provider
+     * @return false if a provider with the same name was already here
+     */
+    public synchronized boolean register(final GeneratorProvider provider) {
+        String key = key(provider.getInfo().getName());
+        if (providers.containsKey(key)) {
+            return false;
+        }
+        providers.put(key, provider);
+        return true;
+    }
+
+    /**
+     * @return the names of all algorithms, in registration order
+     */
+    public synchronized List<String> getNames() {
+        List<String> names = new ArrayList<String>(providers.size());
+        for (GeneratorProvider p : providers.values()) {
+            names.add(p.getInfo().getName());
+        }
+        return names;
+    }
+
+    /**
+     * @return all providers, in registration order
+     */
+    public synchronized List<GeneratorProvider> getProviders() {
+        return new ArrayList<GeneratorProvider>(providers.values());
+    }
+
+    /**
+     * @param name algorithm name
+     * @return the provider, or null if there is none
+     */
+    public synchronized GeneratorProvider getProvider(final String name) {
+        return providers.get(key(name));
+    }
+
+    /**
+     * @param name algorithm name
+     * @return what the algorithm is and can do
+     * @throws IllegalArgumentException if there is no such algorithm
+     */
+    public GeneratorInfo getInfo(final String name) {
+        return require(name).getInfo();
+    }
+
+    /**
+     * Create a generator by name, such as from a configuration file.
+     *
+     * @param name algorithm name
+     * @param seed the seed
+     * @return a new generator
+     * @throws IllegalArgumentException if there is no such algorithm
+     */
+    public RandomGenerator create(final String name, final long seed) {
+        return require(name).create(seed);
+    }
+
+    /**
+     * Find the fastest algorithm with some capabilities.
+     *
+     * <p>
+     * For example the fastest splittable 64-bit generator is
+     * <code>find(GeneratorInfo.SPLITTABLE, 64)</code>.  Speed is the
+     * provider's own rough cost.
+     * </p>
+     *
+     * @param flags capability flags that must all be set
+     * @param minOutputBits the fewest random bits per step allowed
+     * @return the provider, or null if none match
+     */
+    public synchronized GeneratorProvider find(final int flags, final int minOutputBits) {
+        GeneratorProvider best = null;
+        for (GeneratorProvider p : providers.values()) {
+            GeneratorInfo info = p.getInfo();
+            if (!info.has(flags) || info.getOutputBits() < minOutputBits) {
+                continue;
+            }
+            if (best == null || info.getCost() < best.getInfo().getCost()) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private GeneratorProvider require(final String name) {
+        GeneratorProvider p = getProvider(name);
+        if (p == null) {
+            throw new IllegalArgumentException("Unknown generator: " + name);
+        }
+        return p;
+    }
+
+    private static String key(final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
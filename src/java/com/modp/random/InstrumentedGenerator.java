@@ -0,0 +1,374 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A generator that counts how it is used.
+ *
+ * <p>
+ * Every call adds to the {@link GeneratorMetrics} calls and bits
+ * counters.  If the generator is a {@link RefillingGenerator} the
+ * refills are counted too.  A <i>timed</i> generator also records how
+ * long each call takes in the latency histogram, and as a Flight
+ * Recorder event when JFR is available.  Timing costs two
+ * <code>System.nanoTime()</code> calls, so it's meant for slow engines
+ * like BBS.
+ * </p>
+ *
+ * <pre>
+ * GeneratorMetrics m = new GeneratorMetrics("tokens");
+ * m.register();
+ * RandomGenerator r = InstrumentedGenerator.wrap(new BlumBlumShub(512), m, true);
+ * </pre>
+ *
+ * <p>
+ * {@link #wrap} returns the generator itself, with no decorator at all,
+ * unless the <code>com.modp.random.metrics</code> system property is
+ * "true", so instrumentation can be left in the code and costs nothing
+ * when it's off.  When it's on, {@link #wrap} and {@link #instrument}
+ * return a decorator that implements the same capability interfaces as
+ * the generator ({@link BulkGenerator}, {@link SplittableGenerator},
+ * {@link StatefulGenerator} and {@link JumpableGenerator}), so turning
+ * metrics on doesn't change which code paths callers take.  Children
+ * from <code>split()</code> and <code>copy()</code> count into the same
+ * metrics.  This decorator is only as thread-safe as the generator it
+ * wraps.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class InstrumentedGenerator implements RandomGenerator {
+
+    private static final boolean JFR = jfrAvailable();
+
+    private final RandomGenerator generator;
+
+    /** The generator, if it counts refills, else null */
+    private final RefillingGenerator refilling;
+
+    private final GeneratorMetrics metrics;
+
+    private final boolean timed;
+
+    /**
+     * Constructor.  The result only implements
+     * <code>RandomGenerator</code>, use {@link #instrument} to keep the
+     * generator's other interfaces.
+     *
+     * @param generator the generator to count
+     * @param metrics where to count, may be shared
+     * @param timed if true record the time of each call
+     */
+    public InstrumentedGenerator(final RandomGenerator generator,
+                                 final GeneratorMetrics metrics,
+                                 final boolean timed) {
+        if (generator == null || metrics == null) {
+            throw new NullPointerException();
+        }
+        this.generator = generator;
+        this.refilling = (generator instanceof RefillingGenerator)
+            ? (RefillingGenerator) generator : null;
+        this.metrics = metrics;
+        this.timed = timed;
+    }
+
+    /**
+     * Instrument a generator if metrics are enabled.
+     *
+     * @param generator the generator to count
+     * @param metrics where to count
+     * @param timed if true record the time of each call
+     * @return {@link #instrument instrument(generator, metrics, timed)} if
+     *   {@link GeneratorMetrics#isEnabled()}, else <code>generator</code>
+     */
+    public static RandomGenerator wrap(final RandomGenerator generator,
+                                       final GeneratorMetrics metrics,
+                                       final boolean timed) {
+        return GeneratorMetrics.isEnabled()
+            ? instrument(generator, metrics, timed) : generator;
+    }
+
+    /**
+     * Instrument a generator, keeping its capabilities.
+     *
+     * @param generator the generator to count
+     * @param metrics where to count, may be shared
+     * @param timed if true record the time of each call
+     * @return an <code>InstrumentedGenerator</code> that is an instance
+     *   of each of {@link BulkGenerator}, {@link SplittableGenerator},
+     *   {@link StatefulGenerator} and {@link JumpableGenerator} exactly
+     *   when <code>generator</code> is
+     */
+    public static InstrumentedGenerator instrument(final RandomGenerator generator,
+                                                   final GeneratorMetrics metrics,
+                                                   final boolean timed) {
+        final boolean bulk = generator instanceof BulkGenerator;
+        final boolean split = generator instanceof SplittableGenerator;
+        if (generator instanceof JumpableGenerator) {
+            if (bulk) {
+                return split ? new BulkSplittableJumpable(generator, metrics, timed)
+                    : new BulkJumpable(generator, metrics, timed);
+            }
+            return split ? new SplittableJumpable(generator, metrics, timed)
+                : new Jumpable(generator, metrics, timed);
+        }
+        if (generator instanceof StatefulGenerator) {
+            if (bulk) {
+                return split ? new BulkSplittableStateful(generator, metrics, timed)
+                    : new BulkStateful(generator, metrics, timed);
+            }
+            return split ? new SplittableStateful(generator, metrics, timed)
+                : new Stateful(generator, metrics, timed);
+        }
+        if (bulk) {
+            return split ? new BulkSplittable(generator, metrics, timed)
+                : new Bulk(generator, metrics, timed);
+        }
+        return split ? new Splittable(generator, metrics, timed)
+            : new InstrumentedGenerator(generator, metrics, timed);
+    }
+
+    /**
+     * @return the generator being counted
+     */
+    public RandomGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * @return the metrics counted into
+     */
+    public GeneratorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /*
+     * @see com.modp.random.RandomGenerator#next(int)
+     */
+    public long next(final int numBits) {
+        final long refills = before(numBits);
+        final long start = clock();
+        final long r = generator.next(numBits);
+        after(refills, start, numBits);
+        return r;
+    }
+
+    /**
+     * Count a call.
+     *
+     * @return the generator's refill count before the call
+     */
+    final long before(final long numBits) {
+        metrics.call(numBits);
+        return (refilling == null) ? 0L : refilling.getRefills();
+    }
+
+    /**
+     * @return the start time of a call, if timed
+     */
+    final long clock() {
+        return timed ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the time and any refill of a call.
+     */
+    final void after(final long refills, final long start, final long numBits) {
+        if (timed) {
+            final long nanos = System.nanoTime() - start;
+            metrics.latency(nanos);
+            if (JFR) {
+                GeneratorEvent.emit(metrics.getName(),
+                                    (int) Math.min(numBits, Integer.MAX_VALUE), nanos);
+            }
+        }
+        if (refilling != null && refilling.getRefills() != refills) {
+            metrics.refill();
+        }
+    }
+
+    /**
+     * Instrument a generator split or copied from this one, into the
+     * same metrics.
+     */
+    final InstrumentedGenerator child(final RandomGenerator g) {
+        return instrument(g, metrics, timed);
+    }
+
+    private static boolean jfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * The capability methods.  Each subclass implements the interfaces
+     * its generator does, and so only gets the methods it can forward.
+     */
+    private abstract static class Forwarding extends InstrumentedGenerator {
+        Forwarding(final RandomGenerator generator,
+                   final GeneratorMetrics metrics, final boolean timed) {
+            super(generator, metrics, timed);
+        }
+
+        public long next64() {
+            final long refills = before(64);
+            final long start = clock();
+            final long r = ((BulkGenerator) getGenerator()).next64();
+            after(refills, start, 64);
+            return r;
+        }
+
+        public void nextLongs(final long[] dest, final int offset, final int length) {
+            final long bits = 64L * Math.max(length, 0);
+            final long refills = before(bits);
+            final long start = clock();
+            ((BulkGenerator) getGenerator()).nextLongs(dest, offset, length);
+            after(refills, start, bits);
+        }
+
+        public SplittableGenerator split() {
+            return (SplittableGenerator) child(((SplittableGenerator) getGenerator()).split());
+        }
+
+        public void jump() {
+            ((JumpableGenerator) getGenerator()).jump();
+        }
+
+        public int stateSize() {
+            return ((StatefulGenerator) getGenerator()).stateSize();
+        }
+
+        public void saveState(final ByteBuffer buf) {
+            ((StatefulGenerator) getGenerator()).saveState(buf);
+        }
+
+        public void restoreState(final ByteBuffer buf) {
+            ((StatefulGenerator) getGenerator()).restoreState(buf);
+        }
+
+        public StatefulGenerator copy() {
+            return (StatefulGenerator) child(((StatefulGenerator) getGenerator()).copy());
+        }
+    }
+
+    private static final class Bulk extends Forwarding
+        implements BulkGenerator {
+        Bulk(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class Splittable extends Forwarding
+        implements SplittableGenerator {
+        Splittable(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class BulkSplittable extends Forwarding
+        implements BulkGenerator, SplittableGenerator {
+        BulkSplittable(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class Stateful extends Forwarding
+        implements StatefulGenerator {
+        Stateful(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class BulkStateful extends Forwarding
+        implements BulkGenerator, StatefulGenerator {
+        BulkStateful(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class SplittableStateful extends Forwarding
+        implements SplittableGenerator, StatefulGenerator {
+        SplittableStateful(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class BulkSplittableStateful extends Forwarding
+        implements BulkGenerator, SplittableGenerator, StatefulGenerator {
+        BulkSplittableStateful(final RandomGenerator g, final GeneratorMetrics m,
+                               final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class Jumpable extends Forwarding
+        implements JumpableGenerator {
+        Jumpable(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class BulkJumpable extends Forwarding
+        implements BulkGenerator, JumpableGenerator {
+        BulkJumpable(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class SplittableJumpable extends Forwarding
+        implements SplittableGenerator, JumpableGenerator {
+        SplittableJumpable(final RandomGenerator g, final GeneratorMetrics m, final boolean t) {
+            super(g, m, t);
+        }
+    }
+
+    private static final class BulkSplittableJumpable extends Forwarding
+        implements BulkGenerator, SplittableGenerator, JumpableGenerator {
+        BulkSplittableJumpable(final RandomGenerator g, final GeneratorMetrics m,
+                               final boolean t) {
+            super(g, m, t);
+        }
+    }
+}
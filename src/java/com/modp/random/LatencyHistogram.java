@@ -0,0 +1,206 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of times, in nanoseconds.
+ *
+ * <p>
+ * Buckets are log-linear, in the style of HdrHistogram: each power of two
+ * is split into 16 equal buckets, so a recorded value is known to within
+ * 1/16 (about 6%) at any scale, using 608 counters to cover 1 ns to about
+ * 18 minutes.  Larger values go in the last bucket.  Values under 16 ns
+ * are exact.
+ * </p>
+ *
+ * <p>
+ * Recording is a couple of atomic increments, which is nothing next to
+ * the generators worth timing (BBS, Rule 30), but is a lot next to a
+ * fast one.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class LatencyHistogram {
+
+    /** log2 of buckets per power of two */
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB = 1 << SUB_BITS;
+
+    /** Largest exponent with its own buckets */
+    private static final int MAX_EXP = 40;
+
+    /** Number of buckets */
+    static final int BUCKETS = (MAX_EXP - SUB_BITS + 2) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param nanos the time, negative values are counted as 0
+     */
+    public void record(final long nanos) {
+        final long v = (nanos < 0) ? 0 : nanos;
+        counts.getAndIncrement(index(v));
+        total.getAndIncrement();
+        sum.getAndAdd(v);
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * @return the largest value recorded, or 0
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0
+     */
+    public double getMean() {
+        final long n = total.get();
+        return (n == 0) ? 0.0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Get a percentile.
+     *
+     * <p>
+     * The result is the top of the bucket holding the value, so it may
+     * be up to 1/16 higher than the real value, but is never more than
+     * {@link #getMax()}.  Values recorded while this runs may or may not
+     * be counted.
+     * </p>
+     *
+     * @param percent 0 to 100, e.g. 99.9
+     * @return the value at that percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(final double percent) {
+        if (!(percent >= 0.0 && percent <= 100.0)) {
+            throw new IllegalArgumentException("percent must be in [0,100]: " + percent);
+        }
+        final long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percent / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clear everything.  Values recorded while this runs may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts.set(i, 0L);
+        }
+        total.set(0L);
+        sum.set(0L);
+        max.set(0L);
+    }
+
+    /**
+     * The bucket for a value.
+     */
+    static int index(final long v) {
+        if (v < SUB) {
+            return (int) v;
+        }
+        final int e = 63 - Long.numberOfLeadingZeros(v);
+        if (e > MAX_EXP) {
+            return BUCKETS - 1;
+        }
+        return (e - SUB_BITS + 1) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+    }
+
+    /**
+     * The smallest value in a bucket.
+     */
+    static long lowest(final int index) {
+        if (index < SUB) {
+            return index;
+        }
+        final int e = index / SUB + SUB_BITS - 1;
+        return (long) (SUB + index % SUB) << (e - SUB_BITS);
+    }
+
+    /**
+     * The largest value in a bucket.
+     */
+    static long highest(final int index) {
+        if (index < SUB) {
+            return index;
+        }
+        if (index == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return lowest(index + 1) - 1;
+    }
+}
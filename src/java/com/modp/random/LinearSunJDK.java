@@ -34,6 +34,9 @@
  */
 package com.modp.random;
 
+import java.nio.ByteBuffer;
+
+
 /**
  * Re-implemtation of the PRNG from java.util.Random.
  *
@@ -45,13 +48,20 @@ package com.modp.random;
  * @author Nick Galbreath nickg [at] modp [dot] com
  * @version 1 -- 06-Jul-2005
  */
-public class LinearSunJDK implements RandomGenerator {
+public class LinearSunJDK implements SplittableGenerator, StatefulGenerator {
 
     private long seed;
     private final static long multiplier = 0x5DEECE66DL;
     private final static long addend = 0xBL;
     private final static long mask = (1L << 48) - 1;
 
+    /**
+     * log<sub>2</sub> of the block size used by <code>split()</code>.
+     */
+    private final static int SPLIT_LOG2 = 28;
+
+    private int splitLevel = 0;
+
     /* Constructor, initializes seed with current time
      * 
      */
@@ -67,6 +77,24 @@ public class LinearSunJDK implements RandomGenerator {
         this.seed = (seed ^ multiplier) & mask;
     }
 
+    /**
+     * Get the raw 48-bit internal state.
+     *
+     * This is not the same as the seed, which is scrambled
+     * by <code>setSeed</code>.
+     */
+    public long getState() {
+	return seed;
+    }
+
+    /**
+     * Set the raw 48-bit internal state, as returned
+     * by {@link #getState()}.
+     */
+    public void setState(long state) {
+	this.seed = state & mask;
+    }
+
     /* (non-Javadoc)
      * @see com.modp.random.RandomGenerator#next(int)
      */
@@ -74,4 +102,115 @@ public class LinearSunJDK implements RandomGenerator {
 	seed = (seed * multiplier + addend) & mask;
 	return (int)(seed >>> (48 - numBits));
     }
+
+    /**
+     * Skip ahead (or back) <code>n</code> outputs in O(log n) time.
+     *
+     * <p>
+     * Negative values go backwards, since the period is
+     * 2<sup>48</sup>.
+     * </p>
+     *
+     * @param n number of outputs to skip
+     */
+    public void skip(long n) {
+	seed = skip(seed, n);
+    }
+
+    /**
+     * Split using <code>skip</code>.
+     *
+     * <p>
+     * The sequence is cut into blocks of 2<sup>28</sup> outputs.
+     * The new generator starts 2<sup>28+k</sup> outputs ahead, where
+     * <i>k</i> is the number of earlier splits in this generator's
+     * history.  Generators never share a block as long as each one
+     * uses fewer than 2<sup>28</sup> outputs per block.  The period is
+     * only 2<sup>48</sup>, so a history can have at most 20 splits.
+     * </p>
+     *
+     * @throws IllegalStateException if the split would wrap the period
+     */
+    public LinearSunJDK split() {
+	if (SPLIT_LOG2 + splitLevel >= 48) {
+	    throw new IllegalStateException("too many splits: " + splitLevel);
+	}
+	LinearSunJDK child = new LinearSunJDK(0L);
+	child.seed = skip(seed, 1L << (SPLIT_LOG2 + splitLevel));
+	splitLevel++;
+	child.splitLevel = splitLevel;
+	return child;
+    }
+
+    /**
+     * Compute the state <code>n</code> steps after <code>state</code>.
+     *
+     * <p>
+     * This uses the usual doubling trick: the composition of two
+     * steps <i>x</i> &rarr; <i>ax</i> + <i>c</i> is another step of the
+     * same form, so square the step for each bit of <code>n</code>.
+     * </p>
+     */
+    static long skip(final long state, long n) {
+	long mul = 1L;
+	long add = 0L;
+	long curMul = multiplier;
+	long curAdd = addend;
+	while (n != 0L) {
+	    if ((n & 1L) != 0L) {
+		mul *= curMul;
+		add = add * curMul + curAdd;
+	    }
+	    curAdd = (curMul + 1L) * curAdd;
+	    curMul *= curMul;
+	    n >>>= 1;
+	}
+	return (state * mul + add) & mask;
+    }
+
+    /**
+     * One step of the generator on a raw state.
+     */
+    static long step(final long state) {
+	return (state * multiplier + addend) & mask;
+    }
+
+    /**
+     * The output for a raw state.
+     */
+    static long output(final long state, final int numBits) {
+	return (int)(state >>> (48 - numBits));
+    }
+
+    /**
+     * State record: the raw 48-bit state and the split count.
+     */
+    public int stateSize() {
+	return StateFormat.HEADER + 12;
+    }
+
+    public void saveState(ByteBuffer buf) {
+	StateFormat.write(buf, StateFormat.LINEAR_SUN_JDK, 1);
+	buf.putLong(seed);
+	buf.putInt(splitLevel);
+    }
+
+    public void restoreState(ByteBuffer buf) {
+	StateFormat.read(buf, StateFormat.LINEAR_SUN_JDK, 1, 12);
+	final int p = buf.position();
+	final int level = buf.getInt(p + 8);
+	if (level < 0 || level > 48 - SPLIT_LOG2) {
+	    buf.position(p - StateFormat.HEADER);
+	    throw new IllegalArgumentException("bad split level: " + level);
+	}
+	seed = buf.getLong() & mask;
+	splitLevel = buf.getInt();
+    }
+
+    public LinearSunJDK copy() {
+	LinearSunJDK r = new LinearSunJDK(0L);
+	r.seed = seed;
+	r.splitLevel = splitLevel;
+	return r;
+    }
 }
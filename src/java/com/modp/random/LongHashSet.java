@@ -0,0 +1,139 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * A set of non-negative longs, with open addressing and no boxing.
+ *
+ * <p>
+ * Values are kept in one <code>long[]</code> with linear probing, and
+ * -1 marks an empty slot.  The table doubles when it is half full.
+ * There's no remove, which the samplers don't need.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = -1L;
+
+    private long[] table;
+
+    /** 64 - log2(table.length) */
+    private int shift;
+
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param expected number of values to size the table for
+     */
+    LongHashSet(final int expected) {
+        int n = 16;
+        while (n < 2L * expected) {
+            n <<= 1;
+        }
+        allocate(n);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(final long v) {
+        final int mask = table.length - 1;
+        int i = slot(v);
+        while (true) {
+            final long t = table[i];
+            if (t == v) {
+                return true;
+            }
+            if (t == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param v value, not negative
+     * @return true if it wasn't already there
+     */
+    boolean add(final long v) {
+        final int mask = table.length - 1;
+        int i = slot(v);
+        while (true) {
+            final long t = table[i];
+            if (t == v) {
+                return false;
+            }
+            if (t == EMPTY) {
+                table[i] = v;
+                if (++size * 2 > table.length) {
+                    grow();
+                }
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private int slot(final long v) {
+        // Fibonacci hashing, the top bits of the product
+        return (int) ((v * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(final int n) {
+        table = new long[n];
+        java.util.Arrays.fill(table, EMPTY);
+        shift = 64 - Integer.numberOfTrailingZeros(n);
+        size = 0;
+    }
+
+    private void grow() {
+        final long[] old = table;
+        allocate(old.length * 2);
+        for (int i = 0; i < old.length; ++i) {
+            if (old[i] != EMPTY) {
+                add(old[i]);
+            }
+        }
+    }
+}
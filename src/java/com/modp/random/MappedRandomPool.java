@@ -0,0 +1,528 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A file of pre-generated random 64-bit words, read through memory
+ * mapping.
+ *
+ * <p>
+ * This is for replayable load tests and the like: the pool is made
+ * once, and then any number of processes can map it and read the same
+ * words with no copying.  The file is cut into chunks, and chunk
+ * <i>i</i> is filled from substream <i>i</i> of the generator: the
+ * seeded generator jumped <i>i</i> times if it can jump, stream
+ * <i>i</i> of a balanced split tree (see {@link Substreams}) if it can
+ * split, or {@link ThreadLocalGenerators#streamSeed} stream <i>i</i>
+ * if neither.  Chunks are filled in parallel, but the contents do not
+ * depend on the number of threads.
+ * </p>
+ *
+ * <p>
+ * The file starts with a 4 KB header giving the algorithm name, the
+ * seed and the chunk layout, so it can be checked with
+ * {@link #verify(int)} or made again.  The header and the words are
+ * little-endian.
+ * </p>
+ *
+ * <p>
+ * {@link #create} writes a new file next to the old one and renames it
+ * into place, so processes that already have the old pool mapped keep
+ * reading the old words.
+ * </p>
+ *
+ * <p>
+ * The pool itself is thread-safe.  Each {@link Reader} has its own
+ * cursor and should be used by one thread.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class MappedRandomPool {
+
+    /** File magic */
+    private static final long MAGIC = 0x4c4f4f5050444f4dL; // "MODPPOOL"
+
+    /** 2: chunks from jumps and balanced splits, not repeated splits */
+    private static final int VERSION = 2;
+
+    /** Header size, one page so the words are page aligned */
+    static final int HEADER_SIZE = 4096;
+
+    /** Largest chunk, so one chunk fits in one mapping */
+    public static final int MAX_CHUNK_WORDS = 1 << 27;
+
+    /** Smallest chunk, one 4 KB page */
+    public static final int MIN_CHUNK_WORDS = 512;
+
+    /**
+     * Most chunks, each one is a mapping and a substream.  This is
+     * well under Linux's default limit of 65530 mappings a process.
+     */
+    public static final int MAX_CHUNKS = 1 << 15;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final String algorithm;
+    private final long seed;
+    private final long words;
+    private final int chunkWords;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedRandomPool(final File file, final String algorithm, final long seed,
+                             final long words, final int chunkWords,
+                             final MappedByteBuffer[] chunks) {
+        this.file = file;
+        this.algorithm = algorithm;
+        this.seed = seed;
+        this.words = words;
+        this.chunkWords = chunkWords;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Make a new pool file, replacing any old one, and open it.
+     *
+     * <p>
+     * The pool is written to a temporary file in the same directory,
+     * forced to disk, and then atomically renamed over
+     * <code>file</code>.  The old file is never changed in place.
+     * </p>
+     *
+     * @param file the file to write
+     * @param algorithm generator name, from the default {@link GeneratorRegistry}
+     * @param seed the seed
+     * @param words number of 64-bit words
+     * @param chunkWords words per chunk, from {@link #MIN_CHUNK_WORDS} to
+     *  {@link #MAX_CHUNK_WORDS}, and at most {@link #MAX_CHUNKS} chunks
+     * @param threads number of threads filling chunks
+     * @return the open pool
+     * @throws IOException if the file can't be written
+     * @throws IllegalArgumentException for an unknown algorithm, bad sizes,
+     *  or a generator that can't make one stream per chunk
+     */
+    public static MappedRandomPool create(final File file, final String algorithm,
+                                          final long seed, final long words,
+                                          final int chunkWords, final int threads)
+        throws IOException {
+        GeneratorProvider provider = GeneratorRegistry.getDefault().getProvider(algorithm);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown generator: " + algorithm);
+        }
+        if (words < 1L || chunkWords < MIN_CHUNK_WORDS || chunkWords > MAX_CHUNK_WORDS
+            || threads < 1) {
+            throw new IllegalArgumentException("Bad size");
+        }
+        final String name = provider.getInfo().getName();
+        final int count = chunkCount(words, chunkWords);
+        // before touching the file, in case the generator can't make them
+        final RandomGenerator[] streams = substreams(provider, seed, count);
+
+        final File tmp = File.createTempFile("." + file.getName() + ".", ".tmp",
+                                             file.getAbsoluteFile().getParentFile());
+        boolean done = false;
+        try {
+            RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+            try {
+                raf.setLength(HEADER_SIZE + words * 8L);
+                FileChannel ch = raf.getChannel();
+                ch.write(header(name, seed, words, chunkWords, count), 0L);
+
+                final MappedByteBuffer[] maps = map(ch, FileChannel.MapMode.READ_WRITE,
+                                                    words, chunkWords, count);
+                run(threads, count, new ChunkTask() {
+                        public boolean run(int i) {
+                            fill(streams[i], maps[i].duplicate().order(ByteOrder.LITTLE_ENDIAN));
+                            maps[i].force();
+                            return true;
+                        }
+                    });
+                ch.force(true);
+            } finally {
+                raf.close();
+            }
+            Files.move(tmp.toPath(), file.toPath(),
+                       StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            done = true;
+        } finally {
+            if (!done) {
+                tmp.delete();
+            }
+        }
+        return open(file);
+    }
+
+    /**
+     * Open an existing pool file, read-only.
+     *
+     * @throws IOException if the file can't be read or is not a pool
+     */
+    public static MappedRandomPool open(final File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel ch = raf.getChannel();
+            ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (h.hasRemaining() && ch.read(h, h.position()) > 0) {
+                // keep reading
+            }
+            h.flip();
+            if (h.remaining() < 48 || h.getLong(0) != MAGIC) {
+                throw new IOException("Not a random pool: " + file);
+            }
+            if (h.getInt(8) != VERSION || h.getInt(12) != HEADER_SIZE) {
+                throw new IOException("Unsupported random pool version: " + file);
+            }
+            final long seed = h.getLong(16);
+            final long words = h.getLong(24);
+            final int chunkWords = h.getInt(32);
+            final int count = h.getInt(36);
+            final int nameLength = h.getShort(40);
+            if (words < 1L || chunkWords < MIN_CHUNK_WORDS || chunkWords > MAX_CHUNK_WORDS
+                || count > MAX_CHUNKS || count != chunks(words, chunkWords)
+                || nameLength < 0 || 42 + nameLength > HEADER_SIZE
+                || ch.size() < HEADER_SIZE + words * 8L) {
+                throw new IOException("Corrupt random pool header: " + file);
+            }
+            byte[] name = new byte[nameLength];
+            h.position(42);
+            h.get(name);
+            MappedByteBuffer[] maps = map(ch, FileChannel.MapMode.READ_ONLY,
+                                          words, chunkWords, count);
+            // the mappings stay valid after the file is closed
+            return new MappedRandomPool(file, new String(name, UTF8), seed,
+                                        words, chunkWords, maps);
+        } finally {
+            raf.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return number of 64-bit words in the pool
+     */
+    public long getWords() {
+        return words;
+    }
+
+    public int getChunkWords() {
+        return chunkWords;
+    }
+
+    public int getChunks() {
+        return chunks.length;
+    }
+
+    /**
+     * Word <code>index</code> of the pool.
+     */
+    public long word(final long index) {
+        if (index < 0L || index >= words) {
+            throw new IndexOutOfBoundsException("Word " + index + " of " + words);
+        }
+        return chunks[(int) (index / chunkWords)]
+            .getLong((int) (index % chunkWords) << 3);
+    }
+
+    /**
+     * A reader starting at word 0.
+     */
+    public Reader reader() {
+        return new Reader(0L);
+    }
+
+    /**
+     * A reader starting at word <code>start</code>.
+     */
+    public Reader reader(final long start) {
+        return new Reader(start);
+    }
+
+    /**
+     * Make each chunk again from the header, and compare.
+     *
+     * @param threads number of threads
+     * @return the first chunk that does not match, or -1 if all do
+     * @throws IllegalArgumentException if the algorithm isn't registered
+     */
+    public int verify(final int threads) throws IOException {
+        GeneratorProvider provider = GeneratorRegistry.getDefault().getProvider(algorithm);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown generator: " + algorithm);
+        }
+        final RandomGenerator[] streams = substreams(provider, seed, chunks.length);
+        final boolean[] ok = new boolean[chunks.length];
+        run(threads, chunks.length, new ChunkTask() {
+                public boolean run(int i) {
+                    ByteBuffer b = ByteBuffer.allocate(chunks[i].capacity())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                    fill(streams[i], b);
+                    b.clear();
+                    ok[i] = b.equals(chunks[i].duplicate().order(ByteOrder.LITTLE_ENDIAN));
+                    return ok[i];
+                }
+            });
+        for (int i = 0; i < ok.length; ++i) {
+            if (!ok[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The generator for each chunk.
+     *
+     * @throws IllegalArgumentException if the generator can't split
+     *  into that many streams
+     */
+    static RandomGenerator[] substreams(final GeneratorProvider provider,
+                                        final long seed, final int count) {
+        RandomGenerator[] streams = new RandomGenerator[count];
+        RandomGenerator root = provider.create(seed);
+        if (root instanceof JumpableGenerator || root instanceof SplittableGenerator) {
+            try {
+                streams = Substreams.create(root, count);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException(provider.getInfo().getName() + " can't make "
+                                                   + count + " streams: " + e.getMessage());
+            }
+        } else {
+            for (int i = 0; i < count; ++i) {
+                streams[i] = provider.create(ThreadLocalGenerators.streamSeed(seed, i, 0));
+            }
+        }
+        return streams;
+    }
+
+    /**
+     * Fill a buffer with 64-bit words.
+     */
+    static void fill(final RandomGenerator rng, final ByteBuffer buf) {
+        final LongBuffer lb = buf.asLongBuffer();
+        if (rng instanceof BulkGenerator) {
+            final BulkGenerator bulk = (BulkGenerator) rng;
+            final long[] tmp = new long[Math.min(lb.remaining(), 4096)];
+            while (lb.hasRemaining()) {
+                final int n = Math.min(tmp.length, lb.remaining());
+                bulk.nextLongs(tmp, 0, n);
+                lb.put(tmp, 0, n);
+            }
+        } else {
+            while (lb.hasRemaining()) {
+                lb.put(RandomStreams.nextLong(rng));
+            }
+        }
+    }
+
+    private static long chunks(final long words, final int chunkWords) {
+        return words / chunkWords + (words % chunkWords != 0L ? 1L : 0L);
+    }
+
+    private static int chunkCount(final long words, final int chunkWords) {
+        final long count = chunks(words, chunkWords);
+        if (count > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Too many chunks: " + count
+                                               + ", at most " + MAX_CHUNKS);
+        }
+        return (int) count;
+    }
+
+    private static ByteBuffer header(final String name, final long seed, final long words,
+                                     final int chunkWords, final int count) {
+        byte[] b = name.getBytes(UTF8);
+        ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        h.putLong(MAGIC).putInt(VERSION).putInt(HEADER_SIZE);
+        h.putLong(seed).putLong(words).putInt(chunkWords).putInt(count);
+        h.putShort((short) b.length).put(b);
+        h.clear();
+        return h;
+    }
+
+    private static MappedByteBuffer[] map(final FileChannel ch, final FileChannel.MapMode mode,
+                                          final long words, final int chunkWords,
+                                          final int count) throws IOException {
+        MappedByteBuffer[] maps = new MappedByteBuffer[count];
+        for (int i = 0; i < count; ++i) {
+            long first = (long) i * chunkWords;
+            long n = Math.min(chunkWords, words - first);
+            maps[i] = ch.map(mode, HEADER_SIZE + first * 8L, n * 8L);
+            maps[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return maps;
+    }
+
+    private interface ChunkTask {
+        boolean run(int chunk);
+    }
+
+    /**
+     * Run a task for each chunk on a pool of threads.
+     */
+    private static void run(final int threads, final int count, final ChunkTask task)
+        throws IOException {
+        ExecutorService exec = Executors.newFixedThreadPool(Math.min(threads, count));
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(count);
+            for (int i = 0; i < count; ++i) {
+                final int chunk = i;
+                results.add(exec.submit(new java.util.concurrent.Callable<Boolean>() {
+                        public Boolean call() {
+                            return Boolean.valueOf(task.run(chunk));
+                        }
+                    }));
+            }
+            for (Future<Boolean> f : results) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Chunk failed", e.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the pool in order from a starting word.
+     *
+     * <p>
+     * <code>next(numBits)</code> uses one whole word.  Reading past the
+     * end of the pool throws <code>IllegalStateException</code>, since
+     * wrapping around would quietly repeat values.
+     * </p>
+     */
+    public final class Reader implements BulkGenerator {
+        private long cursor;
+
+        /**
+         * This reader's views of the chunks, made when first used
+         */
+        private final LongBuffer[] views = new LongBuffer[chunks.length];
+
+        Reader(final long start) {
+            seek(start);
+        }
+
+        /**
+         * Move to word <code>index</code>.
+         */
+        public void seek(final long index) {
+            if (index < 0L || index > words) {
+                throw new IndexOutOfBoundsException("Word " + index + " of " + words);
+            }
+            cursor = index;
+        }
+
+        /**
+         * @return the next word to be read
+         */
+        public long getPosition() {
+            return cursor;
+        }
+
+        /**
+         * @return words left before the end of the pool
+         */
+        public long remaining() {
+            return words - cursor;
+        }
+
+        public long next(final int numBits) {
+            return (int) (next64() >>> (64 - numBits));
+        }
+
+        public long next64() {
+            if (cursor >= words) {
+                throw new IllegalStateException("Random pool used up");
+            }
+            return word(cursor++);
+        }
+
+        public void nextLongs(final long[] dest, int offset, int length) {
+            if (length > words - cursor) {
+                throw new IllegalStateException("Random pool used up");
+            }
+            while (length > 0) {
+                final int c = (int) (cursor / chunkWords);
+                final int pos = (int) (cursor % chunkWords);
+                LongBuffer lb = views[c];
+                if (lb == null) {
+                    lb = chunks[c].duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                    views[c] = lb;
+                }
+                lb.position(pos);
+                final int n = Math.min(length, lb.remaining());
+                lb.get(dest, offset, n);
+                offset += n;
+                length -= n;
+                cursor += n;
+            }
+        }
+    }
+}
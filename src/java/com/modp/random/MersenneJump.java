@@ -0,0 +1,291 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jump polynomials for the Mersenne Twisters, and for power-of-two
+ * jumps of the xoshiro family.
+ *
+ * <p>
+ * These generators are linear over GF(2), so moving <i>D</i> steps ahead
+ * is the same as applying <i>J</i>(<i>T</i>) to the state, where
+ * <i>T</i> is one step and <i>J</i>(<i>x</i>) = <i>x<sup>D</sup></i> mod
+ * &phi;(<i>x</i>), with &phi; the characteristic polynomial of
+ * <i>T</i>.  The twisters apply <i>J</i> with Horner's rule, xoshiro
+ * with its usual jump loop.
+ * </p>
+ *
+ * <p>
+ * &phi; is found with the Berlekamp-Massey algorithm from twice its
+ * degree in bits of one linear output (2 &times; 19937 for the
+ * twisters), and <i>x</i><sup>2<sup>k</sup></sup>
+ * mod &phi; by repeated squaring (which is just spreading the bits
+ * apart over GF(2)), so nothing has to be stored in the source.
+ * </p>
+ *
+ * <p>
+ * Polynomials are <code>long[]</code> bit sets, bit <i>i</i> is the
+ * coefficient of <i>x<sup>i</sup></i>.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>H. Haramoto, M. Matsumoto, T. Nishimura, F. Panneton, P. L'Ecuyer,
+ * "Efficient Jump Ahead for F<sub>2</sub>-Linear Random Number Generators",
+ * <i>INFORMS Journal on Computing</i>, Vol. 20, No. 3, 2008, pp 385--390.</li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+final class MersenneJump {
+
+    /**
+     * Degree of &phi;
+     */
+    private final int degree;
+
+    /**
+     * Number of words in a reduced polynomial
+     */
+    private final int words;
+
+    /**
+     * &phi;(x) shifted left by 0 to 63 bits, for reduction
+     */
+    private final long[][] phiShift = new long[64][];
+
+    /**
+     * x<sup>2<sup>k</sup></sup> mod &phi;
+     */
+    private final List<long[]> pow2 = new ArrayList<long[]>();
+
+    /**
+     * Constructor.
+     *
+     * @param seq output bits of the generator, at least twice the
+     *   expected degree, bit <i>i</i> of the array is the <i>i</i>-th bit
+     * @param n number of bits in <code>seq</code>
+     * @param expected the degree &phi; must have
+     */
+    MersenneJump(final long[] seq, final int n, final int expected) {
+        long[] phi = minimalPolynomial(seq, n);
+        degree = degreeOf(phi);
+        if (degree != expected) {
+            throw new IllegalStateException("Expected degree " + expected + ", got " + degree);
+        }
+        words = (degree + 63) >>> 6;
+        for (int r = 0; r < 64; ++r) {
+            phiShift[r] = shiftLeft(phi, r, words + 2);
+        }
+        long[] x = new long[words];
+        x[0] = 2L;
+        pow2.add(x);
+    }
+
+    /**
+     * @return the degree of &phi;, and so the number of steps in Horner's rule
+     */
+    int degree() {
+        return degree;
+    }
+
+    /**
+     * Get x<sup>2<sup>k</sup></sup> mod &phi;, the jump polynomial for
+     * 2<sup>k</sup> steps.
+     *
+     * <p>These are computed the first time they are needed, and kept.</p>
+     *
+     * @param k log<sub>2</sub> of the number of steps
+     * @return the polynomial, must not be modified
+     */
+    synchronized long[] xPow2(final int k) {
+        while (pow2.size() <= k) {
+            pow2.add(squareMod(pow2.get(pow2.size() - 1)));
+        }
+        return pow2.get(k);
+    }
+
+    static boolean testBit(final long[] p, final int i) {
+        return (p[i >>> 6] & (1L << i)) != 0L;
+    }
+
+    /**
+     * a<sup>2</sup> mod &phi;
+     */
+    private long[] squareMod(final long[] a) {
+        // over GF(2), (sum a_i x^i)^2 = sum a_i x^(2i)
+        final long[] sq = new long[2 * words + 2];
+        for (int i = 0; i < words; ++i) {
+            sq[2 * i] = spread(a[i]);
+            sq[2 * i + 1] = spread(a[i] >>> 32);
+        }
+        for (int i = 2 * degree - 2; i >= degree; --i) {
+            if (testBit(sq, i)) {
+                final int sh = i - degree;
+                final long[] p = phiShift[sh & 63];
+                final int off = sh >>> 6;
+                for (int j = 0; j < p.length && off + j < sq.length; ++j) {
+                    sq[off + j] ^= p[j];
+                }
+            }
+        }
+        long[] result = new long[words];
+        System.arraycopy(sq, 0, result, 0, words);
+        return result;
+    }
+
+    /**
+     * Spread the low 32 bits to the even bits of a long
+     */
+    private static long spread(long x) {
+        x &= 0xffffffffL;
+        x = (x | (x << 16)) & 0x0000ffff0000ffffL;
+        x = (x | (x << 8)) & 0x00ff00ff00ff00ffL;
+        x = (x | (x << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    private static long[] shiftLeft(final long[] a, final int r, final int len) {
+        long[] b = new long[len];
+        for (int i = 0; i < a.length && i < len; ++i) {
+            b[i] |= a[i] << r;
+            if (r != 0 && i + 1 < len) {
+                b[i + 1] |= a[i] >>> (64 - r);
+            }
+        }
+        return b;
+    }
+
+    private static int degreeOf(final long[] p) {
+        for (int i = p.length - 1; i >= 0; --i) {
+            if (p[i] != 0L) {
+                return i * 64 + 63 - Long.numberOfLeadingZeros(p[i]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the minimal polynomial of a bit sequence with
+     * Berlekamp-Massey, as x<sup>L</sup> + c<sub>1</sub>x<sup>L-1</sup>
+     * + ... + c<sub>L</sub>.
+     */
+    static long[] minimalPolynomial(final long[] seq, final int n) {
+        final int w = (n >>> 6) + 2;
+        // the sequence reversed, so that s[n - i] for i = 0, 1, ...
+        // is a plain run of bits starting at bit (n - 1 - i)
+        final long[] rev = new long[w];
+        for (int i = 0; i < n; ++i) {
+            if (testBit(seq, i)) {
+                final int j = n - 1 - i;
+                rev[j >>> 6] |= 1L << j;
+            }
+        }
+
+        long[] c = new long[w];
+        long[] b = new long[w];
+        long[] t = new long[w];
+        c[0] = 1L;
+        b[0] = 1L;
+        int len = 0;
+        int m = 1;
+        for (int i = 0; i < n; ++i) {
+            // d = sum_{j=0..len} c_j s_{i-j}, and s_{i-j} is bit (n-1-i+j) of rev
+            final int base = n - 1 - i;
+            final int off = base >>> 6;
+            final int sh = base & 63;
+            long d = 0L;
+            final int cw = (len >>> 6) + 1;
+            for (int j = 0; j < cw; ++j) {
+                long r = rev[off + j] >>> sh;
+                if (sh != 0 && off + j + 1 < w) {
+                    r |= rev[off + j + 1] << (64 - sh);
+                }
+                d ^= c[j] & r;
+            }
+            if (Long.bitCount(d) % 2 == 0) {
+                ++m;
+            } else if (2 * len <= i) {
+                System.arraycopy(c, 0, t, 0, w);
+                xorShifted(c, b, m);
+                len = i + 1 - len;
+                long[] tmp = b;
+                b = t;
+                t = tmp;
+                m = 1;
+            } else {
+                xorShifted(c, b, m);
+                ++m;
+            }
+        }
+
+        // c is the connection polynomial 1 + c_1 x + ... + c_L x^L,
+        // the characteristic polynomial is its reverse
+        long[] phi = new long[(len >>> 6) + 1];
+        for (int i = 0; i <= len; ++i) {
+            if (testBit(c, i)) {
+                final int j = len - i;
+                phi[j >>> 6] |= 1L << j;
+            }
+        }
+        return phi;
+    }
+
+    /**
+     * c ^= b * x<sup>m</sup>
+     */
+    private static void xorShifted(final long[] c, final long[] b, final int m) {
+        final int off = m >>> 6;
+        final int sh = m & 63;
+        for (int j = c.length - 1 - off; j >= 0; --j) {
+            if (b[j] == 0L) {
+                continue;
+            }
+            c[j + off] ^= b[j] << sh;
+            if (sh != 0 && j + off + 1 < c.length) {
+                c[j + off + 1] ^= b[j] >>> (64 - sh);
+            }
+        }
+    }
+}
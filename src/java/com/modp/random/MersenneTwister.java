@@ -41,6 +41,8 @@
 
 package com.modp.random;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implementation of the Mersenne Twister random number generator.
  *
@@ -69,7 +71,8 @@ package com.modp.random;
  * @version 1 -- 06-Jul-2005
  *
  */
-public class MersenneTwister implements RandomGenerator {
+public class MersenneTwister implements SplittableGenerator, JumpableGenerator,
+                                        RefillingGenerator {
     /**
      * N, Internal array size
      */
@@ -96,6 +99,47 @@ public class MersenneTwister implements RandomGenerator {
      */
     private static final int mag01[] = {0x0, 0x9908b0df};
 
+    /**
+     * log<sub>2</sub> of the jump used by <code>jump()</code> and
+     * <code>split()</code>.
+     */
+    private static final int JUMP_LOG2 = 128;
+
+    /**
+     * Largest split level <code>split()</code> will produce.  Each
+     * level costs one more jump polynomial, so this also bounds the
+     * work a restored state can ask for.
+     */
+    static final int MAX_SPLIT_LEVEL = 1024;
+
+    /**
+     * Number of times this, or the generator it was split from,
+     * has been split.
+     */
+    private int splitLevel = 0;
+
+    /**
+     * Number of times <code>mt</code> has been regenerated.
+     */
+    private long refills = 0;
+
+    /**
+     * Holder for the jump polynomials, so they are only computed
+     * if a jump is used.
+     */
+    private static final class Jump {
+	static final MersenneJump POLY;
+	static {
+	    MersenneTwister r = new MersenneTwister(5489);
+	    final int n = 2 * 19937;
+	    long[] bits = new long[(n + 63) / 64];
+	    for (int i = 0; i < n; ++i) {
+		bits[i >>> 6] |= (r.next(32) & 1L) << i;
+	    }
+	    POLY = new MersenneJump(bits, n, 19937);
+	}
+    }
+
     /**
      * Constructor LSB of the current ime
      */
@@ -117,6 +161,15 @@ public class MersenneTwister implements RandomGenerator {
 	setSeed(array);
     }
 
+    /**
+     * Copy constructor, the new generator produces the same sequence.
+     */
+    private MersenneTwister(final MersenneTwister other) {
+	System.arraycopy(other.mt, 0, mt, 0, N);
+	mti = other.mti;
+	splitLevel = other.splitLevel;
+    }
+
     /**
      * Initalize the pseudo random number generator with 32-bits.
      */
@@ -177,6 +230,7 @@ public class MersenneTwister implements RandomGenerator {
 	    mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ mag01[y & 0x1];
 
 	    mti = 0;
+	    refills++;
 	}
 
 	y = mt[mti++];
@@ -187,4 +241,157 @@ public class MersenneTwister implements RandomGenerator {
 
 	return y >>> (32 - bits);
     }
+
+    /*
+     * @see com.modp.random.RefillingGenerator#getRefills()
+     */
+    public long getRefills() {
+	return refills;
+    }
+
+    /**
+     * Jump ahead 2<sup>128</sup> outputs.
+     *
+     * <p>
+     * The first jump in a program computes the jump polynomial, which
+     * takes a fraction of a second.  After that each jump takes a few
+     * milliseconds.
+     * </p>
+     */
+    public void jump() {
+	jumpPow2(JUMP_LOG2);
+    }
+
+    /**
+     * Split using jumps.
+     *
+     * <p>
+     * The sequence is cut into blocks of 2<sup>128</sup> outputs.  Each
+     * generator uses one block, and owns a set of later blocks to give
+     * to the generators split from it.  A split gives the new generator
+     * the first block of that set, and the two generators share the rest
+     * by taking alternate blocks.  No two generators in the tree get the
+     * same block, as long as each uses less than 2<sup>128</sup> outputs.
+     * </p>
+     *
+     * <p>
+     * The jump distance doubles with each level of splitting, and each
+     * new level computes one more jump polynomial (a few milliseconds,
+     * kept for the life of the program).
+     * </p>
+     *
+     * @throws IllegalStateException if the history already has 1024 splits
+     */
+    public MersenneTwister split() {
+	if (splitLevel >= MAX_SPLIT_LEVEL) {
+	    throw new IllegalStateException("too many splits: " + splitLevel);
+	}
+	MersenneTwister child = new MersenneTwister(this);
+	child.jumpPow2(JUMP_LOG2 + splitLevel);
+	splitLevel++;
+	child.splitLevel = splitLevel;
+	return child;
+    }
+
+    /**
+     * Jump ahead 2<sup>k</sup> outputs.
+     */
+    void jumpPow2(final int k) {
+	jump(Jump.POLY.xPow2(k), Jump.POLY.degree());
+    }
+
+    /**
+     * Replace the state with J(T) applied to the state, using
+     * Horner's rule.
+     *
+     * <p>
+     * This works on the next N raw outputs, as a ring with a head index,
+     * where a step replaces the head with the output N places later.
+     * The result goes back into <code>mt</code> with <code>mti</code> = 0,
+     * which is the same thing without the ring.
+     * </p>
+     */
+    private void jump(final long[] poly, final int degree) {
+	// the next N raw outputs are mt[mti..N-1] then the first mti
+	// values of the next block
+	final int[] ring = new int[N];
+	System.arraycopy(mt, 0, ring, 0, N);
+	final int ms = (mti > N) ? N : mti;
+	for (int i = 0; i < ms; ++i) {
+	    step(ring, i);
+	}
+	// rotate so the head is at 0
+	final int[] s = new int[N];
+	System.arraycopy(ring, ms, s, 0, N - ms);
+	System.arraycopy(ring, 0, s, N - ms, ms);
+
+	final int[] acc = new int[N];
+	int ha = 0;
+	for (int i = degree - 1; i >= 0; --i) {
+	    step(acc, ha);
+	    ha = (ha + 1 == N) ? 0 : ha + 1;
+	    if (MersenneJump.testBit(poly, i)) {
+		// acc[(ha + j) % N] ^= s[j]
+		final int n1 = N - ha;
+		for (int j = 0; j < n1; ++j) {
+		    acc[ha + j] ^= s[j];
+		}
+		for (int j = n1; j < N; ++j) {
+		    acc[j - n1] ^= s[j];
+		}
+	    }
+	}
+	System.arraycopy(acc, ha, mt, 0, N - ha);
+	System.arraycopy(acc, 0, mt, N - ha, ha);
+	mti = 0;
+    }
+
+    /**
+     * Replace ring[h] with the value N places later.
+     */
+    private static void step(final int[] ring, final int h) {
+	final int h1 = (h + 1 == N) ? 0 : h + 1;
+	final int hm = (h + M >= N) ? h + M - N : h + M;
+	final int y = (ring[h] & 0x80000000) | (ring[h1] & 0x7fffffff);
+	ring[h] = ring[hm] ^ (y >>> 1) ^ mag01[y & 0x1];
+    }
+
+    /**
+     * State record: the position, the split count and the 624 words.
+     */
+    public int stateSize() {
+	return StateFormat.HEADER + 8 + 4 * N;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+	StateFormat.write(buf, StateFormat.MERSENNE_TWISTER, 1);
+	buf.putInt(mti);
+	buf.putInt(splitLevel);
+	buf.asIntBuffer().put(mt);
+	buf.position(buf.position() + 4 * N);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+	StateFormat.read(buf, StateFormat.MERSENNE_TWISTER, 1, 8 + 4 * N);
+	final int p = buf.position();
+	final int i = buf.getInt(p);
+	if (i < 0 || i > N) {
+	    buf.position(p - StateFormat.HEADER);
+	    throw new IllegalArgumentException("Bad position: " + i);
+	}
+	final int level = buf.getInt(p + 4);
+	if (level < 0 || level > MAX_SPLIT_LEVEL) {
+	    buf.position(p - StateFormat.HEADER);
+	    throw new IllegalArgumentException("bad split level: " + level);
+	}
+	mti = i;
+	splitLevel = level;
+	buf.position(p + 8);
+	buf.asIntBuffer().get(mt);
+	buf.position(p + 8 + 4 * N);
+    }
+
+    public MersenneTwister copy() {
+	return new MersenneTwister(this);
+    }
 }
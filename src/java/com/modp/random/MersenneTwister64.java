@@ -40,6 +40,8 @@
  */
 package com.modp.random;
 
+import java.nio.ByteBuffer;
+
 /**
  * Mersenne Twister 64-bit.
  *
@@ -69,7 +71,8 @@ package com.modp.random;
  * @author Nick Galbreath -- nickg [at] modp [dot] com
  * @version 1 -- 06-Jul-2005
  */
-public class MersenneTwister64 implements RandomGenerator {
+public class MersenneTwister64 implements SplittableGenerator, BulkGenerator,
+                                          JumpableGenerator, RefillingGenerator {
     private static final int NN = 312;
 
     private static final int MM = 156;
@@ -103,6 +106,47 @@ public class MersenneTwister64 implements RandomGenerator {
      */
     private boolean bitState = true;
 
+    /**
+     * log<sub>2</sub> of the jump used by <code>jump()</code> and
+     * <code>split()</code>.
+     */
+    private static final int JUMP_LOG2 = 128;
+
+    /**
+     * Largest split level <code>split()</code> will produce.  Each
+     * level costs one more jump polynomial, so this also bounds the
+     * work a restored state can ask for.
+     */
+    static final int MAX_SPLIT_LEVEL = 1024;
+
+    /**
+     * Number of times this, or the generator it was split from,
+     * has been split.
+     */
+    private int splitLevel = 0;
+
+    /**
+     * Number of times <code>mt</code> has been regenerated.
+     */
+    private long refills = 0;
+
+    /**
+     * Holder for the jump polynomials, so they are only computed
+     * if a jump is used.
+     */
+    private static final class Jump {
+        static final MersenneJump POLY;
+        static {
+            MersenneTwister64 r = new MersenneTwister64(5489L);
+            final int n = 2 * 19937;
+            long[] bits = new long[(n + 63) / 64];
+            for (int i = 0; i < n; ++i) {
+                bits[i >>> 6] |= (r.next64() & 1L) << i;
+            }
+            POLY = new MersenneJump(bits, n, 19937);
+        }
+    }
+
     /**
      *
      */
@@ -118,6 +162,17 @@ public class MersenneTwister64 implements RandomGenerator {
         setSeed(ary);
     }
 
+    /**
+     * Copy constructor, the new generator produces the same sequence.
+     */
+    private MersenneTwister64(final MersenneTwister64 other) {
+        System.arraycopy(other.mt, 0, mt, 0, NN);
+        mti = other.mti;
+        bits = other.bits;
+        bitState = other.bitState;
+        splitLevel = other.splitLevel;
+    }
+
     /**
      * Initalize the pseudo random number generator with 32-bits.
      */
@@ -188,31 +243,212 @@ public class MersenneTwister64 implements RandomGenerator {
      * </p>
      */
     public long next64() {
-        int i;
-        long x;
-        if (mti >= NN) { /* generate NN words at one time */
+        if (mti >= NN) {
+            refill();
+        }
+        return temper(mt[mti++]);
+    }
 
-            for (i = 0; i < NN - MM; i++) {
-                x = (mt[i] & UM) | (mt[i + 1] & LM);
-                mt[i] = mt[i + MM] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
+    /**
+     * Fill an array with random 64-bit values.
+     *
+     * <p>
+     * The values are the same as calling {@link #next64()}
+     * repeatedly, but are copied out of the state array a block at a
+     * time.
+     * </p>
+     *
+     * @param dest array to fill
+     * @param offset first index to write
+     * @param length number of values to write
+     */
+    public void nextLongs(final long[] dest, int offset, int length) {
+        while (length > 0) {
+            if (mti >= NN) {
+                refill();
             }
-            for (; i < NN - 1; i++) {
-                x = (mt[i] & UM) | (mt[i + 1] & LM);
-                mt[i] = mt[i + (MM - NN)] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
+            final int n = Math.min(NN - mti, length);
+            final int end = mti + n;
+            for (int i = mti; i < end; ++i) {
+                dest[offset++] = temper(mt[i]);
             }
-            x = (mt[NN - 1] & UM) | (mt[0] & LM);
-            mt[NN - 1] = mt[MM - 1] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
+            mti = end;
+            length -= n;
+        }
+    }
 
-            mti = 0;
+    /**
+     * Generate NN words at one time.
+     */
+    private void refill() {
+        int i;
+        long x;
+        for (i = 0; i < NN - MM; i++) {
+            x = (mt[i] & UM) | (mt[i + 1] & LM);
+            mt[i] = mt[i + MM] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
+        }
+        for (; i < NN - 1; i++) {
+            x = (mt[i] & UM) | (mt[i + 1] & LM);
+            mt[i] = mt[i + (MM - NN)] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
         }
+        x = (mt[NN - 1] & UM) | (mt[0] & LM);
+        mt[NN - 1] = mt[MM - 1] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
 
-        x = mt[mti++];
+        mti = 0;
+        refills++;
+    }
 
+    /*
+     * @see com.modp.random.RefillingGenerator#getRefills()
+     */
+    public long getRefills() {
+        return refills;
+    }
+
+    /**
+     * The tempering step.
+     */
+    private static long temper(long x) {
         x ^= (x >>> 29) & 0x5555555555555555L;
         x ^= (x << 17) & 0x71D67FFFEDA60000L;
         x ^= (x << 37) & 0xFFF7EEE000000000L;
         x ^= (x >>> 43);
-
         return x;
     }
+
+    /**
+     * Jump ahead 2<sup>128</sup> 64-bit outputs.
+     *
+     * <p>
+     * If <code>next</code> has a 32-bit half of a 64-bit output left
+     * over, it is still returned by the next call.
+     * The first jump in a program computes the jump polynomial, which
+     * takes a fraction of a second.  After that each jump takes a few
+     * milliseconds.
+     * </p>
+     */
+    public void jump() {
+        jumpPow2(JUMP_LOG2);
+    }
+
+    /**
+     * Split using jumps.
+     *
+     * <p>
+     * This works the same way as {@link MersenneTwister#split()}, with
+     * blocks of 2<sup>128</sup> 64-bit outputs.  The new generator does
+     * not get any left over 32-bit half from <code>next</code>.
+     * </p>
+     *
+     * @throws IllegalStateException if the history already has 1024 splits
+     */
+    public MersenneTwister64 split() {
+        if (splitLevel >= MAX_SPLIT_LEVEL) {
+            throw new IllegalStateException("too many splits: " + splitLevel);
+        }
+        MersenneTwister64 child = new MersenneTwister64(this);
+        child.bitState = true;
+        child.jumpPow2(JUMP_LOG2 + splitLevel);
+        splitLevel++;
+        child.splitLevel = splitLevel;
+        return child;
+    }
+
+    /**
+     * Jump ahead 2<sup>k</sup> 64-bit outputs.
+     */
+    void jumpPow2(final int k) {
+        jump(Jump.POLY.xPow2(k), Jump.POLY.degree());
+    }
+
+    /**
+     * Replace the state with J(T) applied to the state, using
+     * Horner's rule.  See <code>MersenneTwister</code> for details.
+     */
+    private void jump(final long[] poly, final int degree) {
+        final long[] ring = new long[NN];
+        System.arraycopy(mt, 0, ring, 0, NN);
+        final int ms = (mti > NN) ? NN : mti;
+        for (int i = 0; i < ms; ++i) {
+            step(ring, i);
+        }
+        // rotate so the head is at 0
+        final long[] s = new long[NN];
+        System.arraycopy(ring, ms, s, 0, NN - ms);
+        System.arraycopy(ring, 0, s, NN - ms, ms);
+
+        final long[] acc = new long[NN];
+        int ha = 0;
+        for (int i = degree - 1; i >= 0; --i) {
+            step(acc, ha);
+            ha = (ha + 1 == NN) ? 0 : ha + 1;
+            if (MersenneJump.testBit(poly, i)) {
+                // acc[(ha + j) % NN] ^= s[j]
+                final int n1 = NN - ha;
+                for (int j = 0; j < n1; ++j) {
+                    acc[ha + j] ^= s[j];
+                }
+                for (int j = n1; j < NN; ++j) {
+                    acc[j - n1] ^= s[j];
+                }
+            }
+        }
+        System.arraycopy(acc, ha, mt, 0, NN - ha);
+        System.arraycopy(acc, 0, mt, NN - ha, ha);
+        mti = 0;
+    }
+
+    /**
+     * Replace ring[h] with the value NN places later.
+     */
+    private static void step(final long[] ring, final int h) {
+        final int h1 = (h + 1 == NN) ? 0 : h + 1;
+        final int hm = (h + MM >= NN) ? h + MM - NN : h + MM;
+        final long x = (ring[h] & UM) | (ring[h1] & LM);
+        ring[h] = ring[hm] ^ (x >>> 1) ^ mag01[(int) (x & 1L)];
+    }
+
+    /**
+     * State record: the position, the split count, the unused half
+     * of the last output if any, and the 312 words.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 17 + 8 * NN;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.MERSENNE_TWISTER_64, 1);
+        buf.putInt(mti);
+        buf.putInt(splitLevel);
+        buf.put(bitState ? (byte) 1 : (byte) 0);
+        buf.putLong(bits);
+        buf.asLongBuffer().put(mt);
+        buf.position(buf.position() + 8 * NN);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.MERSENNE_TWISTER_64, 1, 17 + 8 * NN);
+        final int p = buf.position();
+        final int i = buf.getInt(p);
+        if (i < 0 || i > NN) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("Bad position: " + i);
+        }
+        final int level = buf.getInt(p + 4);
+        if (level < 0 || level > MAX_SPLIT_LEVEL) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("bad split level: " + level);
+        }
+        mti = i;
+        splitLevel = level;
+        bitState = buf.get(p + 8) != 0;
+        bits = buf.getLong(p + 9);
+        buf.position(p + 17);
+        buf.asLongBuffer().get(mt);
+        buf.position(p + 17 + 8 * NN);
+    }
+
+    public MersenneTwister64 copy() {
+        return new MersenneTwister64(this);
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs a Monte Carlo estimate in parallel, with results that don't
+ * depend on the number of threads.
+ *
+ * <p>
+ * The samples are cut into chunks of a fixed size, and each chunk gets
+ * its own stream of random numbers.  If the generator is a
+ * {@link JumpableGenerator}, chunk <i>i</i> uses a copy jumped
+ * <i>i</i> times, so the streams can't overlap; the generator passed
+ * in is not changed.  Otherwise a {@link SplittableGenerator} is split
+ * into one stream per chunk.  Each chunk collects its own
+ * {@link RunningStatistics}, and these are merged in chunk order once
+ * all are done.  The chunks and their streams depend only on the
+ * generator, the number of samples and the chunk size, so the same
+ * inputs give the same bits on one thread or on many.
+ * </p>
+ *
+ * <pre>
+ * final GammaDistribution gamma = new GammaDistribution(2.5, 1.0);
+ * MonteCarloEngine mc = new MonteCarloEngine();
+ * RunningStatistics s = mc.run(new Xoshiro256PlusPlus(42L), 100000000L,
+ *     new MonteCarloEngine.SampleFunction() {
+ *         public double sample(RandomGenerator rng) {
+ *             return Math.log(gamma.sample(rng));
+ *         }
+ *     });
+ * double estimate = s.getMean();
+ * double error = s.getStandardError();
+ * </pre>
+ *
+ * <p>
+ * Jumped streams are made 256 chunks at a time, the next block's while
+ * the pool works on the current one, so memory doesn't grow with the
+ * number of samples.  Jumping a Mersenne Twister takes a few
+ * milliseconds, so with one of those use chunks big enough that the
+ * jumps don't matter.  The xoshiro and xoroshiro generators jump in
+ * well under a microsecond.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class MonteCarloEngine {
+
+    /**
+     * One sample of the quantity being estimated.
+     */
+    public interface SampleFunction {
+        /**
+         * @param rng the stream for this sample's chunk; use it only
+         *  from this call
+         * @return the sampled value
+         */
+        double sample(RandomGenerator rng);
+    }
+
+    /**
+     * Jumped streams are made this many chunks at a time, so at most
+     * twice this many copies of the generator exist at once
+     */
+    private static final int BLOCK = 256;
+
+    /** Default number of samples per chunk */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    /**
+     * Run on the common pool, with the default chunk size.
+     */
+    public MonteCarloEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Run on the given pool, with the default chunk size.
+     */
+    public MonteCarloEngine(final ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool where the chunks run
+     * @param chunkSize samples per chunk; changing it changes the
+     *  results
+     */
+    public MonteCarloEngine(final ForkJoinPool pool, final int chunkSize) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Draw <code>samples</code> values of a function and return their
+     * statistics.
+     *
+     * @param rng a {@link JumpableGenerator} (not changed), or a
+     *  {@link SplittableGenerator} (split)
+     * @param samples the number of samples
+     * @param f the function to sample, called from many threads
+     * @throws IllegalArgumentException if the generator can neither
+     *  jump nor split, or there are more than
+     *  <code>Integer.MAX_VALUE</code> chunks
+     */
+    public RunningStatistics run(final RandomGenerator rng, final long samples,
+                                 final SampleFunction f) {
+        if (!(rng instanceof JumpableGenerator) && !(rng instanceof SplittableGenerator)) {
+            throw new IllegalArgumentException("generator must be jumpable or splittable: "
+                                               + rng.getClass().getName());
+        }
+        if (samples < 0) {
+            throw new IllegalArgumentException("samples must be non-negative: " + samples);
+        }
+        final long n = samples / chunkSize + (samples % chunkSize != 0 ? 1 : 0);
+        if (n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many chunks: " + n);
+        }
+        final int chunks = (int) n;
+        final RunningStatistics total = new RunningStatistics();
+        if (chunks == 0) {
+            return total;
+        }
+
+        if (rng instanceof JumpableGenerator) {
+            // a block of streams at a time, the next block jumped while
+            // this one runs
+            final JumpableGenerator cur = (JumpableGenerator) ((JumpableGenerator) rng).copy();
+            RandomGenerator[] gens = Substreams.jumpAhead(cur, Math.min(BLOCK, chunks));
+            int first = 0;
+            while (gens != null) {
+                final int count = gens.length;
+                final RunningStatistics[] results = new RunningStatistics[count];
+                final ForkJoinTask<Void> task =
+                    ForkJoinSupport.fork(pool, count, chunks(gens, first, results, samples, f));
+                final int next = Math.min(BLOCK, chunks - first - count);
+                gens = (next > 0) ? Substreams.jumpAhead(cur, next) : null;
+                task.join();
+                merge(total, results);
+                first += count;
+            }
+        } else {
+            final RandomGenerator[] gens = Substreams.split((SplittableGenerator) rng, chunks);
+            final RunningStatistics[] results = new RunningStatistics[chunks];
+            ForkJoinSupport.forEach(pool, chunks, chunks(gens, 0, results, samples, f));
+            merge(total, results);
+        }
+        return total;
+    }
+
+    /**
+     * Task i samples chunk <code>first + i</code> with
+     * <code>gens[i]</code>, into <code>results[i]</code>.
+     */
+    private ForkJoinSupport.Task chunks(final RandomGenerator[] gens, final int first,
+                                        final RunningStatistics[] results,
+                                        final long samples, final SampleFunction f) {
+        return new ForkJoinSupport.Task() {
+            public void run(final int index) {
+                final long from = (long) (first + index) * chunkSize;
+                final long count = Math.min(chunkSize, samples - from);
+                final RandomGenerator g = gens[index];
+                final RunningStatistics s = new RunningStatistics();
+                for (long i = 0; i < count; ++i) {
+                    s.add(f.sample(g));
+                }
+                results[index] = s;
+                gens[index] = null;
+            }
+        };
+    }
+
+    private static void merge(final RunningStatistics total, final RunningStatistics[] results) {
+        for (int i = 0; i < results.length; ++i) {
+            total.merge(results[i]);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Padding before the value.
+ */
+abstract class PaddedAtomicLongLhs {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * The value.
+ */
+abstract class PaddedAtomicLongValue extends PaddedAtomicLongLhs {
+    volatile long value;
+}
+
+/**
+ * Padding after the value.
+ */
+abstract class PaddedAtomicLongRhs extends PaddedAtomicLongValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * An atomic long on its own cache line.
+ *
+ * <p>
+ * The value has 56 bytes of padding on each side, so writes by one
+ * thread don't slow down other threads working on nearby objects
+ * ("false sharing").  The padding is in superclasses since the JVM
+ * is free to reorder the fields within a class, but puts superclass
+ * fields first.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+class PaddedAtomicLong extends PaddedAtomicLongRhs {
+
+    private static final AtomicLongFieldUpdater<PaddedAtomicLongValue> UPDATER =
+        AtomicLongFieldUpdater.newUpdater(PaddedAtomicLongValue.class, "value");
+
+    PaddedAtomicLong(final long initial) {
+        value = initial;
+    }
+
+    long get() {
+        return value;
+    }
+
+    void set(final long v) {
+        value = v;
+    }
+
+    boolean compareAndSet(final long expect, final long update) {
+        return UPDATER.compareAndSet(this, expect, update);
+    }
+
+    /**
+     * Set, without waiting for other threads to see it
+     */
+    void lazySet(final long v) {
+        UPDATER.lazySet(this, v);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The Philox4x32-10 counter-based random number generator.
+ *
+ * <p>
+ * Philox is a weak block cipher: ten rounds of a 32x32-bit multiply
+ * and xor, applied to a 128-bit counter with a 64-bit key.  Encrypting
+ * the counters 0, 1, 2, ... gives the random stream, so output
+ * <i>i</i> is a pure function of the key and <i>i</i>.  There is no
+ * sequential state beyond the counter, and any part of the stream can
+ * be computed directly with {@link #at(long, long)} or
+ * {@link #seek(long)}, without coordination between threads or
+ * machines.
+ * </p>
+ *
+ * <p>
+ * Each block gives four 32-bit words.  <code>next(32)</code> returns one
+ * word and <code>next64()</code> two, the first in the high half.  The
+ * block counter uses the low 64 bits of the 128-bit counter, the rest
+ * are zero.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>Salmon, Moraes, Dror and Shaw, <i>Parallel Random Numbers: As Easy
+ * as 1, 2, 3</i>, SC11, 2011</li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Philox4x32 implements SplittableGenerator, BulkGenerator,
+                                   StatefulGenerator {
+
+    /** Round multipliers */
+    private static final long M0 = 0xD2511F53L;
+    private static final long M1 = 0xCD9E8D57L;
+
+    /** Weyl sequence key increments */
+    private static final int W0 = 0x9E3779B9;
+    private static final int W1 = 0xBB67AE85;
+
+    private int k0;
+    private int k1;
+
+    /**
+     * The next block to compute
+     */
+    private long counter;
+
+    /**
+     * The current block, and how many words of it are used.
+     */
+    private final int[] block = new int[4];
+    private int used = 4;
+
+    /**
+     * Constructor, key set to current time.
+     */
+    public Philox4x32() {
+        setSeed(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor with a 64-bit key.
+     */
+    public Philox4x32(final long key) {
+        setSeed(key);
+    }
+
+    /**
+     * Set the key, and go back to the start of the stream.
+     */
+    public void setSeed(final long key) {
+        k0 = (int) key;
+        k1 = (int) (key >>> 32);
+        seek(0L);
+    }
+
+    /**
+     * Get the 64-bit key.
+     */
+    public long getKey() {
+        return (k0 & 0xFFFFFFFFL) | ((long) k1 << 32);
+    }
+
+    /**
+     * Move to 32-bit word <code>index</code> of the stream.
+     *
+     * @param index word number, treated as unsigned
+     */
+    public void seek(final long index) {
+        counter = index >>> 2;
+        used = (int) (index & 3L);
+        if (used != 0) {
+            encrypt(counter++, 0L, k0, k1, block);
+        } else {
+            used = 4;
+        }
+    }
+
+    /**
+     * The number of 32-bit words used so far.
+     */
+    public long getPosition() {
+        return (counter << 2) - 4 + used;
+    }
+
+    /**
+     * Returns up to 32 random bits, using one word of the stream.
+     */
+    public long next(final int numBits) {
+        if (used == 4) {
+            encrypt(counter++, 0L, k0, k1, block);
+            used = 0;
+        }
+        return block[used++] >>> (32 - numBits);
+    }
+
+    /**
+     * Returns 64 random bits, using two words of the stream.
+     */
+    public long next64() {
+        final long hi = next(32);
+        return (hi << 32) | (next(32) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as calling
+     * {@link #next64()} repeatedly.  Whole blocks are written straight
+     * into the array.
+     */
+    public void nextLongs(final long[] dest, int offset, final int length) {
+        final int end = offset + length;
+        while (used != 4 && offset < end) {
+            dest[offset++] = next64();
+        }
+        final int[] b = block;
+        while (end - offset >= 2) {
+            encrypt(counter++, 0L, k0, k1, b);
+            dest[offset++] = ((long) b[0] << 32) | (b[1] & 0xFFFFFFFFL);
+            dest[offset++] = ((long) b[2] << 32) | (b[3] & 0xFFFFFFFFL);
+        }
+        if (offset < end) {
+            dest[offset] = next64();
+        }
+    }
+
+    /**
+     * Split by giving the new generator a key mixed from this
+     * generator's output.
+     *
+     * <p>
+     * Distinct keys give unrelated streams, so the only risk is two
+     * generators getting the same 64-bit key.
+     * </p>
+     */
+    public Philox4x32 split() {
+        return new Philox4x32(SplitMix64.mix64(next64()));
+    }
+
+    /**
+     * Word <code>index</code> of the stream with key <code>key</code>.
+     *
+     * <p>
+     * This is the value <code>next(32)</code> returns after
+     * <code>seek(index)</code>.  It computes a whole block, so use
+     * {@link #encrypt} directly for more than one word.
+     * </p>
+     */
+    public static int at(final long key, final long index) {
+        final int[] out = new int[4];
+        encrypt(index >>> 2, 0L, (int) key, (int) (key >>> 32), out);
+        return out[(int) (index & 3L)];
+    }
+
+    /**
+     * Philox4x32-10 of one 128-bit counter.
+     *
+     * @param lo counter words 0 (low half) and 1 (high half)
+     * @param hi counter words 2 (low half) and 3 (high half)
+     * @param k0 key word 0
+     * @param k1 key word 1
+     * @param out the four output words
+     */
+    public static void encrypt(final long lo, final long hi,
+                               int k0, int k1, final int[] out) {
+        int c0 = (int) lo;
+        int c1 = (int) (lo >>> 32);
+        int c2 = (int) hi;
+        int c3 = (int) (hi >>> 32);
+        for (int r = 0; r < 10; ++r) {
+            if (r != 0) {
+                k0 += W0;
+                k1 += W1;
+            }
+            final long p0 = M0 * (c0 & 0xFFFFFFFFL);
+            final long p1 = M1 * (c2 & 0xFFFFFFFFL);
+            final int t0 = (int) (p1 >>> 32) ^ c1 ^ k0;
+            final int t2 = (int) (p0 >>> 32) ^ c3 ^ k1;
+            c1 = (int) p1;
+            c3 = (int) p0;
+            c0 = t0;
+            c2 = t2;
+        }
+        out[0] = c0;
+        out[1] = c1;
+        out[2] = c2;
+        out[3] = c3;
+    }
+
+    /**
+     * State record: the key and the position in 32-bit words.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 16;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.PHILOX_4X32, 1);
+        buf.putLong(getKey());
+        buf.putLong(getPosition());
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.PHILOX_4X32, 1, 16);
+        final long key = buf.getLong();
+        k0 = (int) key;
+        k1 = (int) (key >>> 32);
+        seek(buf.getLong());
+    }
+
+    public Philox4x32 copy() {
+        Philox4x32 r = new Philox4x32(getKey());
+        r.seek(getPosition());
+        return r;
+    }
+}
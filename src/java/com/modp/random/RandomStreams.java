@@ -0,0 +1,392 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Primitive streams of random values from a generator.
+ *
+ * <p>
+ * These work like <code>java.util.SplittableRandom.ints(n)</code>
+ * and friends.  The stream uses the generator passed in, so it should
+ * not be used for anything else until the stream is done.
+ * </p>
+ *
+ * <p>
+ * If the generator is a {@link SplittableGenerator}, the stream can be
+ * split, and a parallel stream gives each piece its own generator from
+ * <code>split()</code>.  Otherwise the stream does not split, and a
+ * parallel pipeline still draws all its random numbers in one thread.
+ * Which values a parallel stream produces depends on how the stream
+ * framework splits it, so for results that do not depend on the number
+ * of cores, split the generator by hand instead.
+ * </p>
+ *
+ * <p>
+ * When the generator is a {@link BulkGenerator}, values are made from
+ * 64-bit words, and <code>forEachRemaining</code> (used by most
+ * terminal operations) fills a buffer of words at a time.  An
+ * <code>int</code> uses half a word, high half first.  Otherwise values
+ * come from <code>next(32)</code>, in the same way as
+ * <code>java.util.Random</code>.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class RandomStreams {
+
+    /**
+     * Number of 64-bit words filled at a time.
+     */
+    private static final int BUFFER_SIZE = 256;
+
+    /**
+     * 2<sup>-53</sup>
+     */
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    private RandomStreams() {
+    }
+
+    /**
+     * A stream of <code>size</code> random ints.
+     *
+     * @param rng the generator to use
+     * @param size number of values
+     */
+    public static IntStream ints(final RandomGenerator rng, final long size) {
+        checkSize(size);
+        return StreamSupport.intStream(new IntSpliterator(rng, 0L, size), false);
+    }
+
+    /**
+     * A stream of <code>size</code> random longs.
+     *
+     * @param rng the generator to use
+     * @param size number of values
+     */
+    public static LongStream longs(final RandomGenerator rng, final long size) {
+        checkSize(size);
+        return StreamSupport.longStream(new LongSpliterator(rng, 0L, size), false);
+    }
+
+    /**
+     * A stream of <code>size</code> random doubles in [0,1), with 53
+     * random bits each.
+     *
+     * @param rng the generator to use
+     * @param size number of values
+     */
+    public static DoubleStream doubles(final RandomGenerator rng, final long size) {
+        checkSize(size);
+        return StreamSupport.doubleStream(new DoubleSpliterator(rng, 0L, size), false);
+    }
+
+    private static void checkSize(final long size) {
+        if (size < 0L) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+    }
+
+    /**
+     * A 64-bit value from a generator without native 64-bit output.
+     */
+    static long nextLong(final RandomGenerator rng) {
+        return (rng.next(32) << 32) | (rng.next(32) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A double from a generator without native 64-bit output,
+     * the same as <code>java.util.Random.nextDouble()</code>.
+     */
+    static double nextDouble(final RandomGenerator rng) {
+        return ((rng.next(26) << 27) + rng.next(27)) * DOUBLE_UNIT;
+    }
+
+    /**
+     * A double from 64 random bits.
+     */
+    static double toDouble(final long bits) {
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Split the generator for the first half of a range, or return
+     * null if it can't be split.
+     */
+    private static RandomGenerator splitFor(final RandomGenerator rng,
+                                            final long index, final long fence) {
+        if (!(rng instanceof SplittableGenerator) || fence - index < 2L) {
+            return null;
+        }
+        return ((SplittableGenerator) rng).split();
+    }
+
+    /**
+     * Common parts of the spliterators.
+     *
+     * <p>
+     * Like the JDK's own random spliterators, <code>trySplit</code>
+     * hands the first half of the range to the new spliterator.
+     * </p>
+     */
+    private abstract static class Base {
+        final RandomGenerator rng;
+        final BulkGenerator bulk;
+        long index;
+        final long fence;
+
+        Base(final RandomGenerator rng, final long index, final long fence) {
+            this.rng = rng;
+            this.bulk = (rng instanceof BulkGenerator) ? (BulkGenerator) rng : null;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+
+    static final class IntSpliterator extends Base implements Spliterator.OfInt {
+        /**
+         * Low half of the last word, if it hasn't been used yet.
+         */
+        private int half;
+        private boolean hasHalf;
+
+        IntSpliterator(final RandomGenerator rng, final long index, final long fence) {
+            super(rng, index, fence);
+        }
+
+        public IntSpliterator trySplit() {
+            final RandomGenerator child = splitFor(rng, index, fence);
+            if (child == null) {
+                return null;
+            }
+            final long m = index + ((fence - index) >>> 1);
+            final IntSpliterator prefix = new IntSpliterator(child, index, m);
+            index = m;
+            return prefix;
+        }
+
+        public boolean tryAdvance(final IntConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (index >= fence) {
+                return false;
+            }
+            if (bulk == null) {
+                action.accept((int) rng.next(32));
+            } else if (hasHalf) {
+                hasHalf = false;
+                action.accept(half);
+            } else {
+                final long w = bulk.next64();
+                half = (int) w;
+                hasHalf = true;
+                action.accept((int) (w >>> 32));
+            }
+            index++;
+            return true;
+        }
+
+        public void forEachRemaining(final IntConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            long i = index;
+            final long f = fence;
+            if (i >= f) {
+                return;
+            }
+            index = f;
+            if (bulk == null) {
+                for (; i < f; ++i) {
+                    action.accept((int) rng.next(32));
+                }
+                return;
+            }
+            if (hasHalf) {
+                hasHalf = false;
+                action.accept(half);
+                i++;
+            }
+            final long[] buf = new long[(int) Math.min(BUFFER_SIZE, ((f - i) + 1) >>> 1)];
+            while (i < f) {
+                final int words = (int) Math.min(buf.length, ((f - i) + 1) >>> 1);
+                bulk.nextLongs(buf, 0, words);
+                for (int j = 0; j < words; ++j) {
+                    final long w = buf[j];
+                    action.accept((int) (w >>> 32));
+                    if (++i < f) {
+                        action.accept((int) w);
+                        i++;
+                    }
+                }
+            }
+        }
+    }
+
+    static final class LongSpliterator extends Base implements Spliterator.OfLong {
+
+        LongSpliterator(final RandomGenerator rng, final long index, final long fence) {
+            super(rng, index, fence);
+        }
+
+        public LongSpliterator trySplit() {
+            final RandomGenerator child = splitFor(rng, index, fence);
+            if (child == null) {
+                return null;
+            }
+            final long m = index + ((fence - index) >>> 1);
+            final LongSpliterator prefix = new LongSpliterator(child, index, m);
+            index = m;
+            return prefix;
+        }
+
+        public boolean tryAdvance(final LongConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(bulk == null ? nextLong(rng) : bulk.next64());
+            index++;
+            return true;
+        }
+
+        public void forEachRemaining(final LongConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            long i = index;
+            final long f = fence;
+            if (i >= f) {
+                return;
+            }
+            index = f;
+            if (bulk == null) {
+                for (; i < f; ++i) {
+                    action.accept(nextLong(rng));
+                }
+                return;
+            }
+            final long[] buf = new long[(int) Math.min(BUFFER_SIZE, f - i)];
+            while (i < f) {
+                final int n = (int) Math.min(buf.length, f - i);
+                bulk.nextLongs(buf, 0, n);
+                for (int j = 0; j < n; ++j) {
+                    action.accept(buf[j]);
+                }
+                i += n;
+            }
+        }
+    }
+
+    static final class DoubleSpliterator extends Base implements Spliterator.OfDouble {
+
+        DoubleSpliterator(final RandomGenerator rng, final long index, final long fence) {
+            super(rng, index, fence);
+        }
+
+        public DoubleSpliterator trySplit() {
+            final RandomGenerator child = splitFor(rng, index, fence);
+            if (child == null) {
+                return null;
+            }
+            final long m = index + ((fence - index) >>> 1);
+            final DoubleSpliterator prefix = new DoubleSpliterator(child, index, m);
+            index = m;
+            return prefix;
+        }
+
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(bulk == null ? nextDouble(rng) : toDouble(bulk.next64()));
+            index++;
+            return true;
+        }
+
+        public void forEachRemaining(final DoubleConsumer action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            long i = index;
+            final long f = fence;
+            if (i >= f) {
+                return;
+            }
+            index = f;
+            if (bulk == null) {
+                for (; i < f; ++i) {
+                    action.accept(nextDouble(rng));
+                }
+                return;
+            }
+            final long[] buf = new long[(int) Math.min(BUFFER_SIZE, f - i)];
+            while (i < f) {
+                final int n = (int) Math.min(buf.length, f - i);
+                bulk.nextLongs(buf, 0, n);
+                for (int j = 0; j < n; ++j) {
+                    action.accept(toDouble(buf[j]));
+                }
+                i += n;
+            }
+        }
+    }
+}
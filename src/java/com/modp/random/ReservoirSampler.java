@@ -0,0 +1,186 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform sample of fixed size from a stream of unknown length.
+ *
+ * <p>
+ * This is Vitter's reservoir sampling with Li's "Algorithm L".  The
+ * first <i>k</i> items fill the reservoir.  After that, rather than
+ * drawing a random number for every item to decide whether to keep it,
+ * it draws the number of items to skip before the next one kept, which
+ * has a geometric distribution.  A stream of <i>n</i> items needs about
+ * <i>k</i> (1 + ln(<i>n</i> / <i>k</i>)) random draws in total, so
+ * almost every item costs just a counter increment.
+ * </p>
+ *
+ * <p>
+ * If the stream can skip ahead cheaply (an index, a file), use
+ * {@link #skippable()} and {@link #skip(long)} to never look at the
+ * items that would be thrown away.
+ * </p>
+ *
+ * <pre>
+ * ReservoirSampler&lt;Event&gt; s = new ReservoirSampler&lt;Event&gt;(100, rng);
+ * for (Event e : events) {
+ *     s.add(e);
+ * }
+ * List&lt;Event&gt; sample = s.getSample();
+ * </pre>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ReservoirSampler<T> {
+
+    private final RandomGenerator rng;
+
+    private final Shuffles.Indices indices;
+
+    private final Object[] reservoir;
+
+    /** Items seen, or skipped, so far */
+    private long count;
+
+    /** Index of the next item to keep, once the reservoir is full */
+    private long next;
+
+    /** Largest of k uniforms, the running threshold */
+    private double w;
+
+    /**
+     * Constructor.
+     *
+     * @param k sample size, positive
+     * @param rng source of randomness
+     */
+    public ReservoirSampler(final int k, final RandomGenerator rng) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.rng = rng;
+        this.indices = new Shuffles.Indices(rng);
+        this.reservoir = new Object[k];
+    }
+
+    /**
+     * Offer the next item in the stream.
+     *
+     * @param item the item
+     * @return true if it went in the sample
+     */
+    public boolean add(final T item) {
+        final long i = count++;
+        final int k = reservoir.length;
+        if (i < k) {
+            reservoir[(int) i] = item;
+            if (i == k - 1) {
+                w = Math.exp(Math.log(Sampling.nextOpenDouble(rng)) / k);
+                advance();
+            }
+            return true;
+        }
+        if (i != next) {
+            return false;
+        }
+        reservoir[indices.next(k)] = item;
+        w *= Math.exp(Math.log(Sampling.nextOpenDouble(rng)) / k);
+        advance();
+        return true;
+    }
+
+    /**
+     * @return the number of following items that will be thrown away
+     *   without changing the sample
+     */
+    public long skippable() {
+        return (count < reservoir.length) ? 0L : next - count;
+    }
+
+    /**
+     * Count items without looking at them.
+     *
+     * @param n number of items, at most {@link #skippable()}
+     */
+    public void skip(final long n) {
+        if (n < 0 || n > skippable()) {
+            throw new IllegalArgumentException("Can skip at most " + skippable() + " items: " + n);
+        }
+        count += n;
+    }
+
+    /**
+     * @return the number of items seen, including those skipped
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sample size, which is less than <i>k</i> only when
+     *   fewer than <i>k</i> items have been seen
+     */
+    public int size() {
+        return (int) Math.min(count, reservoir.length);
+    }
+
+    /**
+     * @return a copy of the current sample
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getSample() {
+        return new ArrayList<T>((List<T>) Arrays.asList(Arrays.copyOf(reservoir, size())));
+    }
+
+    /**
+     * Pick the next item to keep: skip Geometric(w) items.
+     */
+    private void advance() {
+        final double skip = Math.floor(Math.log(Sampling.nextOpenDouble(rng)) / Math.log1p(-w));
+        // also catches w underflowing to 0, which makes skip infinite
+        next = (skip < (double) (Long.MAX_VALUE - count - 1))
+            ? count + (long) skip : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A generalised Rule 30 cellular automaton generator.
+ *
+ * <p>
+ * This is a relative of {@link Rule30Cells192} that works on a circular
+ * array of any multiple of 64 cells (e.g. 256 to 4096).  Unlike
+ * <code>Rule30Cells192</code> the cells are <b>not</b> bit-sliced, cell
+ * <i>j</i> is simply bit <i>j</i> mod 64 of word <i>j</i> / 64, so
+ * each step updates 64 cells per word with a handful of shifts and
+ * boolean operations.
+ * </p>
+ *
+ * <p>
+ * Each step can produce more than one bit.  With <i>taps</i> = 1 only the
+ * middle cell is read, and a 192 cell automaton produces exactly the same
+ * sequence as <code>Rule30Cells192</code> (and so <i>Mathematica</i>).
+ * With more taps, that many cells spaced evenly around the array, starting
+ * with the middle cell, are read after each step.  The first tap is
+ * returned in the most significant position.
+ * </p>
+ *
+ * <p>WARNING: As with <code>Rule30Cells192</code> the well known problems
+ * of Rule 30 (bad initial conditions, correlations between neighboring
+ * cells) are <b>NOT</b> corrected here.  Taps that are too close together
+ * will produce correlated bits.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Rule30Cells implements BulkGenerator, StatefulGenerator {
+
+    /**
+     * Number of cells
+     */
+    private final int cells;
+
+    /**
+     * Number of cells read per step
+     */
+    private final int taps;
+
+    /**
+     * Cell positions to read, in output order
+     */
+    private final int[] tapCells;
+
+    /**
+     * The current state
+     */
+    private long[] state;
+
+    /**
+     * Scratch space for the next state, swapped with <code>state</code>
+     */
+    private long[] work;
+
+    /**
+     * Bits from the last step that haven't been returned yet
+     */
+    private long pending;
+
+    /**
+     * Number of valid bits in <code>pending</code>
+     */
+    private int available;
+
+    /**
+     * Constructor, single middle cell, seeded with current time.
+     *
+     * @param cells number of cells, a positive multiple of 64
+     */
+    public Rule30Cells(final int cells) {
+        this(cells, 1);
+        setSeed(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor with seed.
+     *
+     * @param cells number of cells, a positive multiple of 64
+     * @param taps number of cells read per step, 1 to 64, must divide
+     *  <code>cells</code>
+     * @param seed used for the word containing the middle cell
+     */
+    public Rule30Cells(final int cells, final int taps, final long seed) {
+        this(cells, taps);
+        setSeed(seed);
+    }
+
+    /**
+     * Constructor with full seed.
+     *
+     * @param seed the initial cells, see {@link #setSeed(long[])}
+     * @param taps number of cells read per step, 1 to 64, must divide
+     *  the number of cells
+     */
+    public Rule30Cells(final long[] seed, final int taps) {
+        this(seed.length * 64, taps);
+        setSeed(seed);
+    }
+
+    private Rule30Cells(final int cells, final int taps) {
+        if (cells <= 0 || (cells & 63) != 0) {
+            throw new IllegalArgumentException("cells must be a positive multiple of 64: " + cells);
+        }
+        if (taps < 1 || taps > 64 || cells % taps != 0) {
+            throw new IllegalArgumentException("taps must be in [1,64] and divide cells: " + taps);
+        }
+        this.cells = cells;
+        this.taps = taps;
+        this.state = new long[cells / 64];
+        this.work = new long[cells / 64];
+        this.tapCells = new int[taps];
+        final int spacing = cells / taps;
+        for (int i = 0; i < taps; ++i) {
+            tapCells[i] = (cells / 2 + i * spacing) % cells;
+        }
+    }
+
+    /**
+     * Set the seed using a single long value.
+     *
+     * <p>The value is used for the word containing the middle cell, all
+     * other cells are cleared.  For 192 cells this matches
+     * {@link Rule30Cells192#setSeed(long)}.
+     * </p>
+     */
+    public void setSeed(final long seed) {
+        java.util.Arrays.fill(state, 0L);
+        state[(cells / 2) >>> 6] = seed;
+        available = 0;
+    }
+
+    /**
+     * Set all the cells.
+     *
+     * <p>Cell <i>j</i> is bit <i>j</i> mod 64 of
+     * <code>seed[</code><i>j</i> / 64<code>]</code>, and cells <i>j</i> - 1
+     * and <i>j</i> + 1 are its left and right neighbors.  Note this is not
+     * the same as the order used by
+     * {@link Rule30Cells192#setSeed(long, long, long)}, which only agrees
+     * for the classic single cell seed.
+     * </p>
+     *
+     * @param seed array of <code>getCells() / 64</code> values
+     */
+    public void setSeed(final long[] seed) {
+        if (seed.length != state.length) {
+            throw new IllegalArgumentException("Expected " + state.length + " words, got " + seed.length);
+        }
+        System.arraycopy(seed, 0, state, 0, state.length);
+        available = 0;
+    }
+
+    /**
+     * Get a copy of the current cells, in the same layout as
+     * {@link #setSeed(long[])}.
+     *
+     * @return a new array
+     */
+    public long[] getState() {
+        return (long[]) state.clone();
+    }
+
+    /**
+     * @return the number of cells
+     */
+    public int getCells() {
+        return cells;
+    }
+
+    /**
+     * @return the number of bits produced per step
+     */
+    public int getTaps() {
+        return taps;
+    }
+
+    /**
+     * Read the taps of the current state and then advance one step.
+     *
+     * @return <code>taps</code> bits, the first tap is the most significant
+     */
+    public long step() {
+        final long[] s = state;
+        long result = 0L;
+        for (int i = 0; i < taps; ++i) {
+            final int c = tapCells[i];
+            result = (result << 1) | ((s[c >>> 6] >>> (c & 63)) & 1L);
+        }
+
+        // cell j-1 is the left neighbor, cell j+1 the right.
+        // new = left XOR (center OR right)
+        final long[] t = work;
+        final int n = s.length;
+        long left = s[n - 1];
+        long center = s[0];
+        for (int i = 0; i < n; ++i) {
+            final long right = (i + 1 == n) ? s[0] : s[i + 1];
+            t[i] = ((center << 1) | (left >>> 63))
+                ^ (center | ((center >>> 1) | (right << 63)));
+            left = center;
+            center = right;
+        }
+        work = s;
+        state = t;
+        return result;
+    }
+
+    /**
+     * Returns up to 64 random bits.
+     *
+     * <p>Bits left over from a previous step are used first, so no
+     * output is wasted when <code>taps</code> does not divide
+     * <code>numBits</code>.
+     * </p>
+     */
+    public long next(final int numBits) {
+        long result = 0L;
+        int need = numBits;
+        while (need != 0) {
+            if (available == 0) {
+                pending = step();
+                available = taps;
+            }
+            final int take = (need < available) ? need : available;
+            available -= take;
+            final long chunk = pending >>> available;
+            result = (take == 64) ? chunk : (result << take) | (chunk & ((1L << take) - 1L));
+            need -= take;
+        }
+        return result;
+    }
+
+    /**
+     * Returns 64 random bits.
+     */
+    public long next64() {
+        return next(64);
+    }
+
+    /**
+     * Fill an array with random 64-bit values.
+     *
+     * <p>This produces the same values as calling {@link #next64()}
+     * repeatedly, but when <code>taps</code> is 64 each step is copied
+     * directly into the output.
+     * </p>
+     *
+     * @param dest array to fill
+     * @param offset first index to write
+     * @param length number of values to write
+     */
+    public void nextLongs(final long[] dest, final int offset, final int length) {
+        final int end = offset + length;
+        if (taps == 64 && available == 0) {
+            for (int i = offset; i < end; ++i) {
+                dest[i] = step();
+            }
+        } else {
+            for (int i = offset; i < end; ++i) {
+                dest[i] = next(64);
+            }
+        }
+    }
+
+    /**
+     * State record: the number of cells and taps, the buffered output
+     * bits, and the cells.  It can only be restored into a generator
+     * with the same number of cells and taps.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 20 + 8 * state.length;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.RULE30_CELLS, 1);
+        buf.putInt(cells);
+        buf.putInt(taps);
+        buf.putInt(available);
+        buf.putLong(pending);
+        for (int i = 0; i < state.length; ++i) {
+            buf.putLong(state[i]);
+        }
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.RULE30_CELLS, 1, 20);
+        final int p = buf.position();
+        final int c = buf.getInt(p);
+        final int t = buf.getInt(p + 4);
+        final int a = buf.getInt(p + 8);
+        if (c != cells || t != taps || a < 0 || a > 64
+            || buf.remaining() < 20 + 8 * state.length) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("State is for " + c + " cells and "
+                                               + t + " taps, not " + cells + " and " + taps);
+        }
+        available = a;
+        pending = buf.getLong(p + 12);
+        buf.position(p + 20);
+        for (int i = 0; i < state.length; ++i) {
+            state[i] = buf.getLong();
+        }
+    }
+
+    public Rule30Cells copy() {
+        Rule30Cells r = new Rule30Cells(cells, taps);
+        System.arraycopy(state, 0, r.state, 0, state.length);
+        r.pending = pending;
+        r.available = available;
+        return r;
+    }
+}
@@ -35,6 +35,8 @@
 
 package com.modp.random;
 
+import java.nio.ByteBuffer;
+
 /**
  * A random number generator based on Celluar Automaton Rule 30.
  *
@@ -83,7 +85,7 @@ package com.modp.random;
  * @author Nick Galbreath -- nickg [at] modp [dot] com
  * @version 1 -- 06-Jul-2005
  */
-public class Rule30Cells192 implements RandomGenerator {
+public class Rule30Cells192 implements BulkGenerator, StatefulGenerator {
 
     // the internal state
     private long w0;
@@ -147,6 +149,28 @@ public class Rule30Cells192 implements RandomGenerator {
 	return result;
     }
 
+    /**
+     * Get the seed that would produce the current state.
+     *
+     * This is the inverse of {@link #setSeed(long, long, long)}, and
+     * un-slices the state back into the bit-string layout.
+     *
+     * @param dest array of at least 3 values to store w0, w1, w2 in.
+     */
+    public void getSeed(final long[] dest) {
+	final long M22 = (1L << 22) - 1L;
+	final long M21 = (1L << 21) - 1L;
+	dest[0] = spread3(w0 & M22)
+	    | (spread3(w1 & M21) << 1)
+	    | (spread3(w2 & M21) << 2);
+	dest[1] = spread3((w1 >>> 21) & M22)
+	    | (spread3((w2 >>> 21) & M21) << 1)
+	    | (spread3((w0 >>> 22) & M21) << 2);
+	dest[2] = spread3(w2 >>> 42)
+	    | (spread3(w0 >>> 43) << 1)
+	    | (spread3(w1 >>> 43) << 2);
+    }
+
     /**
      * Set the seed using 3 long values.
      *
@@ -159,39 +183,56 @@ public class Rule30Cells192 implements RandomGenerator {
      * To get the clasical Rule 30 with "black dot" in the middle
      * Use <code>(0L, 1L << 32, 0L)</code>
      *
-     * TODO: need to explain bitsliced layout
+     * <p>
+     * Internally, bit <i>j</i> of the string is stored in block
+     * <i>j</i> mod 3, bit <i>j</i> / 3.  So each input word is split into
+     * three sets of every third bit.  Each set is compacted with the same
+     * shift-and-mask trick used for 3-D Morton codes, and or'ed into place.
+     * </p>
      *
      * @param w0 bits 0-63
      * @param w1 bits 64-127
      * @param w2 bits 128-191
      */
     public void setSeed(final long w0, final long w1, final long w2) {
-	final int BLOCKS = 3;
-	final int BITS_PER_BLOCK = 64;
-
-	// this loop can certainly be unrolled, and the use of array eliminated
-	// however this isn't critical and this shows how to extend
-	// the algorithm for more blocks
-	long input[] = {w0, w1, w2};      // pack into array to simply algorithm below
-	long output[] = new long[BLOCKS]; // tmp variable for holding state
-
-	for (int j = 0; j < BLOCKS * BITS_PER_BLOCK; ++j) {
-	    int inputBlock = j / BITS_PER_BLOCK;
-	    int inputPos = j % BITS_PER_BLOCK;
-	    int outputBlock = j % BLOCKS;
-	    int outputPos = j / BLOCKS;
-
-	    // get the bit we are working on
-	    // if it's 0, nothing to do
-	    // if it's 1, set the appropriate bit
-	    // MAYBE: use table instead of shifting.
-	    if ((input[inputBlock] & (1L << inputPos)) != 0L) {
-		output[outputBlock] |= (1L << outputPos);
-	    }
-	}
-	this.w0 = output[0];
-	this.w1 = output[1];
-	this.w2 = output[2];
+	// bit 64 is 1 mod 3, and bit 128 is 2 mod 3
+	// so each word starts in a different block
+	this.w0 = compress3(w0)
+	    | (compress3(w1 >>> 2) << 22)
+	    | (compress3(w2 >>> 1) << 43);
+	this.w1 = compress3(w0 >>> 1)
+	    | (compress3(w1) << 21)
+	    | (compress3(w2 >>> 2) << 43);
+	this.w2 = compress3(w0 >>> 2)
+	    | (compress3(w1 >>> 1) << 21)
+	    | (compress3(w2) << 42);
+    }
+
+    /**
+     * Gather bits 0, 3, 6, ..., 63 into the low 22 bits.
+     */
+    private static long compress3(final long x) {
+	long t = x & 0x1249249249249249L;
+	t = (t ^ (t >>> 2)) & 0x10c30c30c30c30c3L;
+	t = (t ^ (t >>> 4)) & 0x100f00f00f00f00fL;
+	t = (t ^ (t >>> 8)) & 0x001f0000ff0000ffL;
+	t = (t ^ (t >>> 16)) & 0x001f00000000ffffL;
+	t = (t ^ (t >>> 32)) & 0x00000000001fffffL;
+	return t | ((x >>> 63) << 21);
+    }
+
+    /**
+     * Scatter the low 22 bits into bits 0, 3, 6, ..., 63.
+     * The inverse of <code>compress3</code>.
+     */
+    private static long spread3(final long x) {
+	long t = x & 0x00000000001fffffL;
+	t = (t | (t << 32)) & 0x001f00000000ffffL;
+	t = (t | (t << 16)) & 0x001f0000ff0000ffL;
+	t = (t | (t << 8)) & 0x100f00f00f00f00fL;
+	t = (t | (t << 4)) & 0x10c30c30c30c30c3L;
+	t = (t | (t << 2)) & 0x1249249249249249L;
+	return t | (((x >>> 21) & 1L) << 63);
     }
 
     /*
@@ -200,18 +241,141 @@ public class Rule30Cells192 implements RandomGenerator {
      * @see java.util.Random#next(int)
      */
     public long next(final int bits) {
-	long result = 0;
+	return generate(bits);
+    }
+
+    /**
+     * Generate 64 random bits.
+     *
+     * Same as <code>(next(32) << 32) | next(32)</code>
+     * but done in one pass.
+     *
+     * @return 64 random bits
+     */
+    public long next64() {
+	return generate(64);
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as
+     * calling {@link #next64()} repeatedly.
+     *
+     * @param dest array to fill
+     * @param offset first index to write
+     * @param length number of values to write
+     */
+    public void nextLongs(final long[] dest, final int offset, final int length) {
+	final int end = offset + length;
+	for (int i = offset; i < end; ++i) {
+	    dest[i] = generate(64);
+	}
+    }
+
+    /**
+     * Advance the automaton without producing any output.
+     *
+     * @param generations number of steps to take
+     * @throws IllegalArgumentException if <code>generations</code> is
+     *  negative
+     */
+    public void skip(long generations) {
+	if (generations < 0) {
+	    throw new IllegalArgumentException("negative generations: " + generations);
+	}
+	while (generations >= 64) {
+	    generate(64);
+	    generations -= 64;
+	}
+	generate((int) generations);
+    }
+
+    /**
+     * Run the automaton for a number of generations, collecting the
+     * middle cell of each.
+     *
+     * <p>
+     * The state is kept in local variables for the whole run and
+     * four generations are done per pass of the loop, with the four
+     * output bits merged into the result at once.  Each generation
+     * still depends on the one before, so this can't go any faster than
+     * the 3-word update itself.
+     * </p>
+     *
+     * @param bits number of generations, 0 to 64
+     * @return the middle cells, the first generation is the most
+     *   significant bit
+     */
+    private long generate(final int bits) {
+	long a = w0;
+	long b = w1;
+	long c = w2;
 	long t0, t1, t2;
+	long o0, o1, o2, o3;
+	long result = 0L;
 
 	// ROTATE LEFT foo = (foo << 1) | (foo >>> 63);
 	// ROTATE RIGHT foo = (foo >> 1) | (foo << 63);
-	for (int j = bits; j != 0; --j) {
-	    result = (result << 1) | (int) ((w0 >>> 32) & 1L);
-	    t0 = ((w2 >>> 1) | (w2 << 63)) ^ (w0 | w1);
-	    t2 = w1 ^ (w2 | ((w0 << 1) | (w0 >>> 63)));
-	    t1 = w0 ^ (w1 | w2);
-	    w0 = t0; w1 = t1; w2 = t2;
+	int j = bits;
+	for (; j >= 4; j -= 4) {
+	    o0 = (a >>> 32) & 1L;
+	    t0 = ((c >>> 1) | (c << 63)) ^ (a | b);
+	    t2 = b ^ (c | ((a << 1) | (a >>> 63)));
+	    t1 = a ^ (b | c);
+
+	    o1 = (t0 >>> 32) & 1L;
+	    a = ((t2 >>> 1) | (t2 << 63)) ^ (t0 | t1);
+	    c = t1 ^ (t2 | ((t0 << 1) | (t0 >>> 63)));
+	    b = t0 ^ (t1 | t2);
+
+	    o2 = (a >>> 32) & 1L;
+	    t0 = ((c >>> 1) | (c << 63)) ^ (a | b);
+	    t2 = b ^ (c | ((a << 1) | (a >>> 63)));
+	    t1 = a ^ (b | c);
+
+	    o3 = (t0 >>> 32) & 1L;
+	    a = ((t2 >>> 1) | (t2 << 63)) ^ (t0 | t1);
+	    c = t1 ^ (t2 | ((t0 << 1) | (t0 >>> 63)));
+	    b = t0 ^ (t1 | t2);
+
+	    result = (result << 4) | (o0 << 3) | (o1 << 2) | (o2 << 1) | o3;
+	}
+	for (; j != 0; --j) {
+	    result = (result << 1) | ((a >>> 32) & 1L);
+	    t0 = ((c >>> 1) | (c << 63)) ^ (a | b);
+	    t2 = b ^ (c | ((a << 1) | (a >>> 63)));
+	    t1 = a ^ (b | c);
+	    a = t0; b = t1; c = t2;
 	}
+	w0 = a; w1 = b; w2 = c;
 	return result;
     }
+
+    /**
+     * State record: the three words of the bit-sliced state.
+     */
+    public int stateSize() {
+	return StateFormat.HEADER + 24;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+	StateFormat.write(buf, StateFormat.RULE30_CELLS_192, 1);
+	buf.putLong(w0);
+	buf.putLong(w1);
+	buf.putLong(w2);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+	StateFormat.read(buf, StateFormat.RULE30_CELLS_192, 1, 24);
+	w0 = buf.getLong();
+	w1 = buf.getLong();
+	w2 = buf.getLong();
+    }
+
+    public Rule30Cells192 copy() {
+	Rule30Cells192 r = new Rule30Cells192(0L);
+	r.w0 = w0;
+	r.w1 = w1;
+	r.w2 = w2;
+	return r;
+    }
 }
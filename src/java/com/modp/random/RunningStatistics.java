@@ -0,0 +1,184 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * Count, mean, variance, minimum and maximum of a stream of values,
+ * in constant space.
+ *
+ * <p>
+ * The mean and variance use Welford's update, which doesn't lose
+ * precision the way a sum of squares does.  The sum is kept with
+ * Neumaier's compensated addition.  Two sets of statistics can be
+ * combined with {@link #merge(RunningStatistics)} (Chan et al.), so
+ * work can be split into pieces and the results joined; merging the
+ * same pieces in the same order always gives the same bits.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class RunningStatistics {
+
+    private long count;
+
+    private double mean;
+
+    /** Sum of squared differences from the mean */
+    private double m2;
+
+    private double sum;
+
+    /** Low-order part of the sum lost to rounding */
+    private double compensation;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Add a value.
+     */
+    public void add(final double x) {
+        ++count;
+        final double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        addToSum(x);
+        if (x < min) {
+            min = x;
+        }
+        if (x > max) {
+            max = x;
+        }
+    }
+
+    /**
+     * Add all the values seen by another set of statistics.  The other
+     * set is not changed.
+     */
+    public void merge(final RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            sum = other.sum;
+            compensation = other.compensation;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        final long n = count + other.count;
+        final double delta = other.mean - mean;
+        mean += delta * ((double) other.count / n);
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+        addToSum(other.sum);
+        compensation += other.compensation;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private void addToSum(final double x) {
+        final double t = sum + x;
+        if (Math.abs(sum) >= Math.abs(x)) {
+            compensation += (sum - t) + x;
+        } else {
+            compensation += (x - t) + sum;
+        }
+        sum = t;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean, or NaN if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the sample variance (divided by <i>n</i> - 1), or NaN if
+     *  there are fewer than two values
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * @return the standard error of the mean, or NaN if there are fewer
+     *  than two values
+     */
+    public double getStandardError() {
+        return Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * @return the smallest value, or positive infinity if there are none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, or negative infinity if there are none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the compensated sum of the values
+     */
+    public double getSum() {
+        return sum + compensation;
+    }
+
+    public String toString() {
+        return "RunningStatistics[count=" + count + ", mean=" + getMean()
+            + ", variance=" + getVariance() + ", min=" + min + ", max=" + max + "]";
+    }
+}
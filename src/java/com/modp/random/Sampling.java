@@ -0,0 +1,181 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * Sampling without replacement: <i>k</i> distinct values from
+ * [0, <i>n</i>).
+ *
+ * <p>
+ * <code>floyd</code> is Robert Floyd's algorithm, which needs exactly
+ * <i>k</i> random draws whatever <i>k</i> and <i>n</i> are, but returns
+ * the values in no particular order.  <code>select</code> draws values
+ * until it has <i>k</i> different ones, which takes a few more draws
+ * when <i>k</i> is a big fraction of <i>n</i>, but returns them in a
+ * random order, ready to use as a random <i>k</i>-permutation.  Both
+ * keep what they've seen in a primitive hash set, so they need memory
+ * for <i>k</i> values, not <i>n</i>, and <i>n</i> can be any
+ * <code>long</code>.
+ * </p>
+ *
+ * <p>
+ * For samples from a stream of unknown length, see
+ * {@link ReservoirSampler}.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class Sampling {
+
+    /** 2<sup>-53</sup> */
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    private Sampling() {
+    }
+
+    /**
+     * Floyd's algorithm.
+     *
+     * <p>
+     * For each <i>j</i> from <i>n</i> - <i>k</i> to <i>n</i> - 1, pick
+     * <i>t</i> in [0, <i>j</i>], and take <i>t</i>, or <i>j</i> if
+     * <i>t</i> was already taken.  Every subset is equally likely, but
+     * values near <i>n</i> tend to come last, so shuffle the result (see
+     * {@link Shuffles}) if the order matters.
+     * </p>
+     *
+     * @param n size of the range
+     * @param k number of values, at most <i>n</i>
+     * @param rng source of randomness
+     * @return <i>k</i> distinct values in [0, <i>n</i>)
+     */
+    public static long[] floyd(final long n, final int k, final RandomGenerator rng) {
+        check(n, k);
+        final long[] out = new long[k];
+        final LongHashSet seen = new LongHashSet(k);
+        int m = 0;
+        for (long j = n - k; j < n; ++j) {
+            final long t = nextLong(rng, j + 1);
+            if (seen.add(t)) {
+                out[m++] = t;
+            } else {
+                // j can't have been taken yet
+                seen.add(j);
+                out[m++] = j;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Selection by rejection.
+     *
+     * <p>
+     * Values are drawn uniformly, and repeats are thrown away.  The
+     * expected number of draws is <i>n</i> ln(<i>n</i> / (<i>n</i> -
+     * <i>k</i>)), which is under 1.4 <i>k</i> while <i>k</i> &le;
+     * <i>n</i> / 2.  Above that, this uses Floyd's algorithm and
+     * shuffles.
+     * </p>
+     *
+     * @param n size of the range
+     * @param k number of values, at most <i>n</i>
+     * @param rng source of randomness
+     * @return <i>k</i> distinct values in [0, <i>n</i>), in random order
+     */
+    public static long[] select(final long n, final int k, final RandomGenerator rng) {
+        check(n, k);
+        if (k > n / 2) {
+            final long[] out = floyd(n, k, rng);
+            Shuffles.shuffle(out, rng);
+            return out;
+        }
+        final long[] out = new long[k];
+        final LongHashSet seen = new LongHashSet(k);
+        int m = 0;
+        while (m < k) {
+            final long t = nextLong(rng, n);
+            if (seen.add(t)) {
+                out[m++] = t;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * A uniform value in [0, bound), by masking and rejection, so at
+     * most two tries are expected.
+     *
+     * @param bound positive
+     */
+    static long nextLong(final RandomGenerator rng, final long bound) {
+        final int bits = 64 - Long.numberOfLeadingZeros(bound - 1);
+        if (bits == 0) {
+            return 0L;
+        }
+        long r;
+        do {
+            r = next64(rng) >>> (64 - bits);
+        } while (r >= bound);
+        return r;
+    }
+
+    /**
+     * A uniform double in (0, 1), never 0 or 1, so safe to take the log
+     * of, or of 1 minus.
+     */
+    static double nextOpenDouble(final RandomGenerator rng) {
+        final long bits = (rng instanceof BulkGenerator)
+            ? ((BulkGenerator) rng).next64() >>> 11
+            : (rng.next(26) << 27) + rng.next(27);
+        return (bits + 0.5) * DOUBLE_UNIT;
+    }
+
+    private static long next64(final RandomGenerator rng) {
+        return (rng instanceof BulkGenerator)
+            ? ((BulkGenerator) rng).next64() : RandomStreams.nextLong(rng);
+    }
+
+    private static void check(final long n, final int k) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("k must be in [0, n]: " + k);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fisher-Yates shuffles of primitive and object arrays.
+ *
+ * <p>
+ * Each swap needs an unbiased index in [0, <i>i</i>].  These use
+ * Lemire's multiply-and-shift method, which only divides when a draw
+ * lands in the small biased region, and so almost never.  Each index
+ * uses 32 random bits, so a {@link BulkGenerator} gives two indices per
+ * 64-bit step.
+ * </p>
+ *
+ * <p>
+ * For big arrays <code>parallelShuffle</code> spreads the work over a
+ * <code>ForkJoinPool</code>: every element goes to one of 256 buckets
+ * picked at random, the buckets are gathered in order, and then each
+ * bucket is shuffled on its own.  Since bucket membership is random and
+ * each bucket's order is random, the result is a uniformly random
+ * permutation, the same as Fisher-Yates.  The buckets are small enough
+ * to shuffle mostly in cache, so it is often faster even on one thread, but
+ * needs a second array the size of the input, plus a byte per element.
+ * The generator is split into one stream per chunk before any work
+ * starts.  A chunk's stream picks the buckets for the chunk, then
+ * shuffles its share of the buckets, so the result depends only on the
+ * generator and the array length, not on the pool.
+ * </p>
+ *
+ * <p>
+ * A jumpable generator with a large state, like Mersenne Twister,
+ * splits by jumping, a few milliseconds a split, which is as long as a
+ * plain shuffle of a few hundred thousand elements.  So with those each
+ * chunk is at least 2<sup>21</sup> elements, and arrays smaller than
+ * two chunks get a plain shuffle.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class Shuffles {
+
+    /**
+     * Below this many elements, <code>parallelShuffle</code> is a plain
+     * shuffle.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    private static final int BUCKET_BITS = 8;
+
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+
+    /** Smallest chunk of input, for assigning buckets */
+    private static final int CHUNK_MIN = 1 << 16;
+
+    /**
+     * Smallest chunk for a generator that splits by jumping, so the
+     * split is small next to the chunk's work
+     */
+    private static final int JUMP_CHUNK_MIN = 1 << 21;
+
+    /**
+     * A {@link JumpableGenerator} with a state record bigger than this,
+     * in bytes, is taken to split by jumping.  A jump costs about the
+     * square of the state size, so it is cheap for small states and
+     * milliseconds for the Mersenne Twisters.
+     */
+    private static final int SLOW_JUMP_STATE = 1024;
+
+    private static final int MAX_CHUNKS = 256;
+
+    private Shuffles() {
+    }
+
+    /**
+     * Unbiased bounded draws.
+     */
+    static final class Indices {
+        private final RandomGenerator generator;
+        private final BulkGenerator bulk;
+        private long word;
+        private boolean half;
+
+        Indices(final RandomGenerator generator) {
+            this.generator = generator;
+            this.bulk = (generator instanceof BulkGenerator) ? (BulkGenerator) generator : null;
+        }
+
+        /**
+         * Returns a uniform value in [0, bound), bound positive.
+         */
+        int next(final int bound) {
+            long m = (next32() & 0xFFFFFFFFL) * bound;
+            long lo = m & 0xFFFFFFFFL;
+            if (lo < bound) {
+                // 2^32 mod bound values would be overrepresented
+                final long t = (0x100000000L - bound) % bound;
+                while (lo < t) {
+                    m = (next32() & 0xFFFFFFFFL) * bound;
+                    lo = m & 0xFFFFFFFFL;
+                }
+            }
+            return (int) (m >>> 32);
+        }
+
+        private long next32() {
+            if (bulk == null) {
+                return generator.next(32);
+            }
+            if (half) {
+                half = false;
+                return word;
+            }
+            word = bulk.next64();
+            half = true;
+            return word >>> 32;
+        }
+    }
+
+    public static void shuffle(final int[] a, final RandomGenerator rng) {
+        shuffle(a, 0, a.length, rng);
+    }
+
+    /**
+     * Shuffle part of an array.
+     *
+     * @param a array to shuffle
+     * @param from first index, inclusive
+     * @param to last index, exclusive
+     * @param rng source of randomness
+     */
+    public static void shuffle(final int[] a, final int from, final int to,
+                               final RandomGenerator rng) {
+        checkRange(a.length, from, to);
+        final Indices r = new Indices(rng);
+        for (int i = to - 1; i > from; --i) {
+            final int j = from + r.next(i - from + 1);
+            final int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    public static void shuffle(final long[] a, final RandomGenerator rng) {
+        shuffle(a, 0, a.length, rng);
+    }
+
+    public static void shuffle(final long[] a, final int from, final int to,
+                               final RandomGenerator rng) {
+        checkRange(a.length, from, to);
+        final Indices r = new Indices(rng);
+        for (int i = to - 1; i > from; --i) {
+            final int j = from + r.next(i - from + 1);
+            final long t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    public static void shuffle(final double[] a, final RandomGenerator rng) {
+        shuffle(a, 0, a.length, rng);
+    }
+
+    public static void shuffle(final double[] a, final int from, final int to,
+                               final RandomGenerator rng) {
+        checkRange(a.length, from, to);
+        final Indices r = new Indices(rng);
+        for (int i = to - 1; i > from; --i) {
+            final int j = from + r.next(i - from + 1);
+            final double t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    public static void shuffle(final Object[] a, final RandomGenerator rng) {
+        shuffle(a, 0, a.length, rng);
+    }
+
+    public static void shuffle(final Object[] a, final int from, final int to,
+                               final RandomGenerator rng) {
+        checkRange(a.length, from, to);
+        final Indices r = new Indices(rng);
+        for (int i = to - 1; i > from; --i) {
+            final int j = from + r.next(i - from + 1);
+            final Object t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /**
+     * Fill an array with a random permutation of 0 to
+     * <code>a.length - 1</code>, using "inside-out" Fisher-Yates.
+     *
+     * @param a array to fill
+     * @param rng source of randomness
+     */
+    public static void permutation(final int[] a, final RandomGenerator rng) {
+        final Indices r = new Indices(rng);
+        for (int i = 0; i < a.length; ++i) {
+            final int j = r.next(i + 1);
+            a[i] = a[j];
+            a[j] = i;
+        }
+    }
+
+    public static void parallelShuffle(final int[] a, final SplittableGenerator rng) {
+        parallelShuffle(a, rng, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Shuffle an array using several threads.
+     *
+     * @param a array to shuffle
+     * @param rng source of randomness, split up to 255 times
+     * @param pool where to run
+     */
+    public static void parallelShuffle(final int[] a, final SplittableGenerator rng,
+                                       final ForkJoinPool pool) {
+        if (chunks(a.length, rng) == 1) {
+            shuffle(a, rng);
+            return;
+        }
+        new Parallel<int[]>(a, a.length) {
+            int[] newArray(final int n) {
+                return new int[n];
+            }
+            void scatter(final int[] src, final int[] dst, final byte[] labels,
+                         final int from, final int to, final int[] pos) {
+                for (int i = from; i < to; ++i) {
+                    dst[pos[labels[i] & 0xFF]++] = src[i];
+                }
+            }
+            void shuffle(final int[] x, final int from, final int to, final RandomGenerator r) {
+                Shuffles.shuffle(x, from, to, r);
+            }
+        }.run(rng, pool);
+    }
+
+    public static void parallelShuffle(final long[] a, final SplittableGenerator rng) {
+        parallelShuffle(a, rng, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelShuffle(final long[] a, final SplittableGenerator rng,
+                                       final ForkJoinPool pool) {
+        if (chunks(a.length, rng) == 1) {
+            shuffle(a, rng);
+            return;
+        }
+        new Parallel<long[]>(a, a.length) {
+            long[] newArray(final int n) {
+                return new long[n];
+            }
+            void scatter(final long[] src, final long[] dst, final byte[] labels,
+                         final int from, final int to, final int[] pos) {
+                for (int i = from; i < to; ++i) {
+                    dst[pos[labels[i] & 0xFF]++] = src[i];
+                }
+            }
+            void shuffle(final long[] x, final int from, final int to, final RandomGenerator r) {
+                Shuffles.shuffle(x, from, to, r);
+            }
+        }.run(rng, pool);
+    }
+
+    public static void parallelShuffle(final double[] a, final SplittableGenerator rng) {
+        parallelShuffle(a, rng, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelShuffle(final double[] a, final SplittableGenerator rng,
+                                       final ForkJoinPool pool) {
+        if (chunks(a.length, rng) == 1) {
+            shuffle(a, rng);
+            return;
+        }
+        new Parallel<double[]>(a, a.length) {
+            double[] newArray(final int n) {
+                return new double[n];
+            }
+            void scatter(final double[] src, final double[] dst, final byte[] labels,
+                         final int from, final int to, final int[] pos) {
+                for (int i = from; i < to; ++i) {
+                    dst[pos[labels[i] & 0xFF]++] = src[i];
+                }
+            }
+            void shuffle(final double[] x, final int from, final int to, final RandomGenerator r) {
+                Shuffles.shuffle(x, from, to, r);
+            }
+        }.run(rng, pool);
+    }
+
+    public static void parallelShuffle(final Object[] a, final SplittableGenerator rng) {
+        parallelShuffle(a, rng, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelShuffle(final Object[] a, final SplittableGenerator rng,
+                                       final ForkJoinPool pool) {
+        if (chunks(a.length, rng) == 1) {
+            shuffle(a, rng);
+            return;
+        }
+        new Parallel<Object[]>(a, a.length) {
+            Object[] newArray(final int n) {
+                return new Object[n];
+            }
+            void scatter(final Object[] src, final Object[] dst, final byte[] labels,
+                         final int from, final int to, final int[] pos) {
+                for (int i = from; i < to; ++i) {
+                    dst[pos[labels[i] & 0xFF]++] = src[i];
+                }
+            }
+            void shuffle(final Object[] x, final int from, final int to, final RandomGenerator r) {
+                Shuffles.shuffle(x, from, to, r);
+            }
+        }.run(rng, pool);
+    }
+
+    /**
+     * Number of chunks for a parallel shuffle, 1 for a plain shuffle.
+     */
+    static int chunks(final int n, final SplittableGenerator rng) {
+        if (n < PARALLEL_THRESHOLD) {
+            return 1;
+        }
+        final boolean jumps = (rng instanceof JumpableGenerator)
+            && ((JumpableGenerator) rng).stateSize() > SLOW_JUMP_STATE;
+        return Math.max(1, Math.min(MAX_CHUNKS, n / (jumps ? JUMP_CHUNK_MIN : CHUNK_MIN)));
+    }
+
+    /**
+     * The bucket shuffle, for any kind of array.
+     */
+    private abstract static class Parallel<A> {
+        private final A a;
+        private final int n;
+
+        Parallel(final A a, final int n) {
+            this.a = a;
+            this.n = n;
+        }
+
+        abstract A newArray(int n);
+
+        /**
+         * Copy <code>src[from, to)</code> to <code>dst</code>, each at
+         * the next position of its bucket.
+         */
+        abstract void scatter(A src, A dst, byte[] labels, int from, int to, int[] pos);
+
+        abstract void shuffle(A x, int from, int to, RandomGenerator r);
+
+        void run(final SplittableGenerator rng, final ForkJoinPool pool) {
+            final int chunks = chunks(n, rng);
+            final RandomGenerator[] gens = Substreams.split(rng, chunks);
+            final byte[] labels = new byte[n];
+            final int[][] pos = new int[chunks][BUCKETS];
+
+            // pick buckets, and count them
+            ForkJoinSupport.forEach(pool, chunks, new ForkJoinSupport.Task() {
+                    public void run(final int c) {
+                        label(gens[c], labels, start(c, chunks), start(c + 1, chunks), pos[c]);
+                    }
+                });
+
+            // where each chunk writes in each bucket
+            final int[] bucketStart = new int[BUCKETS + 1];
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; ++b) {
+                bucketStart[b] = sum;
+                for (int c = 0; c < chunks; ++c) {
+                    final int count = pos[c][b];
+                    pos[c][b] = sum;
+                    sum += count;
+                }
+            }
+            bucketStart[BUCKETS] = sum;
+
+            final A tmp = newArray(n);
+            ForkJoinSupport.forEach(pool, chunks, new ForkJoinSupport.Task() {
+                    public void run(final int c) {
+                        scatter(a, tmp, labels, start(c, chunks), start(c + 1, chunks), pos[c]);
+                    }
+                });
+
+            // chunk c's stream shuffles buckets [c * 256 / chunks, (c + 1) * 256 / chunks)
+            ForkJoinSupport.forEach(pool, chunks, new ForkJoinSupport.Task() {
+                    public void run(final int c) {
+                        final int last = (c + 1) * BUCKETS / chunks;
+                        for (int b = c * BUCKETS / chunks; b < last; ++b) {
+                            final int from = bucketStart[b];
+                            final int to = bucketStart[b + 1];
+                            shuffle(tmp, from, to, gens[c]);
+                            System.arraycopy(tmp, from, a, from, to - from);
+                        }
+                    }
+                });
+        }
+
+        private int start(final int chunk, final int chunks) {
+            return (int) ((long) n * chunk / chunks);
+        }
+    }
+
+    /**
+     * Give each element in <code>[from, to)</code> a random bucket, and
+     * count them.
+     */
+    private static void label(final RandomGenerator rng, final byte[] labels,
+                              final int from, final int to, final int[] counts) {
+        final BulkGenerator bulk = (rng instanceof BulkGenerator) ? (BulkGenerator) rng : null;
+        long w = 0L;
+        for (int i = from; i < to; ++i) {
+            if (((i - from) & 7) == 0) {
+                w = (bulk != null) ? bulk.next64() : RandomStreams.nextLong(rng);
+            }
+            final int b = (int) (w >>> (64 - BUCKET_BITS));
+            w <<= BUCKET_BITS;
+            labels[i] = (byte) b;
+            counts[b]++;
+        }
+    }
+
+    private static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to
+                                                + ", length " + length);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The SplitMix64 random number generator.
+ *
+ * <p>
+ * The state is a 64-bit counter that goes up by an odd constant, the
+ * gamma, each step, and the output is the counter passed through a
+ * strong 64-bit mixing function.  It is the algorithm behind
+ * <code>java.util.SplittableRandom</code>, and with the default gamma it
+ * gives the same values.  The period is 2<sup>64</sup>.
+ * </p>
+ *
+ * <p>
+ * It is very fast and passes BigCrush, but only has 64 bits of state.
+ * Its main use here is turning one 64-bit seed into well mixed seeds for
+ * the xoshiro generators.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>Steele, Lea and Flood, <i>Fast Splittable Pseudorandom Number
+ * Generators</i>, OOPSLA 2014</li>
+ * <li><a href="https://prng.di.unimi.it/splitmix64.c">splitmix64.c</a></li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class SplitMix64 implements SplittableGenerator, BulkGenerator,
+                                   StatefulGenerator {
+
+    /**
+     * The default gamma, 2<sup>64</sup> divided by the golden ratio
+     */
+    public static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private long gamma;
+
+    /**
+     * Constructor, seed set to current time.
+     */
+    public SplitMix64() {
+        this(System.currentTimeMillis());
+    }
+
+    public SplitMix64(final long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Constructor with a seed and gamma.
+     *
+     * @param seed the initial counter
+     * @param gamma the increment, the low bit is forced to 1
+     */
+    public SplitMix64(final long seed, final long gamma) {
+        this.seed = seed;
+        this.gamma = gamma | 1L;
+    }
+
+    /**
+     * Set the seed, the gamma is unchanged.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns up to 32 random bits, the top bits of one 64-bit output.
+     */
+    public long next(final int numBits) {
+        return (int) (next64() >>> (64 - numBits));
+    }
+
+    /**
+     * Returns 64 random bits.
+     */
+    public long next64() {
+        return mix64(seed += gamma);
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as calling
+     * {@link #next64()} repeatedly.
+     */
+    public void nextLongs(final long[] dest, final int offset, final int length) {
+        final long g = gamma;
+        long s = seed;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            dest[i] = mix64(s += g);
+        }
+        seed = s;
+    }
+
+    /**
+     * Skip ahead (or back) <code>n</code> outputs.
+     */
+    public void skip(final long n) {
+        seed += n * gamma;
+    }
+
+    /**
+     * Split the same way as <code>java.util.SplittableRandom</code>: the
+     * new generator gets a mixed seed and its own gamma.
+     */
+    public SplitMix64 split() {
+        final long s = next64();
+        return new SplitMix64(s, mixGamma(seed += gamma));
+    }
+
+    /**
+     * The 64-bit output function of SplitMix64.
+     *
+     * <p>
+     * This is a strong bit mixer on its own, and is used elsewhere in
+     * this package to derive seeds.
+     * </p>
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Make an odd gamma with enough bit transitions to be a good
+     * increment.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        final int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    /**
+     * State record: the counter and the gamma.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 16;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.SPLIT_MIX_64, 1);
+        buf.putLong(seed);
+        buf.putLong(gamma);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.SPLIT_MIX_64, 1, 16);
+        final int p = buf.position();
+        if ((buf.getLong(p + 8) & 1L) == 0L) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("gamma must be odd");
+        }
+        seed = buf.getLong();
+        gamma = buf.getLong();
+    }
+
+    public SplitMix64 copy() {
+        return new SplitMix64(seed, gamma);
+    }
+}
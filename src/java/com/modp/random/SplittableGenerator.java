@@ -0,0 +1,75 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * A generator that can be split into two independent generators.
+ *
+ * <p>
+ * This is for recursive decomposition, like fork/join: before forking a
+ * subtask, the parent task calls <code>split()</code> and hands the
+ * result to the subtask.  As long as each split happens in the parent
+ * task, and not in whatever worker thread happens to run something, the
+ * numbers every task sees depend only on the task tree and the root
+ * seed, not on how the pool schedules the work.
+ * </p>
+ *
+ * <p>
+ * How the new generator is made depends on the algorithm.  Generators
+ * that can jump or skip ahead give the child a distant, non-overlapping
+ * part of the same sequence.  Others mix the parent's output into a new
+ * seed.  Each implementation documents which, and the limits.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public interface SplittableGenerator extends RandomGenerator {
+
+    /**
+     * Create a new generator, independent of this one.
+     *
+     * <p>
+     * This generator may also change, so that it and the new one,
+     * and anything later split from either, do not overlap.  The result
+     * is not thread-safe, and should be used by one task.
+     * </p>
+     *
+     * @return a new generator
+     */
+    public SplittableGenerator split();
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * Providers for the generators in this package, registered in
+ * <code>META-INF/services/com.modp.random.GeneratorProvider</code>.
+ *
+ * <p>
+ * The costs are rough nanoseconds per 64 bits from
+ * <code>GeneratorBenchmark.next64</code> on one machine.  They are
+ * only meant for ranking; run the benchmarks for real numbers.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class StandardProviders {
+
+    private StandardProviders() {
+    }
+
+    public static final class LinearSunJDKProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "LinearSunJDK", 48, 48, 32,
+            GeneratorInfo.SKIPPABLE | GeneratorInfo.SPLITTABLE, 3.7);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new LinearSunJDK(seed);
+        }
+    }
+
+    /**
+     * Seeded with all 64 bits, using the array initializer
+     */
+    public static final class MersenneTwisterProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "MersenneTwister", 19968, 19937, 32,
+            GeneratorInfo.JUMPABLE | GeneratorInfo.SPLITTABLE, 8.7);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new MersenneTwister(new int[] { (int) seed, (int) (seed >>> 32) });
+        }
+    }
+
+    public static final class MersenneTwister64Provider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "MersenneTwister64", 19968, 19937, 64,
+            GeneratorInfo.JUMPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 4.2);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new MersenneTwister64(seed);
+        }
+    }
+
+    /**
+     * The seed is expanded to all 192 cells with SplitMix64
+     */
+    public static final class Rule30Cells192Provider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Rule30Cells192", 192, 0, 1,
+            GeneratorInfo.BULK, 127);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            final SplitMix64 sm = new SplitMix64(seed);
+            return new Rule30Cells192(sm.next64(), sm.next64(), sm.next64());
+        }
+    }
+
+    /**
+     * 256 cells with 8 taps
+     */
+    public static final class Rule30CellsProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Rule30Cells", 256, 0, 8,
+            GeneratorInfo.BULK, 196);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Rule30Cells(256, 8, seed);
+        }
+    }
+
+    public static final class BaileyCrandallProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "BaileyCrandall", 53, 51, 32,
+            GeneratorInfo.SKIPPABLE | GeneratorInfo.SPLITTABLE, 95);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new BaileyCrandall(seed);
+        }
+    }
+
+    /**
+     * 512-bit modulus.
+     *
+     * <p>
+     * The modulus is made once, the first time it is needed, with
+     * <code>SecureRandom</code>.  The seed sets the starting state, so
+     * the output for a seed is only the same within one run.
+     * </p>
+     */
+    public static final class BlumBlumShubProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "BlumBlumShub", 512, 0, 1,
+            GeneratorInfo.CRYPTO, 140000);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return ThreadLocalGenerators.blumBlumShub(Modulus.N).create(seed, 0L);
+        }
+    }
+
+    /**
+     * The state is the 64-bit key and the 64-bit block counter
+     */
+    public static final class Philox4x32Provider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Philox4x32", 128, 66, 32,
+            GeneratorInfo.SKIPPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 15);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Philox4x32(seed);
+        }
+    }
+
+    /**
+     * The state is the 128-bit key and the 64-bit block counter
+     */
+    public static final class Threefry2x64Provider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Threefry2x64", 192, 65, 64,
+            GeneratorInfo.SKIPPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 12);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Threefry2x64(seed);
+        }
+    }
+
+    /**
+     * The state is the counter and the gamma
+     */
+    public static final class SplitMix64Provider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "SplitMix64", 128, 64, 64,
+            GeneratorInfo.SKIPPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 2.5);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new SplitMix64(seed);
+        }
+    }
+
+    public static final class Xoshiro256StarStarProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Xoshiro256StarStar", 256, 256, 64,
+            GeneratorInfo.JUMPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 2.8);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Xoshiro256StarStar(seed);
+        }
+    }
+
+    public static final class Xoshiro256PlusPlusProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Xoshiro256PlusPlus", 256, 256, 64,
+            GeneratorInfo.JUMPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 2.8);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Xoshiro256PlusPlus(seed);
+        }
+    }
+
+    public static final class Xoroshiro128PlusPlusProvider implements GeneratorProvider {
+        private static final GeneratorInfo INFO = new GeneratorInfo(
+            "Xoroshiro128PlusPlus", 128, 128, 64,
+            GeneratorInfo.JUMPABLE | GeneratorInfo.SPLITTABLE
+                | GeneratorInfo.BULK, 2.0);
+
+        public GeneratorInfo getInfo() {
+            return INFO;
+        }
+
+        public RandomGenerator create(final long seed) {
+            return new Xoroshiro128PlusPlus(seed);
+        }
+    }
+
+    /**
+     * Holder for the Blum-Blum-Shub modulus, made on first use.
+     */
+    private static final class Modulus {
+        static final BigInteger N = BlumBlumShub.generateN(512, new SecureRandom());
+    }
+}
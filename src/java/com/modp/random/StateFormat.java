@@ -0,0 +1,105 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The record header for {@link StatefulGenerator}, and the algorithm
+ * ids.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+final class StateFormat {
+
+    /** Bytes in the header: id and version */
+    static final int HEADER = 3;
+
+    static final int LINEAR_SUN_JDK = 1;
+    static final int MERSENNE_TWISTER = 2;
+    static final int MERSENNE_TWISTER_64 = 3;
+    static final int RULE30_CELLS_192 = 4;
+    static final int RULE30_CELLS = 5;
+    static final int BAILEY_CRANDALL = 6;
+    static final int BLUM_BLUM_SHUB = 7;
+    static final int PHILOX_4X32 = 8;
+    static final int THREEFRY_2X64 = 9;
+    static final int SPLIT_MIX_64 = 10;
+    static final int XOSHIRO_256_STAR_STAR = 11;
+    static final int XOSHIRO_256_PLUS_PLUS = 12;
+    static final int XOROSHIRO_128_PLUS_PLUS = 13;
+    static final int CONCURRENT_LINEAR_SUN_JDK = 14;
+
+    private StateFormat() {
+    }
+
+    /**
+     * Write the header.
+     */
+    static void write(final ByteBuffer buf, final int id, final int version) {
+        buf.putShort((short) id);
+        buf.put((byte) version);
+    }
+
+    /**
+     * Read and check the header, and check there are enough bytes left.
+     *
+     * @param buf the record
+     * @param id the algorithm id that must match
+     * @param version the only version understood
+     * @param size the number of bytes after the header
+     * @throws IllegalArgumentException if anything doesn't match
+     */
+    static void read(final ByteBuffer buf, final int id, final int version, final int size) {
+        if (buf.remaining() < HEADER) {
+            throw new IllegalArgumentException("State record too short");
+        }
+        final int i = buf.getShort(buf.position());
+        final int v = buf.get(buf.position() + 2);
+        if (i != id) {
+            throw new IllegalArgumentException("State record is for algorithm " + i
+                                               + ", not " + id);
+        }
+        if (v != version) {
+            throw new IllegalArgumentException("Unsupported state version " + v);
+        }
+        if (buf.remaining() < HEADER + size) {
+            throw new IllegalArgumentException("State record too short");
+        }
+        buf.position(buf.position() + HEADER);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A generator whose state can be saved, restored and copied.
+ *
+ * <p>
+ * The saved form is a compact binary record: a two byte algorithm id,
+ * a one byte format version, then the raw state.  Values are written in
+ * the buffer's byte order, so restore with the same order (the
+ * <code>ByteBuffer</code> default is big-endian).  A record for another
+ * algorithm, version or byte order is rejected by the header check.
+ * </p>
+ *
+ * <p>
+ * Restoring copies the saved state back directly, so it costs about the
+ * same as saving, and never runs the seeding code.
+ * </p>
+ *
+ * <pre>
+ * ByteBuffer buf = ByteBuffer.allocate(gen.stateSize());
+ * gen.saveState(buf);
+ * ...
+ * buf.flip();
+ * gen.restoreState(buf);
+ * </pre>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public interface StatefulGenerator extends RandomGenerator {
+
+    /**
+     * @return the number of bytes <code>saveState</code> writes
+     */
+    public int stateSize();
+
+    /**
+     * Write the state at the buffer's position.
+     *
+     * @param buf where to write
+     * @throws java.nio.BufferOverflowException if there isn't
+     *   <code>stateSize()</code> bytes left
+     */
+    public void saveState(ByteBuffer buf);
+
+    /**
+     * Read a state written by <code>saveState</code>, from the buffer's
+     * position.
+     *
+     * <p>
+     * If the record is rejected, this generator is unchanged.
+     * </p>
+     *
+     * @param buf where to read
+     * @throws IllegalArgumentException if the record is for another
+     *   algorithm or version, is too short, or isn't a valid state
+     */
+    public void restoreState(ByteBuffer buf);
+
+    /**
+     * @return a new generator with the same state, which makes the
+     *   same sequence from here on
+     */
+    public StatefulGenerator copy();
+
+}
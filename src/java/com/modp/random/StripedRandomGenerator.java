@@ -0,0 +1,193 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * A thread-safe generator made from several independent generators.
+ *
+ * <p>
+ * Each "stripe" is a generator with its own lock, padded onto its own
+ * cache line.  A thread uses the stripe picked by its probe, a per-thread
+ * hash.  If that stripe is busy the thread doesn't wait.  It moves its
+ * probe to another stripe and tries again, so threads that collide
+ * spread themselves out, the same way <code>LongAdder</code> does.
+ * </p>
+ *
+ * <p>
+ * Since this is a {@link RandomGenerator}, code that shares one generator
+ * between threads can use this by changing the constructor call:
+ * </p>
+ * <pre>
+ * RandomGenerator r = new StripedRandomGenerator(ThreadLocalGenerators.MERSENNE_TWISTER_64, seed);
+ * </pre>
+ *
+ * <p>
+ * Each stripe is a separate stream from the factory, so the output is
+ * a mix of several good streams.  Which stripe a value comes from depends
+ * on scheduling, so the output is <b>not</b> reproducible with more than
+ * one thread.  If you need that, use {@link ThreadLocalGenerators}.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class StripedRandomGenerator implements RandomGenerator {
+
+    /**
+     * The generator, after the padded lock.
+     */
+    private abstract static class StripeGenerator extends PaddedAtomicLong {
+        final RandomGenerator generator;
+
+        StripeGenerator(final RandomGenerator generator) {
+            super(0L);
+            this.generator = generator;
+        }
+    }
+
+    /**
+     * A generator and its lock (the padded value, 0 = free).
+     *
+     * <p>
+     * The lock has 56 bytes of padding on each side, and the generator
+     * reference, read on every call, has 56 bytes after it, in a
+     * subclass so the JVM can't move it.  So the lock and reference are
+     * on lines of their own, and a stripe is over 128 bytes.  Each
+     * generator is allocated just before its stripe, which keeps one
+     * stripe between neighbouring generators' state.
+     * </p>
+     */
+    private static final class Stripe extends StripeGenerator {
+        long p21, p22, p23, p24, p25, p26, p27;
+
+        Stripe(final RandomGenerator generator) {
+            super(generator);
+        }
+
+        boolean tryLock() {
+            return get() == 0L && compareAndSet(0L, 1L);
+        }
+
+        void unlock() {
+            lazySet(0L);
+        }
+    }
+
+    /**
+     * Per-thread probe, shared by all instances.  Never 0.
+     */
+    private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            int h = (int) SplitMix64.mix64(Thread.currentThread().getId());
+            return new int[] { (h == 0) ? 1 : h };
+        }
+    };
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    /**
+     * Constructor, using twice the number of processors, rounded up to a
+     * power of two, stripes.
+     *
+     * @param factory makes the stripe generators, stream 0, 1, ...
+     * @param seed root seed for the factory
+     */
+    public StripedRandomGenerator(final ThreadLocalGenerators.StreamFactory<?> factory,
+                                  final long seed) {
+        this(factory, seed, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory makes the stripe generators, stream 0, 1, ...
+     * @param seed root seed for the factory
+     * @param stripes number of stripes, rounded up to a power of two
+     */
+    public StripedRandomGenerator(final ThreadLocalGenerators.StreamFactory<?> factory,
+                                  final long seed, final int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        int n = 1;
+        while (n < stripes) {
+            n <<= 1;
+        }
+        this.stripes = new Stripe[n];
+        this.mask = n - 1;
+        for (int i = 0; i < n; ++i) {
+            this.stripes[i] = new Stripe(factory.create(seed, i));
+        }
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /*
+     * @see com.modp.random.RandomGenerator#next(int)
+     */
+    public long next(final int numBits) {
+        final int[] probe = PROBE.get();
+        int h = probe[0];
+        int misses = 0;
+        while (true) {
+            final Stripe s = stripes[h & mask];
+            if (s.tryLock()) {
+                try {
+                    return s.generator.next(numBits);
+                } finally {
+                    s.unlock();
+                }
+            }
+            // busy, move this thread somewhere else (xorshift)
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            probe[0] = h;
+            if (++misses > stripes.length) {
+                // every stripe seems busy, let someone finish
+                Thread.yield();
+                misses = 0;
+            }
+        }
+    }
+}
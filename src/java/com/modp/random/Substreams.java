@@ -0,0 +1,144 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * Non-overlapping streams from one generator, one per thread, chunk or
+ * file.
+ *
+ * <p>
+ * A {@link JumpableGenerator} gives the best streams: stream <i>i</i>
+ * is a copy moved ahead <i>i</i> jumps, so none can overlap until one
+ * uses more than the jump distance.  Otherwise a
+ * {@link SplittableGenerator} is split as a balanced tree, so no
+ * stream's history has more than log<sub>2</sub> <i>count</i> splits.
+ * Calling <code>split()</code> on the root over and over makes a
+ * history as long as the number of streams, which runs out of splits
+ * for generators that only allow a few (<code>LinearSunJDK</code>
+ * allows 20), and for generators that split by jumping makes ever
+ * longer jumps.
+ * </p>
+ *
+ * <p>
+ * Either way the streams depend only on the generator and the count.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public final class Substreams {
+
+    private Substreams() {
+    }
+
+    /**
+     * Make streams from a generator, by jumps if it can, by splitting
+     * if not.
+     *
+     * @param rng not changed if it jumps, split otherwise
+     * @param count number of streams, 1 or more
+     * @return the streams
+     * @throws IllegalArgumentException if the generator can neither
+     *  jump nor split
+     * @throws IllegalStateException if the generator can't split that
+     *  many times
+     */
+    public static RandomGenerator[] create(final RandomGenerator rng, final int count) {
+        if (rng instanceof JumpableGenerator) {
+            return jumps((JumpableGenerator) rng, count);
+        }
+        if (rng instanceof SplittableGenerator) {
+            return split((SplittableGenerator) rng, count);
+        }
+        throw new IllegalArgumentException("generator must be jumpable or splittable: "
+                                           + rng.getClass().getName());
+    }
+
+    /**
+     * Split a generator into <code>count</code> streams, as a balanced
+     * tree.  The generator itself is the first stream.
+     *
+     * @throws IllegalStateException if the generator can't split that
+     *  many times
+     */
+    public static RandomGenerator[] split(final SplittableGenerator rng, final int count) {
+        checkCount(count);
+        final RandomGenerator[] gens = new RandomGenerator[count];
+        split(rng, gens, 0, count);
+        return gens;
+    }
+
+    private static void split(final SplittableGenerator rng, final RandomGenerator[] gens,
+                              final int from, final int to) {
+        if (to - from == 1) {
+            gens[from] = rng;
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        final SplittableGenerator child = rng.split();
+        split(rng, gens, from, mid);
+        split(child, gens, mid, to);
+    }
+
+    /**
+     * Copies of a generator, each one jump ahead of the one before.
+     * The generator itself is not changed, and the first stream is a
+     * copy of it.
+     */
+    public static RandomGenerator[] jumps(final JumpableGenerator rng, final int count) {
+        checkCount(count);
+        return jumpAhead((JumpableGenerator) rng.copy(), count);
+    }
+
+    /**
+     * Copies of a generator, each one jump ahead of the one before,
+     * leaving the generator one jump past the last copy.
+     */
+    static RandomGenerator[] jumpAhead(final JumpableGenerator cur, final int count) {
+        final RandomGenerator[] gens = new RandomGenerator[count];
+        for (int i = 0; i < count; ++i) {
+            gens[i] = cur.copy();
+            cur.jump();
+        }
+        return gens;
+    }
+
+    private static void checkCount(final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+    }
+}
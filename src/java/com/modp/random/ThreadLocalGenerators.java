@@ -0,0 +1,430 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives each thread its own generator, each with an independent stream.
+ *
+ * <p>
+ * None of the generators are synchronized, so sharing one between threads
+ * is wrong, and locking around one is slow.  This hands each thread
+ * (platform or virtual) its own instance, created the first time the
+ * thread calls {@link #get()}.
+ * </p>
+ *
+ * <p>
+ * Each instance is stream number <i>i</i> of a root seed, where the
+ * stream is made by a {@link StreamFactory}.  Streams are reproducible
+ * and never depend on the clock.  The factories here make them in one
+ * of two ways:
+ * </p>
+ * <ul>
+ * <li><b>Jumped</b> (Mersenne Twister, xoshiro, xoroshiro): every
+ * stream starts from the same root state, seeded from the root seed,
+ * and stream <i>i</i> is that state moved ahead <i>i</i> jumps.  The
+ * streams are guaranteed disjoint as long as each uses less than the
+ * jump distance (2<sup>64</sup> or more outputs).</li>
+ * <li><b>Seeded</b> (everything else): the seed for stream <i>i</i> is
+ * the SplitMix64 mix of (root seed, <i>i</i>), see
+ * {@link #streamSeed}.  The streams start at unrelated points, so they
+ * are <i>probably</i> disjoint, but nothing guarantees it.  For a short
+ * period this matters: <i>k</i> streams of <i>n</i> outputs from a
+ * period of <i>P</i> overlap somewhere with probability about
+ * <i>k</i><sup>2</sup><i>n</i> / <i>P</i>, which for
+ * <code>LinearSunJDK</code> (<i>P</i> = 2<sup>48</sup>) is a real risk
+ * with a few hundred streams of a billion outputs each.
+ * <code>BaileyCrandall</code> streams are likewise only probably
+ * disjoint.  Philox and Threefry streams each have their own key,
+ * which makes each one a different sequence rather than a different
+ * part of the same one.</li>
+ * </ul>
+ *
+ * <p>
+ * By default a thread gets the next unused index
+ * the first time it asks, which depends on the order threads start.
+ * For results that are reproducible by thread, have each worker call
+ * {@link #bind(long)} with its own index first.
+ * </p>
+ *
+ * <pre>
+ * ThreadLocalGenerators&lt;MersenneTwister&gt; tlg =
+ *     new ThreadLocalGenerators&lt;MersenneTwister&gt;(ThreadLocalGenerators.MERSENNE_TWISTER, 42L);
+ * ...
+ * long bits = tlg.get().next(32);
+ * </pre>
+ *
+ * <p>
+ * Note: each instance holds a <code>ThreadLocal</code>, so create one per
+ * use, not one per task.  With very many virtual threads, each will also
+ * get its own generator, so a small one is a better choice than
+ * <code>MersenneTwister</code> (2.5 KB).
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ThreadLocalGenerators<T extends RandomGenerator> {
+
+    /**
+     * Makes the independent streams of a generator.
+     */
+    public interface StreamFactory<T extends RandomGenerator> {
+        /**
+         * Create stream <code>index</code> of <code>seed</code>.
+         *
+         * The same arguments must always give the same stream.
+         *
+         * @param seed root seed
+         * @param index stream number, 0 or more
+         * @return a new generator
+         */
+        T create(long seed, long index);
+    }
+
+    /**
+     * Seeded, so streams are only probably disjoint; see above
+     */
+    public static final StreamFactory<LinearSunJDK> LINEAR_SUN_JDK =
+        new StreamFactory<LinearSunJDK>() {
+            public LinearSunJDK create(long seed, long index) {
+                return new LinearSunJDK(streamSeed(seed, index, 0));
+            }
+        };
+
+    /**
+     * Jumped, 2<sup>128</sup> outputs apart.  The root is seeded with
+     * 128 bits using the array initializer.  Stream <i>i</i> takes one
+     * jump (a few milliseconds) per set bit of <i>i</i>.
+     */
+    public static final StreamFactory<MersenneTwister> MERSENNE_TWISTER =
+        new StreamFactory<MersenneTwister>() {
+            public MersenneTwister create(long seed, long index) {
+                checkIndex(index);
+                long a = streamSeed(seed, 0L, 0);
+                long b = streamSeed(seed, 0L, 1);
+                MersenneTwister r = new MersenneTwister(new int[] {
+                    (int) a, (int) (a >>> 32), (int) b, (int) (b >>> 32) });
+                for (int k = 0; index != 0; ++k, index >>>= 1) {
+                    if ((index & 1) != 0) {
+                        r.jumpPow2(JUMP_LOG2 + k);
+                    }
+                }
+                return r;
+            }
+        };
+
+    /**
+     * Jumped, 2<sup>128</sup> outputs apart.  The root is seeded with
+     * 128 bits using the array initializer.  Stream <i>i</i> takes one
+     * jump (a few milliseconds) per set bit of <i>i</i>.
+     */
+    public static final StreamFactory<MersenneTwister64> MERSENNE_TWISTER_64 =
+        new StreamFactory<MersenneTwister64>() {
+            public MersenneTwister64 create(long seed, long index) {
+                checkIndex(index);
+                MersenneTwister64 r = new MersenneTwister64(new long[] {
+                    streamSeed(seed, 0L, 0), streamSeed(seed, 0L, 1) });
+                for (int k = 0; index != 0; ++k, index >>>= 1) {
+                    if ((index & 1) != 0) {
+                        r.jumpPow2(JUMP_LOG2 + k);
+                    }
+                }
+                return r;
+            }
+        };
+
+    public static final StreamFactory<Rule30Cells192> RULE30_CELLS_192 =
+        new StreamFactory<Rule30Cells192>() {
+            public Rule30Cells192 create(long seed, long index) {
+                return new Rule30Cells192(streamSeed(seed, index, 0),
+                                          streamSeed(seed, index, 1),
+                                          streamSeed(seed, index, 2));
+            }
+        };
+
+    /**
+     * Seeded, so streams are only probably disjoint; see above
+     */
+    public static final StreamFactory<BaileyCrandall> BAILEY_CRANDALL =
+        new StreamFactory<BaileyCrandall>() {
+            public BaileyCrandall create(long seed, long index) {
+                return new BaileyCrandall(streamSeed(seed, index, 0));
+            }
+        };
+
+    /**
+     * Each stream has its own key
+     */
+    public static final StreamFactory<Philox4x32> PHILOX_4X32 =
+        new StreamFactory<Philox4x32>() {
+            public Philox4x32 create(long seed, long index) {
+                return new Philox4x32(streamSeed(seed, index, 0));
+            }
+        };
+
+    /**
+     * Each stream has its own 128-bit key
+     */
+    public static final StreamFactory<Threefry2x64> THREEFRY_2X64 =
+        new StreamFactory<Threefry2x64>() {
+            public Threefry2x64 create(long seed, long index) {
+                return new Threefry2x64(streamSeed(seed, index, 0),
+                                        streamSeed(seed, index, 1));
+            }
+        };
+
+    public static final StreamFactory<SplitMix64> SPLIT_MIX_64 =
+        new StreamFactory<SplitMix64>() {
+            public SplitMix64 create(long seed, long index) {
+                return new SplitMix64(streamSeed(seed, index, 0));
+            }
+        };
+
+    /**
+     * Jumped, 2<sup>128</sup> outputs apart.  The root is seeded with
+     * the full 256-bit state.  Stream <i>i</i> takes one power-of-two
+     * jump (a few microseconds) per set bit of <i>i</i>.
+     */
+    public static final StreamFactory<Xoshiro256StarStar> XOSHIRO_256_STAR_STAR =
+        new StreamFactory<Xoshiro256StarStar>() {
+            public Xoshiro256StarStar create(long seed, long index) {
+                return jumped(new Xoshiro256StarStar(streamSeed(seed, 0L, 0),
+                                                      streamSeed(seed, 0L, 1),
+                                                      streamSeed(seed, 0L, 2),
+                                                      streamSeed(seed, 0L, 3)), index, 128);
+            }
+        };
+
+    /**
+     * Jumped, 2<sup>128</sup> outputs apart.  The root is seeded with
+     * the full 256-bit state.  Stream <i>i</i> takes one power-of-two
+     * jump (a few microseconds) per set bit of <i>i</i>.
+     */
+    public static final StreamFactory<Xoshiro256PlusPlus> XOSHIRO_256_PLUS_PLUS =
+        new StreamFactory<Xoshiro256PlusPlus>() {
+            public Xoshiro256PlusPlus create(long seed, long index) {
+                return jumped(new Xoshiro256PlusPlus(streamSeed(seed, 0L, 0),
+                                                      streamSeed(seed, 0L, 1),
+                                                      streamSeed(seed, 0L, 2),
+                                                      streamSeed(seed, 0L, 3)), index, 128);
+            }
+        };
+
+    /**
+     * Jumped, 2<sup>64</sup> outputs apart.  The root is seeded with
+     * the full 128-bit state.  Stream <i>i</i> takes one power-of-two
+     * jump (a few microseconds) per set bit of <i>i</i>.
+     */
+    public static final StreamFactory<Xoroshiro128PlusPlus> XOROSHIRO_128_PLUS_PLUS =
+        new StreamFactory<Xoroshiro128PlusPlus>() {
+            public Xoroshiro128PlusPlus create(long seed, long index) {
+                return jumped(new Xoroshiro128PlusPlus(streamSeed(seed, 0L, 0),
+                                                       streamSeed(seed, 0L, 1)), index, 64);
+            }
+        };
+
+    /**
+     * log<sub>2</sub> of the Mersenne Twister jump, the same as their
+     * <code>jump()</code>
+     */
+    private static final int JUMP_LOG2 = 128;
+
+    private static void checkIndex(final long index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("negative stream index: " + index);
+        }
+    }
+
+    /**
+     * Move a root generator ahead <code>index</code> jumps of
+     * 2<sup>jumpLog2</sup> steps, one power-of-two jump per set bit.
+     */
+    private static <G extends Xoshiro256> G jumped(final G root, long index,
+                                                   final int jumpLog2) {
+        checkIndex(index);
+        for (int k = 0; index != 0; ++k, index >>>= 1) {
+            if ((index & 1) != 0) {
+                root.jumpPow2(jumpLog2 + k);
+            }
+        }
+        return root;
+    }
+
+    private static Xoroshiro128PlusPlus jumped(final Xoroshiro128PlusPlus root, long index,
+                                              final int jumpLog2) {
+        checkIndex(index);
+        for (int k = 0; index != 0; ++k, index >>>= 1) {
+            if ((index & 1) != 0) {
+                root.jumpPow2(jumpLog2 + k);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Blum-Blum-Shub streams share a modulus.
+     *
+     * @param n the modulus, see {@link BlumBlumShub#generateN}
+     * @return a factory for Blum-Blum-Shub streams
+     */
+    public static StreamFactory<BlumBlumShub> blumBlumShub(final BigInteger n) {
+        return new StreamFactory<BlumBlumShub>() {
+            public BlumBlumShub create(long seed, long index) {
+                byte[] b = new byte[(n.bitLength() + 7) / 8];
+                for (int i = 0; i < b.length; i += 8) {
+                    long x = streamSeed(seed, index, i / 8);
+                    for (int j = i; j < b.length && j < i + 8; ++j) {
+                        b[j] = (byte) x;
+                        x >>>= 8;
+                    }
+                }
+                return new BlumBlumShub(n, b);
+            }
+        };
+    }
+
+    /**
+     * Word <code>k</code> of the seed for stream <code>index</code>.
+     *
+     * <p>
+     * This is a counter-based hash of (seed, index, k): distinct
+     * inputs give unrelated outputs, and nothing depends on any
+     * other stream.
+     * </p>
+     */
+    public static long streamSeed(final long seed, final long index, final int k) {
+        final long g = SplitMix64.GOLDEN_GAMMA;
+        return SplitMix64.mix64(SplitMix64.mix64(seed ^ SplitMix64.mix64(index + g))
+                                + (k + 1) * g);
+    }
+
+    private final StreamFactory<T> factory;
+
+    private final long seed;
+
+    private final AtomicLong nextIndex = new AtomicLong();
+
+    private final ThreadLocal<Entry<T>> local = new ThreadLocal<Entry<T>>();
+
+    /**
+     * A thread's generator and its stream number.
+     */
+    private static final class Entry<T> {
+        final T generator;
+        final long index;
+
+        Entry(T generator, long index) {
+            this.generator = generator;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory makes the streams
+     * @param seed root seed, shared by all threads
+     */
+    public ThreadLocalGenerators(final StreamFactory<T> factory, final long seed) {
+        this.factory = factory;
+        this.seed = seed;
+    }
+
+    /**
+     * Get the current thread's generator, creating it if needed.
+     *
+     * <p>The result must not be passed to other threads.</p>
+     */
+    public T get() {
+        Entry<T> e = local.get();
+        if (e == null) {
+            e = create(nextIndex.getAndIncrement());
+        }
+        return e.generator;
+    }
+
+    /**
+     * Give the current thread a new generator for a specific stream.
+     *
+     * <p>
+     * Indexes handed out automatically by {@link #get()} start at 0,
+     * so don't mix the two unless you are sure they won't collide.
+     * </p>
+     *
+     * @param index stream number
+     * @return the new generator, also returned by <code>get()</code>
+     */
+    public T bind(final long index) {
+        return create(index).generator;
+    }
+
+    /**
+     * Get the stream number of the current thread's generator.
+     *
+     * @return the index, or -1 if this thread doesn't have one yet
+     */
+    public long currentIndex() {
+        Entry<T> e = local.get();
+        return (e == null) ? -1L : e.index;
+    }
+
+    /**
+     * Create a new generator for a stream, without binding it to a
+     * thread.
+     *
+     * @param index stream number
+     * @return a new generator
+     */
+    public T stream(final long index) {
+        return factory.create(seed, index);
+    }
+
+    /**
+     * Drop the current thread's generator.
+     */
+    public void remove() {
+        local.remove();
+    }
+
+    private Entry<T> create(final long index) {
+        Entry<T> e = new Entry<T>(factory.create(seed, index), index);
+        local.set(e);
+        return e;
+    }
+}
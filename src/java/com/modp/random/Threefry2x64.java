@@ -0,0 +1,291 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The Threefry-2x64 counter-based random number generator, with the
+ * standard 20 rounds.
+ *
+ * <p>
+ * Threefry is the Threefish block cipher (from the Skein hash) cut down
+ * to two 64-bit words, without the tweak.  It encrypts the counters
+ * 0, 1, 2, ... under a 128-bit key, so output <i>i</i> is a pure
+ * function of the key and <i>i</i>.  It uses only adds, rotates and
+ * xors, and gives two 64-bit words per block.
+ * </p>
+ *
+ * <p>
+ * <code>next64()</code> returns one word of the stream.
+ * <code>next(numBits)</code> returns the top bits of one word, so it
+ * also uses a whole word.  The block counter is the first counter word;
+ * the second is zero.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>Salmon, Moraes, Dror and Shaw, <i>Parallel Random Numbers: As Easy
+ * as 1, 2, 3</i>, SC11, 2011</li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Threefry2x64 implements SplittableGenerator, BulkGenerator,
+                                     StatefulGenerator {
+
+    /** Key schedule parity constant from Skein */
+    private static final long PARITY = 0x1BD11BDAA9FC1A22L;
+
+    private long k0;
+    private long k1;
+
+    /**
+     * The next block to compute
+     */
+    private long counter;
+
+    /**
+     * The current block, and how many words of it are used.
+     */
+    private final long[] block = new long[2];
+    private int used = 2;
+
+    /**
+     * Constructor, key set to current time.
+     */
+    public Threefry2x64() {
+        setSeed(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor with a 64-bit seed, used as the first key word.
+     */
+    public Threefry2x64(final long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Constructor with a full 128-bit key.
+     */
+    public Threefry2x64(final long k0, final long k1) {
+        setKey(k0, k1);
+    }
+
+    /**
+     * Set the key to (<code>seed</code>, 0), and go back to the start
+     * of the stream.
+     */
+    public void setSeed(final long seed) {
+        setKey(seed, 0L);
+    }
+
+    /**
+     * Set the 128-bit key, and go back to the start of the stream.
+     */
+    public void setKey(final long k0, final long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+        seek(0L);
+    }
+
+    /**
+     * Move to 64-bit word <code>index</code> of the stream.
+     *
+     * @param index word number, treated as unsigned
+     */
+    public void seek(final long index) {
+        counter = index >>> 1;
+        if ((index & 1L) != 0L) {
+            encrypt(counter++, 0L, k0, k1, block);
+            used = 1;
+        } else {
+            used = 2;
+        }
+    }
+
+    /**
+     * The number of 64-bit words used so far.
+     */
+    public long getPosition() {
+        return (counter << 1) - 2 + used;
+    }
+
+    /**
+     * Returns up to 32 random bits, using one word of the stream.
+     */
+    public long next(final int numBits) {
+        return (int) (next64() >>> (64 - numBits));
+    }
+
+    /**
+     * Returns 64 random bits.
+     */
+    public long next64() {
+        if (used == 2) {
+            encrypt(counter++, 0L, k0, k1, block);
+            used = 0;
+        }
+        return block[used++];
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as calling
+     * {@link #next64()} repeatedly.  Whole blocks are written straight
+     * into the array.
+     */
+    public void nextLongs(final long[] dest, int offset, final int length) {
+        final int end = offset + length;
+        if (used == 1 && offset < end) {
+            dest[offset++] = next64();
+        }
+        final long[] b = block;
+        while (end - offset >= 2) {
+            encrypt(counter++, 0L, k0, k1, b);
+            dest[offset++] = b[0];
+            dest[offset++] = b[1];
+        }
+        if (offset < end) {
+            dest[offset] = next64();
+        }
+    }
+
+    /**
+     * Split by giving the new generator a key mixed from this
+     * generator's output.
+     */
+    public Threefry2x64 split() {
+        final long a = next64();
+        final long b = next64();
+        return new Threefry2x64(SplitMix64.mix64(a),
+                                SplitMix64.mix64(b));
+    }
+
+    /**
+     * Word <code>index</code> of the stream with key
+     * (<code>k0</code>, <code>k1</code>).
+     *
+     * <p>
+     * This is the value <code>next64()</code> returns after
+     * <code>seek(index)</code>.
+     * </p>
+     */
+    public static long at(final long k0, final long k1, final long index) {
+        final long[] out = new long[2];
+        encrypt(index >>> 1, 0L, k0, k1, out);
+        return out[(int) (index & 1L)];
+    }
+
+    /**
+     * Threefry-2x64-20 of one 128-bit counter.
+     *
+     * @param c0 counter word 0
+     * @param c1 counter word 1
+     * @param k0 key word 0
+     * @param k1 key word 1
+     * @param out the two output words
+     */
+    public static void encrypt(final long c0, final long c1,
+                               final long k0, final long k1, final long[] out) {
+        final long k2 = PARITY ^ k0 ^ k1;
+        long x0 = c0 + k0;
+        long x1 = c1 + k1;
+
+        // rotations 16, 42, 12, 31, then 16, 32, 24, 21
+        x0 += x1; x1 = Long.rotateLeft(x1, 16) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 42) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 12) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 31) ^ x0;
+        x0 += k1; x1 += k2 + 1;
+
+        x0 += x1; x1 = Long.rotateLeft(x1, 16) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 32) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 24) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 21) ^ x0;
+        x0 += k2; x1 += k0 + 2;
+
+        x0 += x1; x1 = Long.rotateLeft(x1, 16) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 42) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 12) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 31) ^ x0;
+        x0 += k0; x1 += k1 + 3;
+
+        x0 += x1; x1 = Long.rotateLeft(x1, 16) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 32) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 24) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 21) ^ x0;
+        x0 += k1; x1 += k2 + 4;
+
+        x0 += x1; x1 = Long.rotateLeft(x1, 16) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 42) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 12) ^ x0;
+        x0 += x1; x1 = Long.rotateLeft(x1, 31) ^ x0;
+        x0 += k2; x1 += k0 + 5;
+
+        out[0] = x0;
+        out[1] = x1;
+    }
+
+    /**
+     * State record: the key and the position in 64-bit words.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 24;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.THREEFRY_2X64, 1);
+        buf.putLong(k0);
+        buf.putLong(k1);
+        buf.putLong(getPosition());
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.THREEFRY_2X64, 1, 24);
+        k0 = buf.getLong();
+        k1 = buf.getLong();
+        seek(buf.getLong());
+    }
+
+    public Threefry2x64 copy() {
+        Threefry2x64 r = new Threefry2x64(k0, k1);
+        r.seek(getPosition());
+        return r;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * Draws indices with probability proportional to changeable weights.
+ *
+ * <p>
+ * The weights are the leaves of an implicit binary sum tree in one
+ * <code>double[]</code>: node <i>p</i> holds the total of its children
+ * 2<i>p</i> and 2<i>p</i> + 1.  A draw picks a uniform <i>u</i> below
+ * the total and walks down from the root, and a weight change
+ * recomputes the sums on the way back up, so both are O(log <i>n</i>).
+ * An alias table draws in O(1), but has to be rebuilt when any weight
+ * changes.
+ * </p>
+ *
+ * <p>
+ * This is the same shape as a Fenwick tree, but each update recomputes
+ * sums from the children instead of adding a difference, so rounding
+ * errors don't build up over millions of updates, and a removed item's
+ * weight really is zero.
+ * </p>
+ *
+ * <p>
+ * Nothing is allocated after construction.  Not thread-safe.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class WeightedSampler {
+
+    /** Number of items */
+    private final int n;
+
+    /** First leaf, a power of two */
+    private final int leaves;
+
+    /** tree[1] is the total, leaf i is tree[leaves + i] */
+    private final double[] tree;
+
+    /**
+     * Constructor, with all weights zero.
+     *
+     * @param n number of items
+     */
+    public WeightedSampler(final int n) {
+        if (n <= 0 || n > (1 << 29)) {
+            throw new IllegalArgumentException("n must be in [1, 2^29]: " + n);
+        }
+        int m = 1;
+        while (m < n) {
+            m <<= 1;
+        }
+        this.n = n;
+        this.leaves = m;
+        this.tree = new double[2 * m];
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param weights initial weights, finite and not negative
+     */
+    public WeightedSampler(final double[] weights) {
+        this(weights.length);
+        for (int i = 0; i < n; ++i) {
+            check(weights[i]);
+            tree[leaves + i] = weights[i];
+        }
+        for (int p = leaves - 1; p > 0; --p) {
+            tree[p] = tree[2 * p] + tree[2 * p + 1];
+        }
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return the sum of the weights
+     */
+    public double getTotal() {
+        return tree[1];
+    }
+
+    /**
+     * @param i item
+     * @return the weight of item <code>i</code>
+     */
+    public double get(final int i) {
+        checkIndex(i);
+        return tree[leaves + i];
+    }
+
+    /**
+     * Change a weight.
+     *
+     * @param i item
+     * @param weight new weight, finite and not negative
+     */
+    public void set(final int i, final double weight) {
+        checkIndex(i);
+        check(weight);
+        update(leaves + i, weight);
+    }
+
+    /**
+     * Remove an item, by setting its weight to zero.
+     *
+     * @param i item
+     */
+    public void remove(final int i) {
+        set(i, 0.0);
+    }
+
+    /**
+     * Draw an item.
+     *
+     * @param rng source of randomness
+     * @return an item, with probability its weight over the total
+     * @throws IllegalStateException if all the weights are zero
+     */
+    public int next(final RandomGenerator rng) {
+        final double total = tree[1];
+        if (!(total > 0.0)) {
+            throw new IllegalStateException("All weights are zero");
+        }
+        return find(uniform(rng) * total);
+    }
+
+    /**
+     * Draw an item, and remove it.
+     *
+     * @param rng source of randomness
+     * @return the item
+     * @throws IllegalStateException if all the weights are zero
+     */
+    public int nextAndRemove(final RandomGenerator rng) {
+        final int i = next(rng);
+        update(leaves + i, 0.0);
+        return i;
+    }
+
+    /**
+     * Draw items with replacement.
+     *
+     * @param rng source of randomness
+     * @param dest where to put the items
+     * @param offset first index to write
+     * @param length number of items to draw
+     * @throws IllegalStateException if all the weights are zero
+     */
+    public void next(final RandomGenerator rng, final int[] dest,
+                     final int offset, final int length) {
+        for (int j = offset; j < offset + length; ++j) {
+            dest[j] = next(rng);
+        }
+    }
+
+    /**
+     * Draw <code>k</code> different items, without replacement, leaving
+     * the weights as they were.
+     *
+     * <p>
+     * Each item is drawn from the ones left, in proportion to their
+     * weights, the same as calling {@link #nextAndRemove} <code>k</code>
+     * times.  The drawn items' weights are put back at the end, using
+     * <code>weights</code> as scratch.
+     * </p>
+     *
+     * @param rng source of randomness
+     * @param dest where to put the items, in the order drawn
+     * @param weights scratch space for the drawn items' weights, at
+     *   least <code>k</code> long
+     * @param k number of items
+     * @throws IllegalStateException if fewer than <code>k</code> items
+     *   have a non-zero weight
+     */
+    public void sample(final RandomGenerator rng, final int[] dest,
+                       final double[] weights, final int k) {
+        if (k > dest.length || k > weights.length) {
+            throw new IndexOutOfBoundsException("k is " + k + " but the arrays are "
+                                                + dest.length + " and " + weights.length);
+        }
+        int drawn = 0;
+        try {
+            for (; drawn < k; ++drawn) {
+                final int i = next(rng);
+                dest[drawn] = i;
+                weights[drawn] = tree[leaves + i];
+                update(leaves + i, 0.0);
+            }
+        } finally {
+            // every sum is recomputed from its children, so the tree
+            // ends up exactly as before
+            while (drawn > 0) {
+                --drawn;
+                update(leaves + dest[drawn], weights[drawn]);
+            }
+        }
+    }
+
+    /**
+     * Find the leaf where the running total passes <code>u</code>.
+     */
+    private int find(double u) {
+        int p = 1;
+        while (p < leaves) {
+            final double left = tree[2 * p];
+            // rounding can leave u just past the last non-zero leaf,
+            // so never go into an empty subtree
+            if ((u < left || tree[2 * p + 1] == 0.0) && left > 0.0) {
+                p = 2 * p;
+            } else {
+                u -= left;
+                p = 2 * p + 1;
+            }
+        }
+        return p - leaves;
+    }
+
+    /**
+     * Set a leaf, and recompute the sums above it.
+     */
+    private void update(int p, final double weight) {
+        tree[p] = weight;
+        p >>>= 1;
+        while (p > 0) {
+            tree[p] = tree[2 * p] + tree[2 * p + 1];
+            p >>>= 1;
+        }
+    }
+
+    private static double uniform(final RandomGenerator rng) {
+        return (rng instanceof BulkGenerator)
+            ? RandomStreams.toDouble(((BulkGenerator) rng).next64())
+            : RandomStreams.nextDouble(rng);
+    }
+
+    private void checkIndex(final int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + n);
+        }
+    }
+
+    private static void check(final double weight) {
+        if (!(weight >= 0.0 && weight < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("weight must be finite and not negative: "
+                                               + weight);
+        }
+    }
+}
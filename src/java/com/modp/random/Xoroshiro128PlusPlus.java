@@ -0,0 +1,272 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The xoroshiro128++ random number generator.
+ *
+ * <p>
+ * A linear engine over 128 bits of state, with xor, shift and rotate
+ * steps, and a rotate-and-add output scrambler.  It has half the state
+ * of the xoshiro256 generators, which makes it a good choice when there
+ * are very many instances, such as one per task.  The period is
+ * 2<sup>128</sup>-1.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>Blackman and Vigna, <i>Scrambled Linear Pseudorandom Number
+ * Generators</i>, ACM TOMS 47(4), 2021</li>
+ * <li><a href="https://prng.di.unimi.it/xoroshiro128plusplus.c">xoroshiro128plusplus.c</a></li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Xoroshiro128PlusPlus implements SplittableGenerator, BulkGenerator,
+                                             JumpableGenerator {
+
+    /**
+     * Jump polynomial for 2<sup>64</sup> steps
+     */
+    private static final long[] JUMP = {
+        0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L
+    };
+
+    /**
+     * Jump polynomial for 2<sup>96</sup> steps
+     */
+    private static final long[] LONG_JUMP = {
+        0x360fd5f2cf8d5d99L, 0x9c6e6877736c46e3L
+    };
+
+    private long s0;
+    private long s1;
+
+    /**
+     * The characteristic polynomial of the state update, for jumps of
+     * any power of two, found from 256 steps the first time it's used.
+     */
+    private static final class Jump {
+        static final MersenneJump POLY;
+        static {
+            final Xoroshiro128PlusPlus g = new Xoroshiro128PlusPlus(1L);
+            final int n = 2 * 128;
+            final long[] bits = new long[n / 64];
+            for (int i = 0; i < n; ++i) {
+                bits[i >>> 6] |= (g.s0 & 1L) << i;
+                g.next64();
+            }
+            POLY = new MersenneJump(bits, n, 128);
+        }
+    }
+
+    /**
+     * Constructor, seed set to current time.
+     */
+    public Xoroshiro128PlusPlus() {
+        setSeed(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor with a 64-bit seed, expanded with SplitMix64.
+     */
+    public Xoroshiro128PlusPlus(final long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Constructor with the raw 128-bit state, not all zero.
+     */
+    public Xoroshiro128PlusPlus(final long s0, final long s1) {
+        setState(s0, s1);
+    }
+
+    /**
+     * Set the state from a 64-bit seed, using two outputs of
+     * {@link SplitMix64}.
+     */
+    public void setSeed(final long seed) {
+        final SplitMix64 sm = new SplitMix64(seed);
+        s0 = sm.next64();
+        s1 = sm.next64();
+    }
+
+    /**
+     * Set the raw 128-bit state.
+     *
+     * @throws IllegalArgumentException if both words are zero
+     */
+    public void setState(final long s0, final long s1) {
+        if ((s0 | s1) == 0L) {
+            throw new IllegalArgumentException("state must not be all zero");
+        }
+        this.s0 = s0;
+        this.s1 = s1;
+    }
+
+    /**
+     * Get the raw 128-bit state.
+     *
+     * @param dest array of at least 2 words to write the state into
+     */
+    public void getState(final long[] dest) {
+        dest[0] = s0;
+        dest[1] = s1;
+    }
+
+    /**
+     * Returns up to 32 random bits, the top bits of one 64-bit output.
+     */
+    public long next(final int numBits) {
+        return (int) (next64() >>> (64 - numBits));
+    }
+
+    /**
+     * Returns 64 random bits.
+     */
+    public long next64() {
+        final long a = s0;
+        long b = s1;
+        final long result = Long.rotateLeft(a + b, 17) + a;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        s1 = Long.rotateLeft(b, 28);
+        return result;
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as calling
+     * {@link #next64()} repeatedly.  The state is kept in local
+     * variables for the whole fill.
+     */
+    public void nextLongs(final long[] dest, final int offset, final int length) {
+        long a = s0;
+        long b = s1;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            dest[i] = Long.rotateLeft(a + b, 17) + a;
+            b ^= a;
+            a = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+            b = Long.rotateLeft(b, 28);
+        }
+        s0 = a;
+        s1 = b;
+    }
+
+    /**
+     * Jump ahead 2<sup>64</sup> steps.  This gives 2<sup>64</sup>
+     * non-overlapping sequences for parallel use.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+     * Jump ahead 2<sup>96</sup> steps.  This gives 2<sup>32</sup>
+     * starting points, each of which can then be cut up with
+     * {@link #jump()}.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    /**
+     * Split by seeding the new generator from this one's output.
+     */
+    public Xoroshiro128PlusPlus split() {
+        return new Xoroshiro128PlusPlus(next64());
+    }
+
+    /**
+     * Jump ahead 2<sup>k</sup> steps, so 2<sup>64+j</sup> is
+     * 2<sup>j</sup> calls to {@link #jump()}.
+     */
+    void jumpPow2(final int k) {
+        jump(Jump.POLY.xPow2(k));
+    }
+
+    private void jump(final long[] poly) {
+        long t0 = 0L;
+        long t1 = 0L;
+        for (int i = 0; i < poly.length; ++i) {
+            for (int b = 0; b < 64; ++b) {
+                if ((poly[i] & (1L << b)) != 0L) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                }
+                next64();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+    }
+
+    /**
+     * State record: the two words of state.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 16;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, StateFormat.XOROSHIRO_128_PLUS_PLUS, 1);
+        buf.putLong(s0);
+        buf.putLong(s1);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, StateFormat.XOROSHIRO_128_PLUS_PLUS, 1, 16);
+        final int p = buf.position();
+        final long a = buf.getLong(p);
+        final long b = buf.getLong(p + 8);
+        if ((a | b) == 0L) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("state must not be all zero");
+        }
+        s0 = a;
+        s1 = b;
+        buf.position(p + 16);
+    }
+
+    public Xoroshiro128PlusPlus copy() {
+        return new Xoroshiro128PlusPlus(s0, s1);
+    }
+}
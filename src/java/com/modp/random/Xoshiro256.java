@@ -0,0 +1,244 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The state, seeding and jumps shared by the xoshiro256 generators.
+ *
+ * <p>
+ * The generators only differ in how they turn the state into output:
+ * see {@link Xoshiro256StarStar} and {@link Xoshiro256PlusPlus}.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+abstract class Xoshiro256 implements SplittableGenerator, BulkGenerator,
+                                     JumpableGenerator {
+
+    /**
+     * Jump polynomial for 2<sup>128</sup> steps
+     */
+    private static final long[] JUMP = {
+        0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL,
+        0xa9582618e03fc9aaL, 0x39abdc4529b1661cL
+    };
+
+    /**
+     * Jump polynomial for 2<sup>192</sup> steps
+     */
+    private static final long[] LONG_JUMP = {
+        0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L,
+        0x77710069854ee241L, 0x39109bb02acbe635L
+    };
+
+    long s0;
+    long s1;
+    long s2;
+    long s3;
+
+    /**
+     * The characteristic polynomial of the state update, for jumps of
+     * any power of two, found from 512 steps the first time it's used.
+     */
+    private static final class Jump {
+        static final MersenneJump POLY;
+        static {
+            final Xoshiro256StarStar g = new Xoshiro256StarStar(1L);
+            final int n = 2 * 256;
+            final long[] bits = new long[n / 64];
+            for (int i = 0; i < n; ++i) {
+                bits[i >>> 6] |= (g.s0 & 1L) << i;
+                g.next64();
+            }
+            POLY = new MersenneJump(bits, n, 256);
+        }
+    }
+
+    Xoshiro256(final long seed) {
+        setSeed(seed);
+    }
+
+    Xoshiro256(final long s0, final long s1, final long s2, final long s3) {
+        setState(s0, s1, s2, s3);
+    }
+
+    /**
+     * Set the state from a 64-bit seed, using four outputs of
+     * {@link SplitMix64}.
+     */
+    public void setSeed(final long seed) {
+        final SplitMix64 sm = new SplitMix64(seed);
+        s0 = sm.next64();
+        s1 = sm.next64();
+        s2 = sm.next64();
+        s3 = sm.next64();
+    }
+
+    /**
+     * Set the raw 256-bit state.
+     *
+     * @throws IllegalArgumentException if all words are zero
+     */
+    public void setState(final long s0, final long s1, final long s2, final long s3) {
+        if ((s0 | s1 | s2 | s3) == 0L) {
+            throw new IllegalArgumentException("state must not be all zero");
+        }
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Get the raw 256-bit state.
+     *
+     * @param dest array of at least 4 words to write the state into
+     */
+    public void getState(final long[] dest) {
+        dest[0] = s0;
+        dest[1] = s1;
+        dest[2] = s2;
+        dest[3] = s3;
+    }
+
+    /**
+     * Returns up to 32 random bits, the top bits of one 64-bit output.
+     */
+    public long next(final int numBits) {
+        return (int) (next64() >>> (64 - numBits));
+    }
+
+    /**
+     * Jump ahead 2<sup>128</sup> steps.  This gives 2<sup>128</sup>
+     * non-overlapping sequences for parallel use.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+     * Jump ahead 2<sup>192</sup> steps.  This gives 2<sup>64</sup>
+     * starting points, each of which can then be cut up with
+     * {@link #jump()}.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    /**
+     * Jump ahead 2<sup>k</sup> steps, so 2<sup>128+j</sup> is
+     * 2<sup>j</sup> calls to {@link #jump()}.
+     */
+    void jumpPow2(final int k) {
+        jump(Jump.POLY.xPow2(k));
+    }
+
+    private void jump(final long[] poly) {
+        long t0 = 0L;
+        long t1 = 0L;
+        long t2 = 0L;
+        long t3 = 0L;
+        for (int i = 0; i < poly.length; ++i) {
+            for (int b = 0; b < 64; ++b) {
+                if ((poly[i] & (1L << b)) != 0L) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                step();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+    }
+
+    /**
+     * The linear engine, without output
+     */
+    private void step() {
+        final long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+    }
+
+    /**
+     * @return the algorithm id for state records
+     */
+    abstract int stateId();
+
+    /**
+     * State record: the four words of state.
+     */
+    public int stateSize() {
+        return StateFormat.HEADER + 32;
+    }
+
+    public void saveState(final ByteBuffer buf) {
+        StateFormat.write(buf, stateId(), 1);
+        buf.putLong(s0);
+        buf.putLong(s1);
+        buf.putLong(s2);
+        buf.putLong(s3);
+    }
+
+    public void restoreState(final ByteBuffer buf) {
+        StateFormat.read(buf, stateId(), 1, 32);
+        final int p = buf.position();
+        final long a = buf.getLong(p);
+        final long b = buf.getLong(p + 8);
+        final long c = buf.getLong(p + 16);
+        final long d = buf.getLong(p + 24);
+        if ((a | b | c | d) == 0L) {
+            buf.position(p - StateFormat.HEADER);
+            throw new IllegalArgumentException("state must not be all zero");
+        }
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+        buf.position(p + 32);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+/**
+ * The xoshiro256++ random number generator.
+ *
+ * <p>
+ * A linear engine over 256 bits of state, with xor, shift and rotate
+ * steps, and a non-linear output scrambler.  The output is the rotated
+ * sum of the first and last words of the state, plus the first word.
+ * It is about as fast as xoshiro256** and has no multiplies.  The
+ * period is 2<sup>256</sup>-1.
+ * </p>
+ *
+ * <p>
+ * References:
+ * </p>
+ * <ul>
+ * <li>Blackman and Vigna, <i>Scrambled Linear Pseudorandom Number
+ * Generators</i>, ACM TOMS 47(4), 2021</li>
+ * <li><a href="https://prng.di.unimi.it/xoshiro256plusplus.c">xoshiro256plusplus.c</a></li>
+ * </ul>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Xoshiro256PlusPlus extends Xoshiro256 {
+
+    /**
+     * Constructor, seed set to current time.
+     */
+    public Xoshiro256PlusPlus() {
+        super(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor with a 64-bit seed, expanded with SplitMix64.
+     */
+    public Xoshiro256PlusPlus(final long seed) {
+        super(seed);
+    }
+
+    /**
+     * Constructor with the raw 256-bit state, not all zero.
+     */
+    public Xoshiro256PlusPlus(final long s0, final long s1, final long s2, final long s3) {
+        super(s0, s1, s2, s3);
+    }
+
+    /**
+     * Returns 64 random bits.
+     */
+    public long next64() {
+        final long result = Long.rotateLeft(s0 + s3, 23) + s0;
+        final long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Fill an array with random 64-bit values, the same as calling
+     * {@link #next64()} repeatedly.  The state is kept in local
+     * variables for the whole fill.
+     */
+    public void nextLongs(final long[] dest, final int offset, final int length) {
+        long a = s0;
+        long b = s1;
+        long c = s2;
+        long d = s3;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            dest[i] = Long.rotateLeft(a + d, 23) + a;
+            final long t = b << 17;
+            c ^= a;
+            d ^= b;
+            b ^= c;
+            a ^= d;
+            c ^= t;
+            d = Long.rotateLeft(d, 45);
+        }
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+    }
+
+    /**
+     * Split by seeding the new generator from this one's output.
+     */
+    public Xoshiro256PlusPlus split() {
+        return new Xoshiro256PlusPlus(next64());
+    }
+
+    int stateId() {
+        return StateFormat.XOSHIRO_256_PLUS_PLUS;
+    }
+
+    public Xoshiro256PlusPlus copy() {
+        return new Xoshiro256PlusPlus(s0, s1, s2, s3);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.RandomGenerator;
+
+/**
+ * Beta variates, as <i>X</i> / (<i>X</i> + <i>Y</i>) where <i>X</i> and
+ * <i>Y</i> are gamma with shapes <i>a</i> and <i>b</i>.
+ *
+ * <p>
+ * The ratio is worked out from the logs of the gammas, so tiny shapes,
+ * where both gammas can underflow to 0, still work.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BetaDistribution implements ContinuousDistribution {
+
+    private final GammaDistribution ga;
+
+    private final GammaDistribution gb;
+
+    /**
+     * Constructor.
+     *
+     * @param a positive and finite
+     * @param b positive and finite
+     */
+    public BetaDistribution(final double a, final double b) {
+        this.ga = new GammaDistribution(a);
+        this.gb = new GammaDistribution(b);
+    }
+
+    public double sample(final RandomGenerator rng) {
+        final double lx = ga.logSample(rng);
+        final double ly = gb.logSample(rng);
+        // x / (x + y) = 1 / (1 + y / x)
+        return 1.0 / (1.0 + Math.exp(ly - lx));
+    }
+
+    public void fill(final RandomGenerator rng, final double[] dest,
+                     final int offset, final int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            dest[i] = sample(rng);
+        }
+    }
+
+    public double getAlpha() {
+        return ga.getShape();
+    }
+
+    public double getBeta() {
+        return gb.getShape();
+    }
+
+    public double getMean() {
+        final double a = ga.getShape();
+        return a / (a + gb.getShape());
+    }
+
+    public double getVariance() {
+        final double a = ga.getShape();
+        final double b = gb.getShape();
+        final double s = a + b;
+        return a * b / (s * s * (s + 1.0));
+    }
+}
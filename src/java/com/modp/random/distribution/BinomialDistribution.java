@@ -0,0 +1,238 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.RandomGenerator;
+
+/**
+ * Binomial variates: the number of successes in <i>n</i> trials, each
+ * with probability <i>p</i>.
+ *
+ * <p>
+ * When the mode is 11 or more this is H&ouml;rmann's BTRD, transformed
+ * rejection with decomposition, which takes about 2.5 uniforms per
+ * variate whatever <i>n</i> is.  Below that, it's inversion by
+ * sequential search from 0, at most a couple of dozen steps.  For
+ * <i>p</i> &gt; 1/2 this draws failures instead of successes, which
+ * keeps both methods fast.
+ * </p>
+ *
+ * <p>
+ * W. H&ouml;rmann, "The generation of binomial random variates",
+ * Journal of Statistical Computation and Simulation 46, 1993.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BinomialDistribution implements DiscreteDistribution {
+
+    /** Mode where BTRD takes over */
+    private static final int BTRD_MIN = 11;
+
+    private final int n;
+
+    private final double p;
+
+    /** True if drawing failures, p &gt; 1/2 */
+    private final boolean flip;
+
+    /** min(p, 1 - p) */
+    private final double pp;
+
+    /** The mode, floor((n + 1) pp) */
+    private final int m;
+
+    /** (1 - pp)<sup>n</sup>, for inversion */
+    private final double qn;
+
+    // BTRD constants
+    private final double r;
+    private final double nr;
+    private final double npq;
+    private final double btrdB;
+    private final double btrdA;
+    private final double btrdC;
+    private final double alpha;
+    private final double vr;
+    private final double urvr;
+
+    /**
+     * Constructor.
+     *
+     * @param n number of trials, not negative
+     * @param p probability of success, 0 to 1
+     */
+    public BinomialDistribution(final int n, final double p) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("p must be in [0,1]: " + p);
+        }
+        this.n = n;
+        this.p = p;
+        this.flip = p > 0.5;
+        this.pp = flip ? 1.0 - p : p;
+        this.m = (int) Math.floor((n + 1.0) * pp);
+        this.qn = Math.pow(1.0 - pp, n);
+        this.r = pp / (1.0 - pp);
+        this.nr = (n + 1.0) * r;
+        this.npq = n * pp * (1.0 - pp);
+        final double sqrtNpq = Math.sqrt(npq);
+        this.btrdB = 1.15 + 2.53 * sqrtNpq;
+        this.btrdA = -0.0873 + 0.0248 * btrdB + 0.01 * pp;
+        this.btrdC = n * pp + 0.5;
+        this.alpha = (2.83 + 5.1 / btrdB) * sqrtNpq;
+        this.vr = 0.92 - 4.2 / btrdB;
+        this.urvr = 0.86 * vr;
+    }
+
+    public int sample(final RandomGenerator rng) {
+        final int k = (m >= BTRD_MIN) ? btrd(rng) : invert(rng);
+        return flip ? n - k : k;
+    }
+
+    public void fill(final RandomGenerator rng, final int[] dest,
+                     final int offset, final int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            dest[i] = sample(rng);
+        }
+    }
+
+    public int getTrials() {
+        return n;
+    }
+
+    public double getProbability() {
+        return p;
+    }
+
+    public double getMean() {
+        return n * p;
+    }
+
+    public double getVariance() {
+        return n * p * (1.0 - p);
+    }
+
+    /**
+     * Walk up the CDF from 0 until it passes a uniform.
+     */
+    private int invert(final RandomGenerator rng) {
+        if (pp == 0.0) {
+            return 0;
+        }
+        while (true) {
+            double u = Variates.uniform(rng);
+            double f = qn;
+            int x = 0;
+            while (u > f) {
+                u -= f;
+                if (++x > n) {
+                    break;
+                }
+                f *= nr / x - r;
+            }
+            // rounding can leave u past the end, try again
+            if (x <= n) {
+                return x;
+            }
+        }
+    }
+
+    private int btrd(final RandomGenerator rng) {
+        while (true) {
+            double v = Variates.uniform(rng);
+            double u;
+            if (v <= urvr) {
+                // the triangle in the middle, accepted right away
+                u = v / vr - 0.43;
+                return (int) Math.floor((2.0 * btrdA / (0.5 - Math.abs(u)) + btrdB) * u + btrdC);
+            }
+            if (v >= vr) {
+                u = Variates.uniform(rng) - 0.5;
+            } else {
+                u = v / vr - 0.93;
+                u = ((u < 0.0) ? -0.5 : 0.5) - u;
+                v = Variates.uniform(rng) * vr;
+            }
+            final double us = 0.5 - Math.abs(u);
+            final double kd = Math.floor((2.0 * btrdA / us + btrdB) * u + btrdC);
+            if (kd < 0.0 || kd > n) {
+                continue;
+            }
+            final int k = (int) kd;
+            v = v * alpha / (btrdA / (us * us) + btrdB);
+            final int km = Math.abs(k - m);
+            if (km <= 15) {
+                // recursive evaluation of f(k) / f(m)
+                double f = 1.0;
+                if (m < k) {
+                    for (int i = m + 1; i <= k; ++i) {
+                        f *= nr / i - r;
+                    }
+                } else if (m > k) {
+                    for (int i = k + 1; i <= m; ++i) {
+                        v *= nr / i - r;
+                    }
+                }
+                if (v <= f) {
+                    return k;
+                }
+                continue;
+            }
+            // squeeze, then the exact test with Stirling's series
+            v = Math.log(v);
+            final double rho = (km / npq) * (((km / 3.0 + 0.625) * km + 1.0 / 6.0) / npq + 0.5);
+            final double t = -(double) km * km / (2.0 * npq);
+            if (v < t - rho) {
+                return k;
+            }
+            if (v > t + rho) {
+                continue;
+            }
+            final double nm = n - m + 1.0;
+            final double h = (m + 0.5) * Math.log((m + 1.0) / (r * nm))
+                + Variates.stirlingCorrection(m) + Variates.stirlingCorrection(n - m);
+            final double nk = n - k + 1.0;
+            if (v <= h + (n + 1.0) * Math.log(nm / nk) + (k + 0.5) * Math.log(nk * r / (k + 1.0))
+                - Variates.stirlingCorrection(k) - Variates.stirlingCorrection(n - k)) {
+                return k;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.RandomGenerator;
+
+/**
+ * Dirichlet variates: random probability vectors.
+ *
+ * <p>
+ * Each component is a gamma variate with shape <i>&alpha;<sub>i</sub></i>,
+ * then the vector is divided by its sum.  Like {@link BetaDistribution},
+ * the gammas are drawn as logs, so concentrations well below 1 don't
+ * leave an all-zero vector.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class DirichletDistribution {
+
+    private final GammaDistribution[] gammas;
+
+    private final double alphaSum;
+
+    /**
+     * Constructor.
+     *
+     * @param alpha concentrations, each positive and finite
+     */
+    public DirichletDistribution(final double[] alpha) {
+        if (alpha.length == 0) {
+            throw new IllegalArgumentException("alpha is empty");
+        }
+        gammas = new GammaDistribution[alpha.length];
+        double sum = 0.0;
+        for (int i = 0; i < alpha.length; ++i) {
+            gammas[i] = new GammaDistribution(alpha[i]);
+            sum += alpha[i];
+        }
+        alphaSum = sum;
+    }
+
+    /**
+     * @return the number of components
+     */
+    public int getDimension() {
+        return gammas.length;
+    }
+
+    /**
+     * @param i component
+     * @return the mean of component <code>i</code>
+     */
+    public double getMean(final int i) {
+        return gammas[i].getShape() / alphaSum;
+    }
+
+    /**
+     * Draw one vector.
+     *
+     * @param rng source of randomness
+     * @param dest where to write, <code>getDimension()</code> values
+     *   that add up to 1
+     * @param offset first index to write
+     */
+    public void sample(final RandomGenerator rng, final double[] dest, final int offset) {
+        final int k = gammas.length;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < k; ++i) {
+            final double l = gammas[i].logSample(rng);
+            dest[offset + i] = l;
+            if (l > max) {
+                max = l;
+            }
+        }
+        double sum = 0.0;
+        for (int i = 0; i < k; ++i) {
+            final double x = Math.exp(dest[offset + i] - max);
+            dest[offset + i] = x;
+            sum += x;
+        }
+        final double inv = 1.0 / sum;
+        for (int i = 0; i < k; ++i) {
+            dest[offset + i] *= inv;
+        }
+    }
+
+    /**
+     * Draw several vectors, one after another.
+     *
+     * @param rng source of randomness
+     * @param dest where to write
+     * @param offset first index to write
+     * @param count number of vectors, so
+     *   <code>count * getDimension()</code> values
+     */
+    public void fill(final RandomGenerator rng, final double[] dest,
+                     final int offset, final int count) {
+        final int k = gammas.length;
+        for (int j = 0; j < count; ++j) {
+            sample(rng, dest, offset + j * k);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.BulkGenerator;
+import com.modp.random.RandomGenerator;
+
+/**
+ * Uniforms, normals and log factorials shared by the distributions.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+final class Variates {
+
+    /** 2<sup>-53</sup> */
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    /** 0.5 log(2 pi) */
+    static final double HALF_LOG_2PI = 0.5 * Math.log(2.0 * Math.PI);
+
+    private static final int TABLE_SIZE = 256;
+
+    /** log(k!) for small k */
+    private static final double[] LOG_FACTORIAL = new double[TABLE_SIZE];
+
+    static {
+        double sum = 0.0;
+        for (int k = 1; k < TABLE_SIZE; ++k) {
+            sum += Math.log(k);
+            LOG_FACTORIAL[k] = sum;
+        }
+    }
+
+    private Variates() {
+    }
+
+    /**
+     * A uniform double in [0, 1) with 53 random bits.
+     */
+    static double uniform(final RandomGenerator rng) {
+        return bits53(rng) * DOUBLE_UNIT;
+    }
+
+    /**
+     * A uniform double in (0, 1), safe to take the log of.
+     */
+    static double openUniform(final RandomGenerator rng) {
+        return (bits53(rng) + 0.5) * DOUBLE_UNIT;
+    }
+
+    private static long bits53(final RandomGenerator rng) {
+        return (rng instanceof BulkGenerator)
+            ? ((BulkGenerator) rng).next64() >>> 11
+            : (rng.next(26) << 27) + rng.next(27);
+    }
+
+    /**
+     * A standard normal, by Marsaglia's polar method.  The method makes
+     * two normals, the second is thrown away so this has no state.
+     */
+    static double normal(final RandomGenerator rng) {
+        double x;
+        double s;
+        do {
+            x = 2.0 * uniform(rng) - 1.0;
+            final double y = 2.0 * uniform(rng) - 1.0;
+            s = x * x + y * y;
+        } while (s >= 1.0 || s == 0.0);
+        return x * Math.sqrt(-2.0 * Math.log(s) / s);
+    }
+
+    /**
+     * log(k!), from a table, or Stirling's series for large k.
+     */
+    static double logFactorial(final long k) {
+        if (k < TABLE_SIZE) {
+            return LOG_FACTORIAL[(int) k];
+        }
+        final double x = k + 1.0;
+        return (x - 0.5) * Math.log(x) - x + HALF_LOG_2PI + stirlingTail(x);
+    }
+
+    /**
+     * The Stirling series correction for log(k!):
+     * log(k!) - ((k + 0.5) log(k + 1) - (k + 1) + 0.5 log(2 pi)).
+     */
+    static double stirlingCorrection(final long k) {
+        if (k < TABLE_SIZE) {
+            final double x = k + 1.0;
+            return LOG_FACTORIAL[(int) k] - ((x - 0.5) * Math.log(x) - x + HALF_LOG_2PI);
+        }
+        return stirlingTail(k + 1.0);
+    }
+
+    private static double stirlingTail(final double x) {
+        final double ix = 1.0 / x;
+        final double ix2 = ix * ix;
+        return (1.0 / 12.0 - (1.0 / 360.0 - ix2 / 1260.0) * ix2) * ix;
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.misc;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.modp.random.*;
+
+/**
+ * Write the raw output of a generator to stdout or a file.
+ *
+ * <p>
+ * This is for feeding statistical test batteries and making test
+ * fixtures, for example:
+ * </p>
+ * <pre>
+ * java com.modp.random.misc.RandomBytes -s 42 Xoshiro256StarStar | RNG_test stdin64
+ * java com.modp.random.misc.RandomBytes -n 1g -t 4 -o out.bin MersenneTwister64
+ * </pre>
+ *
+ * <p>
+ * Values are written little-endian: 64-bit words for a
+ * {@link BulkGenerator}, and <code>next(32)</code> words otherwise.
+ * With one thread the output is exactly the generator's sequence for
+ * the seed.  With <i>t</i> threads, each thread makes its own stream,
+ * from {@link Substreams} (jumps, or a balanced split) if the generator
+ * supports it and from {@link ThreadLocalGenerators#streamSeed}
+ * otherwise, and the output is the threads' buffers in turn, one buffer
+ * from each.  So the bytes depend on the seed, the thread count and the
+ * buffer size, and nothing else.
+ * </p>
+ *
+ * <p>
+ * With more than one thread, a generator with a period under
+ * 2<sup>64</sup> gives each thread only 2<sup>-20</sup> of its period
+ * (for <code>LinearSunJDK</code> that is the 2<sup>28</sup>-output
+ * block a split gives each stream, 1 GB), since past that the streams
+ * may overlap.  Such runs need <code>-n</code>, and a length that fits.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class RandomBytes {
+
+    /**
+     * Default buffer size, 1 MB
+     */
+    private static final int DEFAULT_BUFFER = 1 << 20;
+
+    /**
+     * Buffers per thread, one being filled while one is written
+     */
+    private static final int BUFFERS = 2;
+
+    /**
+     * log<sub>2</sub> of the shortest period that needs no limit on
+     * the output per thread
+     */
+    private static final int SHORT_PERIOD_LOG2 = 64;
+
+    /**
+     * With a short period, each thread gets 2<sup>-SHARE_LOG2</sup> of
+     * it
+     */
+    private static final int SHARE_LOG2 = 20;
+
+    private static void usage(final PrintStream out) {
+        out.println("usage: RandomBytes [options] algorithm");
+        out.println("  -n bytes    number of bytes, with optional k, m or g suffix;");
+        out.println("              the default is to write until the output is closed");
+        out.println("  -s seed     seed, default 0");
+        out.println("  -o file     output file, default stdout");
+        out.println("  -t threads  number of producer threads, default 1");
+        out.println("  -b bytes    buffer size, the interleaving unit between");
+        out.println("              threads, default 1m");
+        out.println("  -l          list the algorithms");
+    }
+
+    public static void main(final String[] args) throws IOException {
+        long bytes = -1L;
+        long seed = 0L;
+        String file = null;
+        int threads = 1;
+        int bufferSize = DEFAULT_BUFFER;
+        String name = null;
+
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                String a = args[i];
+                if (a.equals("-n")) {
+                    bytes = parseSize(args[++i]);
+                } else if (a.equals("-s")) {
+                    seed = Long.decode(args[++i]).longValue();
+                } else if (a.equals("-o")) {
+                    file = args[++i];
+                } else if (a.equals("-t")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (a.equals("-b")) {
+                    long b = parseSize(args[++i]);
+                    if (b > (1 << 30)) {
+                        throw new IllegalArgumentException("Buffer must be at most 1g");
+                    }
+                    bufferSize = (int) b;
+                } else if (a.equals("-l")) {
+                    for (GeneratorProvider p : GeneratorRegistry.getDefault().getProviders()) {
+                        System.out.println(p.getInfo());
+                    }
+                    return;
+                } else if (a.equals("-h")) {
+                    usage(System.out);
+                    return;
+                } else if (name == null && !a.startsWith("-")) {
+                    name = a;
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + a);
+                }
+            }
+            if (name == null) {
+                throw new IllegalArgumentException("No algorithm given");
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Threads must be at least 1");
+            }
+            if (bufferSize < 8) {
+                throw new IllegalArgumentException("Buffer must be at least 8 bytes");
+            }
+        } catch (RuntimeException e) {
+            // bad number, missing argument or bad option
+            System.err.println("RandomBytes: " + e.getMessage());
+            usage(System.err);
+            System.exit(2);
+            return;
+        }
+
+        RandomGenerator[] streams;
+        try {
+            GeneratorProvider provider = GeneratorRegistry.getDefault().getProvider(name);
+            streams = streams(provider, name, seed, threads);
+            checkLength(provider.getInfo(), streams, bytes, bufferSize);
+        } catch (IllegalArgumentException e) {
+            System.err.println("RandomBytes: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        FileOutputStream fos = (file == null)
+            ? new FileOutputStream(FileDescriptor.out)
+            : new FileOutputStream(file);
+        FileChannel out = fos.getChannel();
+        try {
+            write(streams, out, bytes, bufferSize);
+        } catch (IOException e) {
+            // a reader closing the pipe is the normal way to stop
+            // an unlimited stream
+            if (bytes >= 0L || file != null) {
+                throw e;
+            }
+        } finally {
+            fos.close();
+        }
+    }
+
+    /**
+     * Make the per-thread streams.
+     *
+     * @throws IllegalArgumentException if there is no such algorithm,
+     *  or it can't split into that many streams
+     */
+    static RandomGenerator[] streams(final GeneratorProvider provider, final String name,
+                                     final long seed, final int threads) {
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown generator: " + name);
+        }
+        RandomGenerator[] streams = new RandomGenerator[threads];
+        RandomGenerator root = provider.create(seed);
+        if (threads == 1) {
+            streams[0] = root;
+        } else if (root instanceof JumpableGenerator || root instanceof SplittableGenerator) {
+            try {
+                streams = Substreams.create(root, threads);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException(name + " can't make " + threads
+                                                   + " streams: " + e.getMessage());
+            }
+        } else {
+            for (int i = 0; i < threads; ++i) {
+                streams[i] = provider.create(ThreadLocalGenerators.streamSeed(seed, i, 0));
+            }
+        }
+        return streams;
+    }
+
+    /**
+     * Most bytes each thread may write before its stream could run into
+     * another's.
+     *
+     * @return the limit, or <code>Long.MAX_VALUE</code> if there is none
+     */
+    static long maxBytesPerThread(final GeneratorInfo info, final RandomGenerator[] streams) {
+        final int period = info.getPeriodLog2();
+        if (streams.length == 1 || period == 0 || period >= SHORT_PERIOD_LOG2) {
+            return Long.MAX_VALUE;
+        }
+        final long outputs = 1L << Math.max(period - SHARE_LOG2, 0);
+        return outputs * ((streams[0] instanceof BulkGenerator) ? 8 : 4);
+    }
+
+    /**
+     * Check that no thread writes past its share of a short period.
+     *
+     * @param bytes number of bytes, or -1 for no limit
+     * @throws IllegalArgumentException if a thread could
+     */
+    static void checkLength(final GeneratorInfo info, final RandomGenerator[] streams,
+                            final long bytes, final int bufferSize) {
+        final long limit = maxBytesPerThread(info, streams);
+        if (limit == Long.MAX_VALUE) {
+            return;
+        }
+        final int threads = streams.length;
+        final String why = info.getName() + " has a period of 2^" + info.getPeriodLog2()
+            + ", so with " + threads + " threads each may write at most " + limit + " bytes";
+        if (bytes < 0L) {
+            throw new IllegalArgumentException(why + "; give -n");
+        }
+        // buffers are dealt out in turn, so the first thread writes the most
+        final long size = bufferSize & ~7;
+        final long buffers = (bytes + size - 1) / size;
+        final long perThread = (buffers + threads - 1) / threads * size;
+        if (perThread > limit) {
+            throw new IllegalArgumentException(why + ", not " + perThread);
+        }
+    }
+
+    /**
+     * Write random bytes from the streams to a channel.
+     *
+     * <p>
+     * Each stream is filled by its own thread.  This thread writes their
+     * buffers in turn, so the output does not depend on how the
+     * producers are scheduled.
+     * </p>
+     *
+     * @param streams one generator per producer thread
+     * @param out where to write
+     * @param bytes number of bytes, or -1 for no limit
+     * @param bufferSize size of each buffer, rounded down to a multiple of 8
+     * @throws IOException if the write fails
+     */
+    public static void write(final RandomGenerator[] streams, final WritableByteChannel out,
+                             long bytes, final int bufferSize) throws IOException {
+        final int size = bufferSize & ~7;
+        final Producer[] producers = new Producer[streams.length];
+        for (int i = 0; i < producers.length; ++i) {
+            producers[i] = new Producer(streams[i], size);
+            producers[i].start();
+        }
+        try {
+            int k = 0;
+            while (bytes != 0L) {
+                Producer p = producers[k];
+                ByteBuffer buf = p.full.take();
+                if (bytes > 0L && bytes < buf.remaining()) {
+                    buf.limit((int) bytes);
+                }
+                final int n = buf.remaining();
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                if (bytes > 0L) {
+                    bytes -= n;
+                }
+                p.empty.put(buf);
+                k = (k + 1 == producers.length) ? 0 : k + 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted");
+        } finally {
+            for (int i = 0; i < producers.length; ++i) {
+                producers[i].interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fills buffers from one generator.
+     */
+    static final class Producer extends Thread {
+        final BlockingQueue<ByteBuffer> empty = new ArrayBlockingQueue<ByteBuffer>(BUFFERS);
+        final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<ByteBuffer>(BUFFERS);
+        private final RandomGenerator rng;
+        private final BulkGenerator bulk;
+        private final long[] longs;
+        private final int[] ints;
+
+        Producer(final RandomGenerator rng, final int size) {
+            super("RandomBytes producer");
+            setDaemon(true);
+            this.rng = rng;
+            this.bulk = (rng instanceof BulkGenerator) ? (BulkGenerator) rng : null;
+            this.longs = new long[Math.min(size / 8, 4096)];
+            this.ints = new int[Math.min(size / 4, 8192)];
+            for (int i = 0; i < BUFFERS; ++i) {
+                empty.add(ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN));
+            }
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    ByteBuffer buf = empty.take();
+                    buf.clear();
+                    if (bulk != null) {
+                        fillLongs(buf);
+                    } else {
+                        fillInts(buf);
+                    }
+                    buf.clear();
+                    full.put(buf);
+                }
+            } catch (InterruptedException e) {
+                // done
+            }
+        }
+
+        private void fillLongs(final ByteBuffer buf) {
+            final LongBuffer lb = buf.asLongBuffer();
+            while (lb.hasRemaining()) {
+                final int n = Math.min(longs.length, lb.remaining());
+                bulk.nextLongs(longs, 0, n);
+                lb.put(longs, 0, n);
+            }
+        }
+
+        private void fillInts(final ByteBuffer buf) {
+            final IntBuffer ib = buf.asIntBuffer();
+            while (ib.hasRemaining()) {
+                final int n = Math.min(ints.length, ib.remaining());
+                for (int i = 0; i < n; ++i) {
+                    ints[i] = (int) rng.next(32);
+                }
+                ib.put(ints, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Parse a size like 100, 64k, 10m or 2g.
+     */
+    static long parseSize(final String s) {
+        long mul = 1L;
+        String num = s;
+        char c = Character.toLowerCase(s.charAt(s.length() - 1));
+        if (c == 'k') {
+            mul = 1L << 10;
+        } else if (c == 'm') {
+            mul = 1L << 20;
+        } else if (c == 'g') {
+            mul = 1L << 30;
+        }
+        if (mul != 1L) {
+            num = s.substring(0, s.length() - 1);
+        }
+        long n = Long.parseLong(num);
+        if (n < 0L) {
+            throw new IllegalArgumentException("Size must not be negative: " + s);
+        }
+        return n * mul;
+    }
+}
@@ -39,10 +39,16 @@ import com.modp.random.*;
 
 /**
  * A simple benchmark program
- * 
+ *
+ * @deprecated The timings here are not reliable, since the results are
+ * discarded and the JIT may remove the loops.  Use the JMH benchmarks in
+ * <code>src/bench</code> instead, with
+ * <code>mvn -Pbench compile exec:exec</code>
+ *
  * @author nickg
  * @version 1
  */
+@Deprecated
 public class SpeedTest {
 
 	public static void main(String[] args) {
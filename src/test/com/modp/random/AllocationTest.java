@@ -0,0 +1,297 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.lang.management.ManagementFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that the generation and seeding paths that should not
+ * allocate, don't.
+ *
+ * <p>
+ * This uses the per-thread allocation counter in
+ * <code>com.sun.management.ThreadMXBean</code>.  If that isn't
+ * available the tests pass without checking anything.
+ * </p>
+ *
+ * <p>
+ * <code>BlumBlumShub</code> is not here, since it allocates
+ * <code>BigInteger</code>s on every bit.
+ * </p>
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class AllocationTest extends TestCase {
+
+    /**
+     * Number of calls measured
+     */
+    private static final int CALLS = 100000;
+
+    /**
+     * Something to do, many times
+     */
+    interface Op {
+	void run(int i);
+    }
+
+    /**
+     * Sink for results, so the calls can't be removed
+     */
+    private long sink;
+
+    private double dsink;
+
+    public void testLinearSunJDK() {
+	final LinearSunJDK r = new LinearSunJDK(1L);
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed(i); }
+	    });
+    }
+
+    public void testMersenneTwister() {
+	final MersenneTwister r = new MersenneTwister(1);
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed(i); }
+	    });
+    }
+
+    public void testMersenneTwister64() {
+	final MersenneTwister64 r = new MersenneTwister64(1L);
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("next64", new Op() {
+		public void run(int i) { sink += r.next64(); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed((long) i); }
+	    });
+    }
+
+    public void testRule30Cells192() {
+	final Rule30Cells192 r = new Rule30Cells192(1L);
+	final long[] seed = new long[3];
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("next64", new Op() {
+		public void run(int i) { sink += r.next64(); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed(i, ~i, i * 31L); }
+	    });
+	assertNoAllocation("getSeed", new Op() {
+		public void run(int i) { r.getSeed(seed); }
+	    });
+    }
+
+    public void testRule30Cells() {
+	final Rule30Cells r = new Rule30Cells(256, 8, 1L);
+	final long[] buf = new long[16];
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("nextLongs", new Op() {
+		public void run(int i) { r.nextLongs(buf, 0, buf.length); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed((long) i); }
+	    });
+    }
+
+    public void testBaileyCrandall() {
+	final BaileyCrandall r = new BaileyCrandall(1L);
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("nextDouble", new Op() {
+		public void run(int i) { dsink += r.nextDouble(); }
+	    });
+	assertNoAllocation("setSeed", new Op() {
+		public void run(int i) { r.setSeed((long) i); }
+	    });
+    }
+
+    public void testPhilox4x32() {
+	final Philox4x32 r = new Philox4x32(1L);
+	final long[] buf = new long[16];
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += r.next(32); }
+	    });
+	assertNoAllocation("nextLongs", new Op() {
+		public void run(int i) { r.nextLongs(buf, 0, buf.length); }
+	    });
+	assertNoAllocation("seek", new Op() {
+		public void run(int i) { r.seek(i * 3L); }
+	    });
+    }
+
+    public void testThreefry2x64() {
+	final Threefry2x64 r = new Threefry2x64(1L);
+	final long[] buf = new long[16];
+	assertNoAllocation("next64", new Op() {
+		public void run(int i) { sink += r.next64(); }
+	    });
+	assertNoAllocation("nextLongs", new Op() {
+		public void run(int i) { r.nextLongs(buf, 0, buf.length); }
+	    });
+	assertNoAllocation("seek", new Op() {
+		public void run(int i) { r.seek(i * 3L); }
+	    });
+    }
+
+    public void testXoshiro() {
+	final BulkGenerator[] gens = {
+	    new SplitMix64(1L), new Xoshiro256StarStar(1L),
+	    new Xoshiro256PlusPlus(1L), new Xoroshiro128PlusPlus(1L)
+	};
+	final long[] buf = new long[16];
+	for (int k = 0; k < gens.length; ++k) {
+	    final BulkGenerator r = gens[k];
+	    String name = r.getClass().getName();
+	    assertNoAllocation(name + ".next64", new Op() {
+		    public void run(int i) { sink += r.next64(); }
+		});
+	    assertNoAllocation(name + ".nextLongs", new Op() {
+		    public void run(int i) { r.nextLongs(buf, 0, buf.length); }
+		});
+	}
+    }
+
+    public void testWeightedSampler() {
+	final double[] w = new double[1000];
+	for (int i = 0; i < w.length; ++i) {
+	    w[i] = i + 1;
+	}
+	final WeightedSampler s = new WeightedSampler(w);
+	final RandomGenerator r = new MersenneTwister(1);
+	final int[] dest = new int[8];
+	final double[] scratch = new double[8];
+	assertNoAllocation("next", new Op() {
+		public void run(int i) { sink += s.next(r); }
+	    });
+	assertNoAllocation("set", new Op() {
+		public void run(int i) { s.set(i % 1000, i); }
+	    });
+	assertNoAllocation("sample", new Op() {
+		public void run(int i) { s.sample(r, dest, scratch, dest.length); }
+	    });
+    }
+
+    public void testBernoulliBits() {
+	final BernoulliBits skip = new BernoulliBits(new SplitMix64(1L), 0.001);
+	final BernoulliBits dense = new BernoulliBits(new SplitMix64(1L), 0.999);
+	final BernoulliBits compare = new BernoulliBits(new SplitMix64(1L), 0.3);
+	assertTrue(skip.isSkipping());
+	assertNoAllocation("nextWord skip", new Op() {
+		public void run(int i) { sink += skip.nextWord(); }
+	    });
+	assertNoAllocation("nextWord skip inverted", new Op() {
+		public void run(int i) { sink += dense.nextWord(); }
+	    });
+	assertNoAllocation("nextWord compare", new Op() {
+		public void run(int i) { sink += compare.nextWord(); }
+	    });
+    }
+
+    /** An op that does nothing, to measure the harness itself */
+    private static final Op EMPTY = new Op() {
+	    public void run(int i) { }
+	};
+
+    /**
+     * Largest total allocation, after subtracting the empty loop,
+     * allowed for CALLS calls.  Anything that allocates even once per
+     * hundred calls goes well over this.
+     */
+    private static final long SLACK = 1024;
+
+    /**
+     * Run op CALLS times and fail if anything was allocated.  The
+     * cost of an empty loop is subtracted, and the best of a few
+     * tries is used, since a GC or a deoptimization in the middle of
+     * a run can allocate on this thread.
+     */
+    private void assertNoAllocation(String name, Op op) {
+	java.lang.management.ThreadMXBean tb = ManagementFactory.getThreadMXBean();
+	if (!(tb instanceof com.sun.management.ThreadMXBean)) {
+	    return;
+	}
+	com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) tb;
+	if (!bean.isThreadAllocatedMemorySupported()) {
+	    return;
+	}
+	bean.setThreadAllocatedMemoryEnabled(true);
+	long id = Thread.currentThread().getId();
+
+	// warm up both loops
+	allocated(bean, id, EMPTY);
+	allocated(bean, id, op);
+
+	long bytes = Long.MAX_VALUE;
+	for (int k = 0; k < 3 && bytes >= SLACK; ++k) {
+	    long base = allocated(bean, id, EMPTY);
+	    bytes = Math.min(bytes, allocated(bean, id, op) - base);
+	}
+	assertTrue(name + " allocated " + bytes + " bytes in " + CALLS + " calls",
+		   bytes < SLACK);
+    }
+
+    /**
+     * Bytes allocated by this thread while running op CALLS times.
+     */
+    private static long allocated(com.sun.management.ThreadMXBean bean, long id, Op op) {
+	long start = bean.getThreadAllocatedBytes(id);
+	for (int i = 0; i < CALLS; ++i) {
+	    op.run(i);
+	}
+	return bean.getThreadAllocatedBytes(id) - start;
+    }
+
+    public static void main(String[] args) {
+	junit.textui.TestRunner.run(AllocationTest.class);
+    }
+}
@@ -61,6 +61,38 @@ public class BaileyCrandallTest extends TestCase {
 	}
     }
 
+    /**
+     * Skipping should be the same as stepping
+     */
+    public void testSkip() {
+	BaileyCrandall r1 = new BaileyCrandall(1L);
+	BaileyCrandall r2 = new BaileyCrandall(1L);
+	int[] sizes = { 0, 1, 2, 17, 1000 };
+	for (int k = 0; k < sizes.length; ++k) {
+	    for (int i = 0; i < sizes[k]; ++i) {
+		r1.nextIterate();
+	    }
+	    r2.skip(sizes[k]);
+	    assertEquals("Skip " + sizes[k], r1.getIterate(), r2.getIterate(), 0.0);
+	}
+    }
+
+    /**
+     * Splits are reproducible and different from the parent
+     */
+    public void testSplit() {
+	BaileyCrandall p1 = new BaileyCrandall(1L);
+	BaileyCrandall p2 = new BaileyCrandall(1L);
+	BaileyCrandall a1 = p1.split();
+	BaileyCrandall a2 = p2.split();
+	assertEquals(a1.getIterate(), a2.getIterate(), 0.0);
+	assertFalse(a1.getIterate() == p1.getIterate());
+
+	BaileyCrandall r = new BaileyCrandall(1L);
+	r.skip(1L << 28);
+	assertEquals(r.getIterate(), a1.getIterate(), 0.0);
+    }
+
     public static void main(String[] args) {
 	junit.textui.TestRunner.run(BaileyCrandallTest.class);
     }
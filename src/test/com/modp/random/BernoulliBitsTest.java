@@ -0,0 +1,175 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for BernoulliBits.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BernoulliBitsTest extends TestCase {
+
+    /**
+     * Fill and check the fraction of set bits is within 5 sigma, and
+     * that every bit position in the word is about right too.
+     */
+    private static void check(final BernoulliBits b, final int words) {
+        final double p = b.getProbability();
+        long[] bits = new long[words];
+        b.fill(bits);
+        long total = 0;
+        long[] lane = new long[64];
+        for (int i = 0; i < words; ++i) {
+            total += Long.bitCount(bits[i]);
+            for (int j = 0; j < 64; ++j) {
+                lane[j] += (bits[i] >>> j) & 1L;
+            }
+        }
+        final double n = 64.0 * words;
+        final double sigma = Math.sqrt(n * p * (1.0 - p));
+        assertEquals("p=" + p + " skip=" + b.isSkipping(), n * p, total, 5.0 * sigma + 1e-9);
+        final double laneSigma = Math.sqrt(words * p * (1.0 - p));
+        for (int j = 0; j < 64; ++j) {
+            assertEquals("p=" + p + " lane " + j, words * p, lane[j], 5.0 * laneSigma + 1e-9);
+        }
+    }
+
+    public void testProbabilities() {
+        final double[] ps = { 0.5, 0.25, 0.75, 0.1, 1.0 / 3.0, 0.9, 0.01, 0.001, 0.999 };
+        for (int i = 0; i < ps.length; ++i) {
+            check(new BernoulliBits(new SplitMix64(i), ps[i], false), 20000);
+            check(new BernoulliBits(new SplitMix64(i), ps[i], true), 20000);
+            check(new BernoulliBits(new MersenneTwister(i), ps[i]), 20000);
+        }
+    }
+
+    public void testEdges() {
+        BernoulliBits b = new BernoulliBits(new SplitMix64(1L), 0.0);
+        assertEquals(0L, b.nextWord());
+        b = new BernoulliBits(new SplitMix64(1L), 1.0);
+        assertEquals(-1L, b.nextWord());
+        long[] bits = new long[4];
+        b.fill(bits, 1, 2);
+        assertEquals(0L, bits[0]);
+        assertEquals(-1L, bits[1]);
+        assertEquals(-1L, bits[2]);
+        assertEquals(0L, bits[3]);
+        try {
+            new BernoulliBits(new SplitMix64(1L), 1.5);
+            fail("Accepted p > 1");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            new BernoulliBits(new SplitMix64(1L), Double.NaN);
+            fail("Accepted NaN");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testAutoSkip() {
+        assertTrue(new BernoulliBits(new SplitMix64(1L), 0.001).isSkipping());
+        assertTrue(new BernoulliBits(new SplitMix64(1L), 0.999).isSkipping());
+        assertFalse(new BernoulliBits(new SplitMix64(1L), 0.1).isSkipping());
+    }
+
+    public void testSkipWord() {
+        // nextWord takes the same draws as a one word fill, in both
+        // directions and with gaps that run past the word
+        double[] ps = { 0.001, 0.005, 0.999 };
+        for (int k = 0; k < ps.length; ++k) {
+            BernoulliBits a = new BernoulliBits(new SplitMix64(9L), ps[k], true);
+            BernoulliBits b = new BernoulliBits(new SplitMix64(9L), ps[k], true);
+            long[] w = new long[1];
+            for (int i = 0; i < 10000; ++i) {
+                b.fill(w);
+                assertEquals("p " + ps[k] + " word " + i, w[0], a.nextWord());
+            }
+        }
+    }
+
+    public void testRange() {
+        // a fill only touches its range, in both modes
+        for (int s = 0; s < 2; ++s) {
+            BernoulliBits b = new BernoulliBits(new SplitMix64(1L), 0.3, s == 1);
+            long[] bits = new long[] { 5L, 0L, 0L, 0L, 7L };
+            b.fill(bits, 1, 3);
+            assertEquals(5L, bits[0]);
+            assertEquals(7L, bits[4]);
+            try {
+                b.fill(bits, 3, 3);
+                fail("Accepted a range past the end");
+            } catch (IndexOutOfBoundsException e) {
+                // ok
+            }
+        }
+    }
+
+    public void testWordsUsed() {
+        // p = 1/2 and 3/4 use one and two words, 32-bit calls are half words
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        RandomGenerator g = new InstrumentedGenerator(new MersenneTwister(1), m, false);
+        new BernoulliBits(g, 0.5).fill(new long[1000]);
+        assertEquals(2000L, m.getCalls());
+        m.reset();
+        new BernoulliBits(g, 0.75).fill(new long[1000]);
+        assertEquals(4000L, m.getCalls());
+
+        // any p takes about log2(64) + 2 words
+        m.reset();
+        new BernoulliBits(g, 1.0 / 3.0).fill(new long[1000]);
+        assertTrue("" + m.getCalls(), m.getCalls() < 2 * 1000 * 10);
+
+        // and the skip about one word per set bit, plus one
+        m.reset();
+        BernoulliBits b = new BernoulliBits(g, 0.001);
+        long[] bits = new long[1000];
+        b.fill(bits);
+        long set = 0;
+        for (int i = 0; i < bits.length; ++i) {
+            set += Long.bitCount(bits[i]);
+        }
+        assertEquals(2 * (set + 1), m.getCalls());
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(BernoulliBitsTest.class);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for BitBufferedGenerator.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BitBufferedGeneratorTest extends TestCase {
+
+    public void testSameBits() {
+        // next(1) x 32 and next(5) + next(27) rebuild the generator's words
+        MersenneTwister ref = new MersenneTwister(42);
+        BitBufferedGenerator r = new BitBufferedGenerator(new MersenneTwister(42));
+        assertEquals(32, r.getWidth());
+        for (int i = 0; i < 100; ++i) {
+            long w = 0;
+            for (int j = 0; j < 32; ++j) {
+                w = (w << 1) | r.next(1);
+            }
+            assertEquals(ref.next(32) & 0xFFFFFFFFL, w);
+            w = (r.next(5) << 27) | r.next(27);
+            assertEquals(ref.next(32) & 0xFFFFFFFFL, w);
+            assertEquals(ref.next(32) & 0xFFFFFFFFL, r.next(32));
+        }
+    }
+
+    public void testAcrossWords() {
+        // 24 bits at a time spans words, every third call lines back up
+        SplitMix64 ref = new SplitMix64(42L);
+        BitBufferedGenerator r = new BitBufferedGenerator(new SplitMix64(42L));
+        assertEquals(64, r.getWidth());
+        for (int i = 0; i < 100; ++i) {
+            long a = ref.next64();
+            long b = ref.next64();
+            long c = ref.next64();
+            assertEquals(a >>> 40, r.next(24));
+            assertEquals((a >>> 16) & 0xFFFFFFL, r.next(24));
+            assertEquals(((a & 0xFFFFL) << 8) | (b >>> 56), r.next(24));
+            assertEquals((b >>> 32) & 0xFFFFFFL, r.next(24));
+            assertEquals((b >>> 8) & 0xFFFFFFL, r.next(24));
+            assertEquals(((b & 0xFFL) << 16) | (c >>> 48), r.next(24));
+            assertEquals((c >>> 24) & 0xFFFFFFL, r.next(24));
+            assertEquals(c & 0xFFFFFFL, r.next(24));
+        }
+    }
+
+    public void testNarrowWidth() {
+        // 8 bits per step, so next(20) needs three steps
+        LinearSunJDK ref = new LinearSunJDK(42L);
+        BitBufferedGenerator r = new BitBufferedGenerator(new LinearSunJDK(42L), 8);
+        for (int i = 0; i < 100; ++i) {
+            long w = (ref.next(8) << 16) | (ref.next(8) << 8) | ref.next(8);
+            assertEquals(w >>> 4, r.next(20));
+            assertEquals(w & 0xFL, r.next(4));
+        }
+    }
+
+    public void testSteps() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        BitBufferedGenerator r = new BitBufferedGenerator(
+            new InstrumentedGenerator(new MersenneTwister(42), m, false));
+        for (int i = 0; i < 3200; ++i) {
+            r.nextBoolean();
+        }
+        assertEquals(100L, m.getCalls());
+
+        // dice use 3 bits a try, and 3/4 of tries succeed
+        m.reset();
+        r.clear();
+        int[] counts = new int[6];
+        final int n = 60000;
+        for (int i = 0; i < n; ++i) {
+            counts[r.nextInt(6)]++;
+        }
+        assertTrue(m.getCalls() < n * 4 / 3 * 3 / 32 + 100);
+        double chi2 = 0.0;
+        for (int i = 0; i < counts.length; ++i) {
+            double d = counts[i] - n / 6.0;
+            chi2 += d * d / (n / 6.0);
+        }
+        // 5 degrees of freedom, p = 0.001
+        assertTrue("chi2 " + chi2, chi2 < 20.5);
+    }
+
+    public void testNextInt() {
+        BitBufferedGenerator r = new BitBufferedGenerator(new Xoshiro256StarStar(42L));
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(0, r.nextInt(1));
+            int v = r.nextInt(Integer.MAX_VALUE);
+            assertTrue(v >= 0);
+            v = r.nextInt(1000);
+            assertTrue(v >= 0 && v < 1000);
+        }
+        try {
+            r.nextInt(0);
+            fail("Accepted a zero bound");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testArgs() {
+        try {
+            new BitBufferedGenerator(new MersenneTwister(42), 64);
+            fail("Accepted 64-bit words from a 32-bit generator");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            new BitBufferedGenerator(new MersenneTwister(42), 33);
+            fail("Accepted a 33 bit width");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        BitBufferedGenerator r = new BitBufferedGenerator(new MersenneTwister(42));
+        try {
+            r.next(0);
+            fail("Accepted 0 bits");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(BitBufferedGeneratorTest.class);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ConcurrentLinearSunJDK
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ConcurrentLinearSunJDKTest extends TestCase {
+
+    public void testCorrectness() {
+	java.util.Random r = new java.util.Random(1L);
+	ConcurrentLinearSunJDK rg = new ConcurrentLinearSunJDK(1L);
+	for (int i = 0; i < 100; ++i) {
+	    assertEquals(r.nextInt(), rg.next(32));
+	}
+
+	// blocks continue the same sequence
+	int[] block = new int[50];
+	rg.nextInts(block, 10, 40);
+	for (int i = 10; i < 50; ++i) {
+	    assertEquals(r.nextInt(), block[i]);
+	}
+	LinearSunJDK local = new LinearSunJDK(0L);
+	rg.reserve(20, local);
+	for (int i = 0; i < 20; ++i) {
+	    assertEquals(r.nextInt(), local.next(32));
+	}
+	assertEquals(r.nextInt(), rg.next(32));
+    }
+
+    /**
+     * With many threads, each output is handed out exactly once
+     */
+    public void testThreads() throws InterruptedException {
+	final ConcurrentLinearSunJDK rg = new ConcurrentLinearSunJDK(1L);
+	final int nthreads = 4;
+	final int per = 10000;
+	final int[][] results = new int[nthreads][per];
+	Thread[] threads = new Thread[nthreads];
+	for (int t = 0; t < nthreads; ++t) {
+	    final int[] out = results[t];
+	    final boolean blocks = (t % 2) == 0;
+	    threads[t] = new Thread() {
+		    public void run() {
+			int i = 0;
+			while (i < per) {
+			    if (blocks && i + 7 <= per) {
+				rg.nextInts(out, i, 7);
+				i += 7;
+			    } else {
+				out[i++] = (int) rg.next(32);
+			    }
+			}
+		    }
+		};
+	    threads[t].start();
+	}
+	int[] all = new int[nthreads * per];
+	for (int t = 0; t < nthreads; ++t) {
+	    threads[t].join();
+	    System.arraycopy(results[t], 0, all, t * per, per);
+	}
+
+	java.util.Random r = new java.util.Random(1L);
+	int[] expected = new int[all.length];
+	for (int i = 0; i < expected.length; ++i) {
+	    expected[i] = r.nextInt();
+	}
+	Arrays.sort(all);
+	Arrays.sort(expected);
+	assertTrue(Arrays.equals(expected, all));
+    }
+
+    public static void main(String[] args) {
+	junit.textui.TestRunner.run(ConcurrentLinearSunJDKTest.class);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for GeneratorRegistry and the standard providers
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class GeneratorRegistryTest extends TestCase {
+
+    public void testDefault() {
+        GeneratorRegistry reg = GeneratorRegistry.getDefault();
+        List<String> names = reg.getNames();
+        assertTrue(names.contains("LinearSunJDK"));
+        assertTrue(names.contains("MersenneTwister"));
+        assertTrue(names.contains("MersenneTwister64"));
+        assertTrue(names.contains("Rule30Cells192"));
+        assertTrue(names.contains("BaileyCrandall"));
+        assertTrue(names.contains("BlumBlumShub"));
+        assertTrue(names.contains("Xoshiro256StarStar"));
+
+        assertTrue(reg.create("mersennetwister64", 1L) instanceof MersenneTwister64);
+        try {
+            reg.create("NoSuchGenerator", 1L);
+            fail("unknown name");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * The flags match what the generators implement, and the same
+     * seed gives the same output
+     */
+    public void testInfo() {
+        for (GeneratorProvider p : GeneratorRegistry.getDefault().getProviders()) {
+            GeneratorInfo info = p.getInfo();
+            if (info.isCrypto()) {
+                // slow to make, and not reproducible
+                continue;
+            }
+            RandomGenerator a = p.create(42L);
+            RandomGenerator b = p.create(42L);
+            assertEquals(info.getName(), info.isSplittable(), a instanceof SplittableGenerator);
+            assertEquals(info.getName(), info.isBulk(), a instanceof BulkGenerator);
+            assertEquals(info.getName(), info.isJumpable(), a instanceof JumpableGenerator);
+            // more than 32 bits per call needs next64()
+            assertTrue(info.getName(), info.getOutputBits() <= (a instanceof BulkGenerator ? 64 : 32));
+            for (int i = 0; i < 10; ++i) {
+                assertEquals(info.getName(), a.next(32), b.next(32));
+            }
+        }
+    }
+
+    public void testFind() {
+        GeneratorRegistry reg = GeneratorRegistry.getDefault();
+        GeneratorProvider p = reg.find(GeneratorInfo.SPLITTABLE, 64);
+        assertNotNull(p);
+        assertTrue(p.getInfo().isSplittable());
+        assertTrue(p.getInfo().getOutputBits() >= 64);
+        for (GeneratorProvider q : reg.getProviders()) {
+            if (q.getInfo().isSplittable() && q.getInfo().getOutputBits() >= 64) {
+                assertTrue(p.getInfo().getCost() <= q.getInfo().getCost());
+            }
+        }
+
+        assertEquals("BlumBlumShub", reg.find(GeneratorInfo.CRYPTO, 1).getInfo().getName());
+        assertNull(reg.find(GeneratorInfo.CRYPTO, 64));
+    }
+
+    public void testRegister() {
+        GeneratorRegistry reg = new GeneratorRegistry();
+        assertNull(reg.find(0, 0));
+        assertTrue(reg.register(new StandardProviders.LinearSunJDKProvider()));
+        assertFalse(reg.register(new StandardProviders.LinearSunJDKProvider()));
+        assertEquals(1, reg.getNames().size());
+        assertNotNull(reg.getProvider("LINEARSUNJDK"));
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(GeneratorRegistryTest.class);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for InstrumentedGenerator and GeneratorMetrics.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class InstrumentedGeneratorTest extends TestCase {
+
+    public void testCounts() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        MersenneTwister mt = new MersenneTwister(42);
+        MersenneTwister ref = new MersenneTwister(42);
+        InstrumentedGenerator r = new InstrumentedGenerator(mt, m, false);
+        // MersenneTwister regenerates its state on the first call and
+        // then every 624 calls
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(ref.next(7), r.next(7));
+        }
+        assertEquals(1000L, m.getCalls());
+        assertEquals(7000L, m.getBits());
+        assertEquals(2L, m.getRefills());
+        assertEquals(2L, mt.getRefills());
+        assertEquals(0L, m.getLatencyCount());
+
+        // shared between generators
+        InstrumentedGenerator r2 = new InstrumentedGenerator(new LinearSunJDK(1L), m, false);
+        r2.next(32);
+        assertEquals(1001L, m.getCalls());
+        assertEquals(7032L, m.getBits());
+
+        m.reset();
+        assertEquals(0L, m.getCalls());
+        assertEquals(0L, m.getBits());
+        assertEquals(0L, m.getRefills());
+    }
+
+    public void testRefills64() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        InstrumentedGenerator r = new InstrumentedGenerator(new MersenneTwister64(42L), m, false);
+        // two 32-bit values per word, 312 words per refill
+        for (int i = 0; i < 2 * 312 + 1; ++i) {
+            r.next(32);
+        }
+        assertEquals(2L, m.getRefills());
+    }
+
+    public void testTimed() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        InstrumentedGenerator r = new InstrumentedGenerator(new BaileyCrandall(42L), m, true);
+        for (int i = 0; i < 100; ++i) {
+            r.next(32);
+        }
+        assertEquals(100L, m.getCalls());
+        assertEquals(100L, m.getLatencyCount());
+        assertTrue(m.getLatencyMaxNanos() > 0L);
+        assertTrue(m.getLatencyP50Nanos() <= m.getLatencyP99Nanos());
+        assertTrue(m.getLatencyP99Nanos() <= m.getLatencyMaxNanos());
+    }
+
+    public void testWrap() {
+        // the property isn't set for tests
+        assertFalse(GeneratorMetrics.isEnabled());
+        RandomGenerator g = new LinearSunJDK(1L);
+        assertSame(g, InstrumentedGenerator.wrap(g, new GeneratorMetrics("test"), true));
+    }
+
+    public void testInstrumentKeepsInterfaces() {
+        RandomGenerator[] gens = {
+            new LinearSunJDK(1L),
+            new MersenneTwister(1),
+            new MersenneTwister64(1L),
+            new Rule30Cells192(1L),
+            new BaileyCrandall(1L),
+            new Xoshiro256StarStar(1L),
+            new BlumBlumShub(BigInteger.valueOf(253L), new byte[] { 3 })
+        };
+        Class<?>[] caps = {
+            BulkGenerator.class, SplittableGenerator.class,
+            StatefulGenerator.class, JumpableGenerator.class
+        };
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        for (int g = 0; g < gens.length; ++g) {
+            InstrumentedGenerator r = InstrumentedGenerator.instrument(gens[g], m, false);
+            assertSame(gens[g], r.getGenerator());
+            for (int c = 0; c < caps.length; ++c) {
+                assertEquals(gens[g].getClass().getName() + " " + caps[c].getName(),
+                             caps[c].isInstance(gens[g]), caps[c].isInstance(r));
+            }
+        }
+    }
+
+    public void testInstrumentSubstreams() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        RandomGenerator r = InstrumentedGenerator.instrument(new Xoshiro256StarStar(42L), m, false);
+        RandomGenerator[] streams = Substreams.create(r, 3);
+        RandomGenerator[] ref = Substreams.create(new Xoshiro256StarStar(42L), 3);
+        for (int i = 0; i < streams.length; ++i) {
+            assertTrue(streams[i] instanceof InstrumentedGenerator);
+            assertTrue(streams[i] instanceof JumpableGenerator);
+            assertEquals(((BulkGenerator) ref[i]).next64(),
+                         ((BulkGenerator) streams[i]).next64());
+        }
+        // the jumped copies count into the same metrics
+        assertEquals(3L, m.getCalls());
+        assertEquals(3L * 64, m.getBits());
+
+        long[] a = new long[10];
+        long[] b = new long[10];
+        ((BulkGenerator) ref[0]).nextLongs(a, 0, a.length);
+        ((BulkGenerator) streams[0]).nextLongs(b, 0, b.length);
+        assertTrue(Arrays.equals(a, b));
+        assertEquals(4L, m.getCalls());
+        assertEquals(13L * 64, m.getBits());
+
+        SplittableGenerator child = ((SplittableGenerator) r).split();
+        assertTrue(child instanceof JumpableGenerator);
+        assertEquals(new Xoshiro256StarStar(42L).split().next(32), child.next(32));
+        assertEquals(5L, m.getCalls());
+    }
+
+    public void testJmx() throws Exception {
+        GeneratorMetrics m = new GeneratorMetrics("jmx test, \"quoted\"");
+        ObjectName on = m.register();
+        assertSame(on, m.register());
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            new InstrumentedGenerator(new LinearSunJDK(1L), m, false).next(20);
+            assertEquals(Long.valueOf(1L), server.getAttribute(on, "Calls"));
+            assertEquals(Long.valueOf(20L), server.getAttribute(on, "Bits"));
+            server.invoke(on, "reset", new Object[0], new String[0]);
+            assertEquals(Long.valueOf(0L), server.getAttribute(on, "Bits"));
+        } finally {
+            m.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(on));
+    }
+
+    public void testFlightRecorder() throws Exception {
+        File f = File.createTempFile("generator", ".jfr");
+        try {
+            Recording rec = new Recording();
+            rec.enable("com.modp.random.GeneratorCall");
+            rec.start();
+            GeneratorMetrics m = new GeneratorMetrics("jfr");
+            InstrumentedGenerator r = new InstrumentedGenerator(new LinearSunJDK(1L), m, true);
+            for (int i = 0; i < 10; ++i) {
+                r.next(16);
+            }
+            rec.stop();
+            rec.dump(f.toPath());
+            rec.close();
+            List<RecordedEvent> events = RecordingFile.readAllEvents(f.toPath());
+            int n = 0;
+            for (RecordedEvent e : events) {
+                if (e.getEventType().getName().equals("com.modp.random.GeneratorCall")) {
+                    assertEquals("jfr", e.getString("metrics"));
+                    assertEquals(16, e.getInt("bits"));
+                    ++n;
+                }
+            }
+            assertEquals(10, n);
+        } finally {
+            f.delete();
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(InstrumentedGeneratorTest.class);
+    }
+}
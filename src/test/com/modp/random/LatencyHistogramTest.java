@@ -0,0 +1,128 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for LatencyHistogram.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public void testBuckets() {
+        // every bucket is contiguous with the next, and round trips
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; ++i) {
+            long lo = LatencyHistogram.lowest(i);
+            long hi = LatencyHistogram.highest(i);
+            assertTrue("Bucket " + i, lo <= hi);
+            assertEquals("Bucket " + i, hi + 1, LatencyHistogram.lowest(i + 1));
+            assertEquals("Bucket " + i, i, LatencyHistogram.index(lo));
+            assertEquals("Bucket " + i, i, LatencyHistogram.index(hi));
+            // precision is 1/16
+            assertTrue("Bucket " + i, (hi - lo) * 16 <= lo || lo < 16);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.index(0L));
+        assertEquals(15, LatencyHistogram.index(15L));
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0L, h.getPercentile(99.0));
+        assertEquals(0.0, h.getMean(), 0.0);
+        for (long i = 1; i <= 1000; ++i) {
+            h.record(i * 1000L);
+        }
+        assertEquals(1000L, h.getCount());
+        assertEquals(1000000L, h.getMax());
+        assertEquals(500500.0, h.getMean(), 1e-9);
+        assertWithin(500000L, h.getPercentile(50.0));
+        assertWithin(990000L, h.getPercentile(99.0));
+        assertWithin(999000L, h.getPercentile(99.9));
+        assertEquals(1000000L, h.getPercentile(100.0));
+        assertWithin(1000L, h.getPercentile(0.0));
+
+        h.record(-5L);
+        assertEquals(0L, h.getPercentile(0.0));
+
+        h.reset();
+        assertEquals(0L, h.getCount());
+        assertEquals(0L, h.getMax());
+        assertEquals(0L, h.getPercentile(50.0));
+
+        try {
+            h.getPercentile(101.0);
+            fail("Accepted a percentile over 100");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testThreads() throws InterruptedException {
+        final LatencyHistogram h = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; ++i) {
+                        h.record(i);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t].join();
+        }
+        assertEquals(40000L, h.getCount());
+        assertEquals(9999L, h.getMax());
+    }
+
+    /**
+     * The result is the top of the bucket, so is at most 1/16 high.
+     */
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue(expected + " vs " + actual,
+                   actual >= expected && actual <= expected + expected / 16);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(LatencyHistogramTest.class);
+    }
+}
@@ -55,6 +55,53 @@ public class LinearSunJDKTest extends TestCase {
 	}
     }
 
+    /**
+     * Skipping should be the same as stepping
+     */
+    public void testSkip() {
+	LinearSunJDK r1 = new LinearSunJDK(1L);
+	LinearSunJDK r2 = new LinearSunJDK(1L);
+	long start = r1.getState();
+	int[] sizes = { 0, 1, 2, 3, 17, 100, 1000 };
+	for (int k = 0; k < sizes.length; ++k) {
+	    for (int i = 0; i < sizes[k]; ++i) {
+		r1.next(32);
+	    }
+	    r2.skip(sizes[k]);
+	    assertEquals("Skip " + sizes[k], r1.getState(), r2.getState());
+	    assertEquals(r1.next(32), r2.next(32));
+	}
+
+	// and backwards to the start
+	r2.skip(-1123L - 7L);
+	assertEquals(start, r2.getState());
+
+	// the period is 2^48
+	r2.skip(1L << 48);
+	assertEquals(start, r2.getState());
+    }
+
+    /**
+     * A split starts 2^28 outputs ahead, then 2^29, and so on
+     */
+    public void testSplit() {
+	LinearSunJDK p = new LinearSunJDK(1L);
+	LinearSunJDK r = new LinearSunJDK(1L);
+	for (int k = 0; k < 20; ++k) {
+	    LinearSunJDK c = p.split();
+	    LinearSunJDK expected = new LinearSunJDK(0L);
+	    expected.setState(r.getState());
+	    expected.skip(1L << (28 + k));
+	    assertEquals("Split " + k, expected.getState(), c.getState());
+	}
+	try {
+	    p.split();
+	    fail("split past the period");
+	} catch (IllegalStateException e) {
+	    // ok
+	}
+    }
+
     public static void main(String[] args) {
 	junit.textui.TestRunner.run(LinearSunJDKTest.class);
     }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MappedRandomPool
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class MappedRandomPoolTest extends TestCase {
+
+    private File file;
+
+    protected void setUp() throws IOException {
+        file = File.createTempFile("pool", ".bin");
+    }
+
+    protected void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Chunk i holds the start of substream i
+     */
+    public void testCreate() throws IOException {
+        MappedRandomPool pool = MappedRandomPool.create(file, "xoshiro256starstar", 42L, 8000L, 1024, 3);
+        assertEquals("Xoshiro256StarStar", pool.getAlgorithm());
+        assertEquals(42L, pool.getSeed());
+        assertEquals(8000L, pool.getWords());
+        assertEquals(1024, pool.getChunkWords());
+        assertEquals(8, pool.getChunks());
+
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("Xoshiro256StarStar");
+        RandomGenerator[] streams = MappedRandomPool.substreams(p, 42L, 8);
+        MappedRandomPool.Reader r = pool.reader();
+        for (int i = 0; i < 8000; ++i) {
+            long expected = ((BulkGenerator) streams[i / 1024]).next64();
+            assertEquals("Word " + i, expected, pool.word(i));
+            assertEquals("Word " + i, expected, r.next64());
+        }
+        try {
+            r.next64();
+            fail("read past the end");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+
+    /**
+     * Reopening gives the same header and words, in bulk or one at a time
+     */
+    public void testOpen() throws IOException {
+        // not splittable and not bulk
+        MappedRandomPool.create(file, "Rule30Cells", 7L, 3000L, 1000, 2);
+        MappedRandomPool pool = MappedRandomPool.open(file);
+        assertEquals("Rule30Cells", pool.getAlgorithm());
+        assertEquals(7L, pool.getSeed());
+        assertEquals(3, pool.getChunks());
+
+        long[] buf = new long[250];
+        MappedRandomPool.Reader r = pool.reader(20L);
+        r.nextLongs(buf, 0, buf.length);
+        assertEquals(270L, r.getPosition());
+        for (int i = 0; i < buf.length; ++i) {
+            assertEquals(pool.word(20L + i), buf[i]);
+        }
+    }
+
+    public void testVerify() throws IOException {
+        MappedRandomPool.create(file, "MersenneTwister64", 1L, 10000L, 2560, 2);
+        assertEquals(-1, MappedRandomPool.open(file).verify(2));
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(MappedRandomPool.HEADER_SIZE + 6000 * 8L);
+        int b = raf.read();
+        raf.seek(MappedRandomPool.HEADER_SIZE + 6000 * 8L);
+        raf.write(b ^ 1);
+        raf.close();
+        assertEquals(2, MappedRandomPool.open(file).verify(2));
+    }
+
+    /**
+     * Chunks of a jumpable generator are whole jumps apart
+     */
+    public void testJumpedChunks() {
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("Xoshiro256StarStar");
+        RandomGenerator[] streams = MappedRandomPool.substreams(p, 42L, 4);
+        Xoshiro256StarStar root = (Xoshiro256StarStar) p.create(42L);
+        for (int i = 0; i < streams.length; ++i) {
+            assertEquals(root.copy().next64(), ((BulkGenerator) streams[i]).next64());
+            root.jump();
+        }
+    }
+
+    /**
+     * A generator that allows only 20 splits still makes many chunks,
+     * and asking for more streams than it can make is an
+     * IllegalArgumentException
+     */
+    public void testSplitLimit() throws IOException {
+        MappedRandomPool pool = MappedRandomPool.create(file, "LinearSunJDK", 7L, 65536L, 1024, 2);
+        assertEquals(64, pool.getChunks());
+        assertEquals(-1, pool.verify(2));
+
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("LinearSunJDK");
+        try {
+            MappedRandomPool.substreams(p, 7L, (1 << 20) + 1);
+            fail("too many splits");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * Tiny chunks and too many chunks are rejected before the file is
+     * touched
+     */
+    public void testChunkLimits() throws IOException {
+        MappedRandomPool.create(file, "xoshiro256starstar", 7L, 1000L, 512, 1);
+        long length = file.length();
+        long[][] bad = {
+            { 1000L, MappedRandomPool.MIN_CHUNK_WORDS - 1 },
+            { (long) MappedRandomPool.MAX_CHUNKS * 512 + 1, 512 },
+            { Long.MAX_VALUE, MappedRandomPool.MAX_CHUNK_WORDS }
+        };
+        for (int i = 0; i < bad.length; ++i) {
+            try {
+                MappedRandomPool.create(file, "xoshiro256starstar", 7L, bad[i][0], (int) bad[i][1], 1);
+                fail("accepted " + bad[i][0] + " words in chunks of " + bad[i][1]);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+        }
+        assertEquals(length, file.length());
+        assertEquals(-1, MappedRandomPool.open(file).verify(1));
+    }
+
+    /**
+     * Making the pool again replaces the file, and leaves a pool that
+     * is already open reading the old words
+     */
+    public void testReplace() throws IOException {
+        MappedRandomPool old = MappedRandomPool.create(file, "xoshiro256starstar", 1L, 1024L, 512, 1);
+        long w0 = old.word(0L);
+        long w1023 = old.word(1023L);
+
+        MappedRandomPool pool = MappedRandomPool.create(file, "xoshiro256starstar", 2L, 2048L, 512, 1);
+        assertEquals(2048L, pool.getWords());
+        assertEquals(2L, MappedRandomPool.open(file).getSeed());
+        assertTrue(w0 != pool.word(0L));
+
+        assertEquals(w0, old.word(0L));
+        assertEquals(w1023, old.word(1023L));
+        assertEquals(-1, old.verify(1));
+
+        // no temporary files left behind
+        File[] left = file.getAbsoluteFile().getParentFile().listFiles();
+        for (int i = 0; i < left.length; ++i) {
+            assertFalse(left[i].getName(), left[i].getName().startsWith("." + file.getName()));
+        }
+    }
+
+    public void testNotAPool() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.write(new byte[100]);
+        raf.close();
+        try {
+            MappedRandomPool.open(file);
+            fail("not a pool");
+        } catch (IOException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(MappedRandomPoolTest.class);
+    }
+}
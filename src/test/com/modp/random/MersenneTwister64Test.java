@@ -73,6 +73,52 @@ public class MersenneTwister64Test extends TestCase {
 	}
     }
 
+    /**
+     * Jumping should be the same as stepping, from any point in a block
+     */
+    public void testJump() {
+	int[] sizes = { 0, 1, 311, 312, 1000 };
+	for (int k = 0; k < sizes.length; ++k) {
+	    MersenneTwister64 r1 = new MersenneTwister64(12345L);
+	    MersenneTwister64 r2 = new MersenneTwister64(12345L);
+	    for (int i = 0; i < sizes[k]; ++i) {
+		r1.next64();
+		r2.next64();
+	    }
+	    r1.jumpPow2(15);
+	    for (int i = 0; i < (1 << 15); ++i) {
+		r2.next64();
+	    }
+	    for (int i = 0; i < 1000; ++i) {
+		assertEquals("Size " + sizes[k] + " step " + i, r2.next64(), r1.next64());
+	    }
+	}
+    }
+
+    /**
+     * Splits are reproducible and different from the parent
+     */
+    public void testSplit() {
+	MersenneTwister64 p1 = new MersenneTwister64(42L);
+	MersenneTwister64 p2 = new MersenneTwister64(42L);
+	// leave half of a 64-bit output in the parent
+	p1.next(32);
+	p2.next(32);
+	MersenneTwister64 a1 = p1.split();
+	MersenneTwister64 b1 = p1.split();
+	MersenneTwister64 a2 = p2.split();
+	MersenneTwister64 b2 = p2.split();
+	for (int i = 0; i < 1000; ++i) {
+	    long p = p1.next64();
+	    assertEquals(p, p2.next64());
+	    long a = a1.next64();
+	    assertEquals(a, a2.next64());
+	    long b = b1.next64();
+	    assertEquals(b, b2.next64());
+	    assertFalse(p == a || a == b || p == b);
+	}
+    }
+
     public static void main(String[] args) {
 	junit.textui.TestRunner.run(MersenneTwister64Test.class);
     }
@@ -63,6 +63,68 @@ public class MersenneTwisterTest extends TestCase {
 	}
     }
 
+    /**
+     * Jumping should be the same as stepping, from any point in a block
+     */
+    public void testJump() {
+	int[] sizes = { 0, 1, 623, 624, 1000 };
+	for (int k = 0; k < sizes.length; ++k) {
+	    MersenneTwister r1 = new MersenneTwister(12345);
+	    MersenneTwister r2 = new MersenneTwister(12345);
+	    for (int i = 0; i < sizes[k]; ++i) {
+		r1.next(32);
+		r2.next(32);
+	    }
+	    r1.jumpPow2(15);
+	    for (int i = 0; i < (1 << 15); ++i) {
+		r2.next(32);
+	    }
+	    for (int i = 0; i < 1000; ++i) {
+		assertEquals("Size " + sizes[k] + " step " + i, r2.next(32), r1.next(32));
+	    }
+	}
+    }
+
+    /**
+     * Splits are reproducible, and each child is the parent moved
+     * ahead by whole jumps: the first split of a generator is one jump
+     * (2<sup>128</sup>) ahead, the next two, and a child's own first
+     * split is two jumps ahead of the child.
+     */
+    public void testSplit() {
+	MersenneTwister p1 = new MersenneTwister(42);
+	MersenneTwister p2 = new MersenneTwister(42);
+	MersenneTwister a1 = p1.split();
+	MersenneTwister b1 = p1.split();
+	MersenneTwister a2 = p2.split();
+	MersenneTwister b2 = p2.split();
+	MersenneTwister c1 = a1.split();
+	MersenneTwister c2 = a2.split();
+
+	// the parent's stream, 1, 2 and 3 jumps ahead
+	MersenneTwister[] ref = new MersenneTwister[4];
+	MersenneTwister r = new MersenneTwister(42);
+	for (int k = 0; k < ref.length; ++k) {
+	    ref[k] = r.copy();
+	    r.jump();
+	}
+
+	for (int i = 0; i < 1000; ++i) {
+	    long p = p1.next(32);
+	    assertEquals(p, p2.next(32));
+	    assertEquals(ref[0].next(32), p);
+	    long a = a1.next(32);
+	    assertEquals(a, a2.next(32));
+	    assertEquals(ref[1].next(32), a);
+	    long b = b1.next(32);
+	    assertEquals(b, b2.next(32));
+	    assertEquals(ref[2].next(32), b);
+	    long c = c1.next(32);
+	    assertEquals(c, c2.next(32));
+	    assertEquals(ref[3].next(32), c);
+	}
+    }
+
     public static void main(String[] args) {
 	junit.textui.TestRunner.run(MersenneTwisterTest.class);
     }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for MonteCarloEngine.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class MonteCarloEngineTest extends TestCase {
+
+    /** Four times the fraction of points in the unit quarter circle */
+    private static final MonteCarloEngine.SampleFunction PI =
+        new MonteCarloEngine.SampleFunction() {
+            public double sample(RandomGenerator rng) {
+                double x = RandomStreams.nextDouble(rng);
+                double y = RandomStreams.nextDouble(rng);
+                return x * x + y * y < 1.0 ? 4.0 : 0.0;
+            }
+        };
+
+    public void testPi() {
+        MonteCarloEngine mc = new MonteCarloEngine(ForkJoinPool.commonPool(), 10000);
+        RunningStatistics s = mc.run(new Xoshiro256PlusPlus(1L), 1000000L, PI);
+        assertEquals(1000000L, s.getCount());
+        // standard error is about 0.0016
+        assertEquals(Math.PI, s.getMean(), 0.01);
+        assertTrue(s.getStandardError() < 0.002);
+    }
+
+    /**
+     * Same bits on one thread or four, and the generator is unchanged.
+     */
+    public void testReproducible() {
+        Xoshiro256PlusPlus rng = new Xoshiro256PlusPlus(2L);
+        Xoshiro256PlusPlus before = rng.copy();
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            // a partial last chunk
+            RunningStatistics a = new MonteCarloEngine(one, 1000).run(rng, 123456L, PI);
+            RunningStatistics b = new MonteCarloEngine(four, 1000).run(rng, 123456L, PI);
+            assertEquals(123456L, a.getCount());
+            assertEquals(Double.doubleToLongBits(a.getMean()),
+                         Double.doubleToLongBits(b.getMean()));
+            assertEquals(Double.doubleToLongBits(a.getVariance()),
+                         Double.doubleToLongBits(b.getVariance()));
+            assertEquals(Double.doubleToLongBits(a.getSum()),
+                         Double.doubleToLongBits(b.getSum()));
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+        assertEquals(before.next(32), rng.next(32));
+    }
+
+    /**
+     * Chunk i uses the generator jumped i times.
+     */
+    public void testJumpStreams() {
+        final Xoroshiro128PlusPlus rng = new Xoroshiro128PlusPlus(3L);
+        RunningStatistics s = new MonteCarloEngine(ForkJoinPool.commonPool(), 1).run(
+            rng, 3L, new MonteCarloEngine.SampleFunction() {
+                public double sample(RandomGenerator g) {
+                    return g.next(32) & 0xffffffffL;
+                }
+            });
+        Xoroshiro128PlusPlus g = rng.copy();
+        double sum = 0;
+        for (int i = 0; i < 3; ++i) {
+            sum += g.copy().next(32) & 0xffffffffL;
+            g.jump();
+        }
+        assertEquals(sum, s.getSum(), 0.0);
+    }
+
+    /**
+     * Streams are jumped a block at a time; more than one block gives
+     * the same streams, on any number of threads
+     */
+    public void testManyBlocks() {
+        final Xoroshiro128PlusPlus rng = new Xoroshiro128PlusPlus(6L);
+        MonteCarloEngine.SampleFunction first = new MonteCarloEngine.SampleFunction() {
+            public double sample(RandomGenerator g) {
+                return g.next(32) & 0xffffffffL;
+            }
+        };
+        ForkJoinPool four = new ForkJoinPool(4);
+        RunningStatistics a;
+        RunningStatistics b;
+        try {
+            a = new MonteCarloEngine(ForkJoinPool.commonPool(), 1).run(rng, 600L, first);
+            b = new MonteCarloEngine(four, 1).run(rng, 600L, first);
+        } finally {
+            four.shutdown();
+        }
+        Xoroshiro128PlusPlus g = rng.copy();
+        RunningStatistics expected = new RunningStatistics();
+        for (int i = 0; i < 600; ++i) {
+            expected.add(g.copy().next(32) & 0xffffffffL);
+            g.jump();
+        }
+        assertEquals(600L, a.getCount());
+        assertEquals(expected.getSum(), a.getSum(), 0.0);
+        assertEquals(Double.doubleToLongBits(a.getVariance()),
+                     Double.doubleToLongBits(b.getVariance()));
+    }
+
+    public void testSplittable() {
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            RunningStatistics a = new MonteCarloEngine(ForkJoinPool.commonPool(), 500)
+                .run(new SplitMix64(4L), 20000L, PI);
+            RunningStatistics b = new MonteCarloEngine(four, 500)
+                .run(new SplitMix64(4L), 20000L, PI);
+            assertEquals(Double.doubleToLongBits(a.getMean()),
+                         Double.doubleToLongBits(b.getMean()));
+        } finally {
+            four.shutdown();
+        }
+    }
+
+    public void testNoSamples() {
+        RunningStatistics s = new MonteCarloEngine().run(new SplitMix64(5L), 0L, PI);
+        assertEquals(0L, s.getCount());
+    }
+
+    public void testBadArguments() {
+        MonteCarloEngine mc = new MonteCarloEngine();
+        try {
+            mc.run(new BlumBlumShub(512), 10L, PI);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // neither jumpable nor splittable
+        }
+        try {
+            mc.run(new SplitMix64(1L), -1L, PI);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            mc.run(new SplitMix64(1L), Long.MAX_VALUE, PI);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("too many chunks"));
+        }
+        try {
+            mc.run(new Xoshiro256StarStar(1L), Long.MAX_VALUE, PI);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("too many chunks"));
+        }
+        try {
+            new MonteCarloEngine(ForkJoinPool.commonPool(), 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(MonteCarloEngineTest.class);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Philox4x32-10.
+ *
+ * The known answers are from the Random123 distribution
+ * (examples/kat_vectors).
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Philox4x32Test extends TestCase {
+
+    public void testCorrectness() {
+        int[] out = new int[4];
+        Philox4x32.encrypt(0L, 0L, 0, 0, out);
+        assertBlock(new int[] { 0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8 }, out);
+
+        Philox4x32.encrypt(-1L, -1L, -1, -1, out);
+        assertBlock(new int[] { 0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd }, out);
+
+        Philox4x32.encrypt(0x85a308d3243f6a88L, 0x0370734413198a2eL,
+                           0xa4093822, 0x299f31d0, out);
+        assertBlock(new int[] { 0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1 }, out);
+    }
+
+    /**
+     * seek, at and next agree
+     */
+    public void testSeek() {
+        final long key = 0x0123456789abcdefL;
+        Philox4x32 r = new Philox4x32(key);
+        int[] words = new int[100];
+        for (int i = 0; i < words.length; ++i) {
+            assertEquals(i, r.getPosition());
+            words[i] = (int) r.next(32);
+            assertEquals(Philox4x32.at(key, i), words[i]);
+        }
+        for (int i = words.length - 1; i >= 0; --i) {
+            r.seek(i);
+            assertEquals(i, r.getPosition());
+            assertEquals(words[i], (int) r.next(32));
+        }
+    }
+
+    /**
+     * Bulk output is the same as one at a time, from any position
+     */
+    public void testNextLongs() {
+        for (int start = 0; start < 4; ++start) {
+            Philox4x32 r1 = new Philox4x32(7L);
+            Philox4x32 r2 = new Philox4x32(7L);
+            r1.seek(start);
+            r2.seek(start);
+            long[] buf = new long[13];
+            r1.nextLongs(buf, 1, 11);
+            for (int i = 1; i < 12; ++i) {
+                assertEquals("Start " + start + " step " + i, r2.next64(), buf[i]);
+            }
+            assertEquals(r2.next64(), r1.next64());
+        }
+    }
+
+    private static void assertBlock(int[] expected, int[] actual) {
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals("Word " + i, expected[i], actual[i]);
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(Philox4x32Test.class);
+    }
+}
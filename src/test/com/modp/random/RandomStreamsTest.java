@@ -0,0 +1,124 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.PrimitiveIterator;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for RandomStreams
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class RandomStreamsTest extends TestCase {
+
+    /**
+     * Without a bulk path, values come from next(32)
+     */
+    public void testInts() {
+        MersenneTwister r1 = new MersenneTwister(1);
+        MersenneTwister r2 = new MersenneTwister(1);
+        int[] a = RandomStreams.ints(r1, 1000).toArray();
+        assertEquals(1000, a.length);
+        for (int i = 0; i < a.length; ++i) {
+            assertEquals("Step " + i, (int) r2.next(32), a[i]);
+        }
+    }
+
+    /**
+     * With a bulk path, one at a time and all at once give the same values
+     */
+    public void testBulk() {
+        for (int n = 0; n < 10; ++n) {
+            int size = 1000 + n;
+            int[] a = RandomStreams.ints(new Rule30Cells192(1L), size).toArray();
+            PrimitiveIterator.OfInt it = RandomStreams.ints(new Rule30Cells192(1L), size).iterator();
+            for (int i = 0; i < size; ++i) {
+                assertEquals("Step " + i, it.nextInt(), a[i]);
+            }
+            assertFalse(it.hasNext());
+        }
+
+        MersenneTwister64 r = new MersenneTwister64(1L);
+        long[] b = RandomStreams.longs(new MersenneTwister64(1L), 1000).toArray();
+        for (int i = 0; i < b.length; ++i) {
+            assertEquals("Step " + i, r.next64(), b[i]);
+        }
+    }
+
+    public void testDoubles() {
+        double[] a = RandomStreams.doubles(new MersenneTwister64(1L), 10000).toArray();
+        double[] b = RandomStreams.doubles(new LinearSunJDK(1L), 10000).toArray();
+        double sum = 0.0;
+        for (int i = 0; i < a.length; ++i) {
+            assertTrue(a[i] >= 0.0 && a[i] < 1.0);
+            assertTrue(b[i] >= 0.0 && b[i] < 1.0);
+            sum += a[i] + b[i];
+        }
+        assertEquals(1.0, sum / a.length, 0.05);
+
+        // same as java.util.Random
+        java.util.Random jdk = new java.util.Random(1L);
+        for (int i = 0; i < b.length; ++i) {
+            assertEquals(jdk.nextDouble(), b[i], 0.0);
+        }
+    }
+
+    /**
+     * Splittable generators split, others run in one piece
+     */
+    public void testParallel() {
+        assertNotNull(RandomStreams.longs(new MersenneTwister64(1L), 1000)
+                      .spliterator().trySplit());
+        assertNull(RandomStreams.longs(new Rule30Cells192(1L), 1000)
+                   .spliterator().trySplit());
+
+        final int n = 100000;
+        assertEquals(n, RandomStreams.longs(new MersenneTwister64(1L), n)
+                     .parallel().distinct().count());
+        assertEquals(n, RandomStreams.ints(new Rule30Cells192(1L), n)
+                     .parallel().count());
+        double mean = RandomStreams.doubles(new LinearSunJDK(1L), n)
+            .parallel().average().getAsDouble();
+        assertEquals(0.5, mean, 0.01);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(RandomStreamsTest.class);
+    }
+}
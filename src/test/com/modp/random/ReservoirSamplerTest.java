@@ -0,0 +1,140 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ReservoirSampler.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ReservoirSamplerTest extends TestCase {
+
+    public void testSmallStream() {
+        ReservoirSampler<String> s = new ReservoirSampler<String>(5, new SplitMix64(1L));
+        assertEquals(0, s.size());
+        assertTrue(s.add("a"));
+        assertTrue(s.add("b"));
+        assertEquals(2, s.size());
+        assertEquals(0L, s.skippable());
+        List<String> sample = s.getSample();
+        assertEquals(2, sample.size());
+        assertEquals("a", sample.get(0));
+        assertEquals("b", sample.get(1));
+    }
+
+    /**
+     * Every item of the stream is in the sample with probability k / n.
+     */
+    public void testUniform() {
+        final int k = 10;
+        final int n = 100;
+        final int trials = 20000;
+        int[] counts = new int[n];
+        RandomGenerator r = new Xoshiro256PlusPlus(1L);
+        for (int t = 0; t < trials; ++t) {
+            ReservoirSampler<Integer> s = new ReservoirSampler<Integer>(k, r);
+            for (int i = 0; i < n; ++i) {
+                s.add(Integer.valueOf(i));
+            }
+            assertEquals(k, s.size());
+            for (Integer v : s.getSample()) {
+                counts[v.intValue()]++;
+            }
+        }
+        final double expected = (double) trials * k / n;
+        double chi2 = 0.0;
+        for (int i = 0; i < n; ++i) {
+            double d = counts[i] - expected;
+            chi2 += d * d / expected;
+        }
+        // 99 degrees of freedom, p = 0.001, a little loose since the
+        // counts add up to a constant
+        assertTrue("chi2 " + chi2, chi2 < 149.0);
+    }
+
+    public void testSkip() {
+        // skipping gives the same sample as adding every item
+        ReservoirSampler<Long> a = new ReservoirSampler<Long>(20, new SplitMix64(7L));
+        ReservoirSampler<Long> b = new ReservoirSampler<Long>(20, new SplitMix64(7L));
+        final long n = 1000000;
+        for (long i = 0; i < n; ++i) {
+            a.add(Long.valueOf(i));
+        }
+        long looked = 0;
+        long i = 0;
+        while (i < n) {
+            long skip = Math.min(b.skippable(), n - i);
+            b.skip(skip);
+            i += skip;
+            if (i < n) {
+                b.add(Long.valueOf(i));
+                ++looked;
+                ++i;
+            }
+        }
+        assertEquals(n, b.getCount());
+        assertEquals(a.getSample(), b.getSample());
+        // about k (1 + ln(n / k)) = 236 items looked at
+        assertTrue("looked at " + looked, looked < 500);
+        try {
+            b.skip(b.skippable() + 1);
+            fail("Skipped past an item to keep");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testDraws() {
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        ReservoirSampler<Object> s = new ReservoirSampler<Object>(
+            10, new InstrumentedGenerator(new MersenneTwister(1), m, false));
+        Object o = new Object();
+        for (int i = 0; i < 1000000; ++i) {
+            s.add(o);
+        }
+        // about k (1 + ln(n / k)) = 125 items kept, five 32-bit calls each
+        assertTrue("calls " + m.getCalls(), m.getCalls() < 1000);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(ReservoirSamplerTest.class);
+    }
+}
@@ -131,6 +131,29 @@ public class Rule30Cells192Test extends TestCase {
 	assertTrue(Arrays.equals(r.getState(), result6));
     }
 
+    /**
+     * Check the fast bit slicing against a simple bit-by-bit version,
+     * and that getSeed undoes it.
+     */
+    public void testBitSliceRandom() {
+	java.util.Random rand = new java.util.Random(1L);
+	Rule30Cells192 r = new Rule30Cells192();
+	long[] seed = new long[3];
+	for (int i = 0; i < 1000; ++i) {
+	    long[] input = { rand.nextLong(), rand.nextLong(), rand.nextLong() };
+	    long[] expected = new long[3];
+	    for (int j = 0; j < 192; ++j) {
+		if ((input[j / 64] & (1L << (j % 64))) != 0L) {
+		    expected[j % 3] |= (1L << (j / 3));
+		}
+	    }
+	    r.setSeed(input[0], input[1], input[2]);
+	    assertTrue("Seed " + i, Arrays.equals(expected, r.getState()));
+	    r.getSeed(seed);
+	    assertTrue("Seed " + i, Arrays.equals(input, seed));
+	}
+    }
+
     /**
      * Test to make sure generate is producing correct results
      */
@@ -142,6 +165,46 @@ public class Rule30Cells192Test extends TestCase {
 	}
     }
 
+    /**
+     * Multi-bit calls and skip must produce the same sequence as next(1)
+     */
+    public void testMultiStep() {
+	Rule30Cells192 r1 = new Rule30Cells192(0L, 1L << 32, 0L);
+	Rule30Cells192 r2 = new Rule30Cells192(0L, 1L << 32, 0L);
+	int[] sizes = { 1, 3, 4, 7, 32, 64, 5 };
+	for (int k = 0; k < 50; ++k) {
+	    int n = sizes[k % sizes.length];
+	    long expected = 0;
+	    for (int i = 0; i < n; ++i) {
+		expected = (expected << 1) | r1.next(1);
+	    }
+	    long result = (n == 64) ? r2.next64() : r2.next(n);
+	    assertEquals("Call " + k, expected, result);
+	}
+
+	r1.setSeed(0L, 1L << 32, 0L);
+	r2.setSeed(0L, 1L << 32, 0L);
+	for (int i = 0; i < 131; ++i) {
+	    r1.next(1);
+	}
+	r2.skip(131);
+	assertTrue(Arrays.equals(r1.getState(), r2.getState()));
+	assertEquals(results[131], r2.next(1));
+    }
+
+    public void testSkipNegative() {
+	Rule30Cells192 r = new Rule30Cells192(0L, 1L << 32, 0L);
+	try {
+	    r.skip(-1);
+	    fail();
+	} catch (IllegalArgumentException e) {
+	    // ok
+	}
+	assertEquals(results[0], r.next(1));
+	r.skip(0);
+	assertEquals(results[1], r.next(1));
+    }
+
     public static void main(String[] args) {
 	junit.textui.TestRunner.run(Rule30Cells192Test.class);
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+import java.util.Arrays;
+
+/**
+ * Unit tests for Rule30Cells
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Rule30CellsTest extends TestCase {
+
+    /**
+     * A 192 cell automaton with a single tap must match the
+     * reference implementation (which is checked against Mathematica)
+     */
+    public void testMatchesRule30Cells192() {
+	Rule30Cells192 ref = new Rule30Cells192(0L, 1L << 32, 0L);
+	Rule30Cells r = new Rule30Cells(192, 1, 1L << 32);
+	for (int i = 0; i < 1000; ++i) {
+	    assertEquals("Step " + i, ref.next(1), r.next(1));
+	}
+
+	// In the bit-sliced state, block b, bit p is cell (b - 3p) mod 192
+	java.util.Random seeds = new java.util.Random(1L);
+	for (int j = 0; j < 10; ++j) {
+	    ref.setSeed(seeds.nextLong(), seeds.nextLong(), seeds.nextLong());
+	    long[] sliced = ref.getState();
+	    long[] seed = new long[3];
+	    for (int b = 0; b < 3; ++b) {
+		for (int p = 0; p < 64; ++p) {
+		    if ((sliced[b] & (1L << p)) != 0L) {
+			int c = (b - 3 * p + 192) % 192;
+			seed[c / 64] |= 1L << (c % 64);
+		    }
+		}
+	    }
+	    r.setSeed(seed);
+	    for (int i = 0; i < 100; ++i) {
+		assertEquals("Seed " + j + " Step " + i, ref.next(32), r.next(32));
+	    }
+	}
+    }
+
+    /**
+     * Taps are returned most significant first, and no bits
+     * are lost between calls.
+     */
+    public void testTaps() {
+	long[] seed = new long[8];
+	for (int i = 0; i < seed.length; ++i) {
+	    seed[i] = 0x9E3779B97F4A7C15L * (i + 1);
+	}
+
+	Rule30Cells a = new Rule30Cells(seed, 8);
+	Rule30Cells b = new Rule30Cells(seed, 8);
+	for (int i = 0; i < 100; ++i) {
+	    long bits = a.step();
+	    for (int j = 7; j >= 0; --j) {
+		assertEquals((bits >>> j) & 1L, b.next(1));
+	    }
+	}
+
+	// 3 bits at a time doesn't line up with 8 taps
+	a.setSeed(seed);
+	b.setSeed(seed);
+	for (int i = 0; i < 100; ++i) {
+	    long expected = (a.next(1) << 2) | (a.next(1) << 1) | a.next(1);
+	    assertEquals(expected, b.next(3));
+	}
+    }
+
+    /**
+     * Bulk output matches next64
+     */
+    public void testNextLongs() {
+	long[] seed = new long[64];
+	seed[32] = 1L;
+	int[] taps = { 1, 8, 64 };
+	for (int t = 0; t < taps.length; ++t) {
+	    Rule30Cells a = new Rule30Cells(seed, taps[t]);
+	    Rule30Cells b = new Rule30Cells(seed, taps[t]);
+	    long[] bulk = new long[20];
+	    b.nextLongs(bulk, 2, 18);
+	    for (int i = 2; i < bulk.length; ++i) {
+		assertEquals("Taps " + taps[t] + " index " + i, a.next64(), bulk[i]);
+	    }
+	}
+    }
+
+    public void testState() {
+	Rule30Cells r = new Rule30Cells(256, 4, 0L);
+	long[] seed = { 1L, 2L, 3L, 4L };
+	r.setSeed(seed);
+	assertTrue(Arrays.equals(seed, r.getState()));
+	assertEquals(256, r.getCells());
+	assertEquals(4, r.getTaps());
+	try {
+	    new Rule30Cells(100);
+	    fail("Expected exception");
+	} catch (IllegalArgumentException e) {
+	    // ok
+	}
+    }
+
+    public static void main(String[] args) {
+	junit.textui.TestRunner.run(Rule30CellsTest.class);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for RunningStatistics.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class RunningStatisticsTest extends TestCase {
+
+    public void testEmpty() {
+        RunningStatistics s = new RunningStatistics();
+        assertEquals(0L, s.getCount());
+        assertTrue(Double.isNaN(s.getMean()));
+        assertTrue(Double.isNaN(s.getVariance()));
+        assertEquals(0.0, s.getSum(), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, s.getMin(), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, s.getMax(), 0.0);
+    }
+
+    public void testSmall() {
+        RunningStatistics s = new RunningStatistics();
+        double[] xs = {2, 4, 4, 4, 5, 5, 7, 9};
+        for (int i = 0; i < xs.length; ++i) {
+            s.add(xs[i]);
+        }
+        assertEquals(8L, s.getCount());
+        assertEquals(5.0, s.getMean(), 1e-15);
+        assertEquals(32.0 / 7.0, s.getVariance(), 1e-14);
+        assertEquals(40.0, s.getSum(), 0.0);
+        assertEquals(2.0, s.getMin(), 0.0);
+        assertEquals(9.0, s.getMax(), 0.0);
+        assertEquals(Math.sqrt(32.0 / 7.0 / 8.0), s.getStandardError(), 1e-14);
+    }
+
+    /**
+     * A large offset wrecks the sum-of-squares formula but not Welford.
+     */
+    public void testLargeOffset() {
+        RunningStatistics s = new RunningStatistics();
+        for (int i = 0; i < 1000; ++i) {
+            s.add(1e9 + (i % 2));
+        }
+        assertEquals(0.25 * 1000 / 999, s.getVariance(), 1e-9);
+    }
+
+    public void testCompensatedSum() {
+        RunningStatistics s = new RunningStatistics();
+        s.add(1.0);
+        s.add(1e100);
+        s.add(1.0);
+        s.add(-1e100);
+        assertEquals(2.0, s.getSum(), 0.0);
+    }
+
+    public void testMerge() {
+        SplitMix64 rng = new SplitMix64(7L);
+        RunningStatistics all = new RunningStatistics();
+        RunningStatistics a = new RunningStatistics();
+        RunningStatistics b = new RunningStatistics();
+        for (int i = 0; i < 1000; ++i) {
+            double x = (rng.next(32) & 0xffffffffL) / 65536.0;
+            all.add(x);
+            (i < 300 ? a : b).add(x);
+        }
+        RunningStatistics m = new RunningStatistics();
+        m.merge(a);
+        m.merge(new RunningStatistics());
+        m.merge(b);
+        assertEquals(all.getCount(), m.getCount());
+        assertEquals(all.getMean(), m.getMean(), 1e-9);
+        assertEquals(all.getVariance(), m.getVariance(), 1e-6);
+        assertEquals(all.getSum(), m.getSum(), 1e-6);
+        assertEquals(all.getMin(), m.getMin(), 0.0);
+        assertEquals(all.getMax(), m.getMax(), 0.0);
+        // a is unchanged
+        assertEquals(300L, a.getCount());
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(RunningStatisticsTest.class);
+    }
+}
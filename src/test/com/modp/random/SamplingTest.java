@@ -0,0 +1,151 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Sampling and LongHashSet.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class SamplingTest extends TestCase {
+
+    private static void assertSample(final long[] s, final long n, final int k) {
+        assertEquals(k, s.length);
+        Set<Long> seen = new HashSet<Long>();
+        for (int i = 0; i < s.length; ++i) {
+            assertTrue(s[i] >= 0 && s[i] < n);
+            assertTrue("repeat " + s[i], seen.add(Long.valueOf(s[i])));
+        }
+    }
+
+    public void testRanges() {
+        RandomGenerator r = new SplitMix64(1L);
+        final long big = 1L << 40;
+        assertSample(Sampling.floyd(big, 10000, r), big, 10000);
+        assertSample(Sampling.select(big, 10000, r), big, 10000);
+        assertSample(Sampling.floyd(Long.MAX_VALUE, 100, r), Long.MAX_VALUE, 100);
+        assertSample(Sampling.floyd(1000, 1000, r), 1000, 1000);
+        assertSample(Sampling.select(1000, 1000, r), 1000, 1000);
+        assertSample(Sampling.select(1000, 700, new MersenneTwister(1)), 1000, 700);
+        assertSample(Sampling.floyd(5, 0, r), 5, 0);
+        try {
+            Sampling.floyd(5, 6, r);
+            fail("Accepted k > n");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * Each of the 10 choose 3 subsets equally often.
+     */
+    public void testUniformSubsets() {
+        final int trials = 120000;
+        for (int m = 0; m < 2; ++m) {
+            RandomGenerator r = new Xoshiro256StarStar(m);
+            int[] counts = new int[1024];
+            for (int t = 0; t < trials; ++t) {
+                long[] s = (m == 0) ? Sampling.floyd(10, 3, r) : Sampling.select(10, 3, r);
+                counts[(1 << s[0]) | (1 << s[1]) | (1 << s[2])]++;
+            }
+            double chi2 = 0.0;
+            int subsets = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                if (counts[i] != 0) {
+                    ++subsets;
+                    double d = counts[i] - trials / 120.0;
+                    chi2 += d * d / (trials / 120.0);
+                }
+            }
+            assertEquals(120, subsets);
+            // 119 degrees of freedom, p = 0.001
+            assertTrue("chi2 " + chi2, chi2 < 172.0);
+        }
+    }
+
+    public void testSelectOrder() {
+        // select's first value is uniform, unlike floyd's
+        int[] counts = new int[4];
+        RandomGenerator r = new SplitMix64(1L);
+        for (int t = 0; t < 40000; ++t) {
+            counts[(int) Sampling.select(4, 2, r)[0]]++;
+        }
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(10000.0, counts[i], 5 * Math.sqrt(40000 * 3.0 / 16.0));
+        }
+    }
+
+    public void testNextLong() {
+        RandomGenerator r = new MersenneTwister64(1L);
+        assertEquals(0L, Sampling.nextLong(r, 1L));
+        int[] counts = new int[3];
+        for (int i = 0; i < 30000; ++i) {
+            counts[(int) Sampling.nextLong(r, 3L)]++;
+        }
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(10000.0, counts[i], 5 * Math.sqrt(30000 * 2.0 / 9.0));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            double d = Sampling.nextOpenDouble(r);
+            assertTrue(d > 0.0 && d < 1.0);
+        }
+    }
+
+    public void testLongHashSet() {
+        LongHashSet s = new LongHashSet(1);
+        for (long i = 0; i < 10000; ++i) {
+            assertTrue(s.add(i * 1000003L));
+        }
+        assertEquals(10000, s.size());
+        for (long i = 0; i < 10000; ++i) {
+            assertFalse(s.add(i * 1000003L));
+            assertTrue(s.contains(i * 1000003L));
+            assertFalse(s.contains(i * 1000003L + 1));
+        }
+        assertTrue(s.add(0x7FFFFFFFFFFFFFFFL));
+        assertTrue(s.contains(0x7FFFFFFFFFFFFFFFL));
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(SamplingTest.class);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Shuffles.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ShufflesTest extends TestCase {
+
+    private static int[] identity(final int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; ++i) {
+            a[i] = i;
+        }
+        return a;
+    }
+
+    private static void assertPermutation(final int[] a) {
+        int[] sorted = a.clone();
+        Arrays.sort(sorted);
+        assertTrue(Arrays.equals(identity(a.length), sorted));
+    }
+
+    /**
+     * Every ordering of 4 elements equally often.
+     */
+    public void testUniform() {
+        final int trials = 240000;
+        int[] counts = new int[256];
+        RandomGenerator[] gens = { new SplitMix64(1L), new MersenneTwister(1) };
+        for (int g = 0; g < gens.length; ++g) {
+            Arrays.fill(counts, 0);
+            for (int t = 0; t < trials; ++t) {
+                int[] a = identity(4);
+                Shuffles.shuffle(a, gens[g]);
+                counts[(a[0] << 6) | (a[1] << 4) | (a[2] << 2) | a[3]]++;
+            }
+            double chi2 = 0.0;
+            int seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                if (counts[i] != 0) {
+                    ++seen;
+                    double d = counts[i] - trials / 24.0;
+                    chi2 += d * d / (trials / 24.0);
+                }
+            }
+            assertEquals(24, seen);
+            // 23 degrees of freedom, p = 0.001
+            assertTrue("chi2 " + chi2, chi2 < 49.7);
+        }
+    }
+
+    public void testIndices() {
+        // bound 3 doesn't divide 2^32, check there's no bias
+        Shuffles.Indices r = new Shuffles.Indices(new Xoshiro256StarStar(1L));
+        int[] counts = new int[3];
+        for (int i = 0; i < 300000; ++i) {
+            counts[r.next(3)]++;
+        }
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(100000.0, counts[i], 5 * Math.sqrt(300000 * 2.0 / 9.0));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(0, r.next(1));
+            int v = r.next(Integer.MAX_VALUE);
+            assertTrue(v >= 0);
+        }
+    }
+
+    public void testTypes() {
+        final int n = 1000;
+        long[] l = new long[n];
+        double[] d = new double[n];
+        Object[] o = new Object[n];
+        for (int i = 0; i < n; ++i) {
+            l[i] = i;
+            d[i] = i;
+            o[i] = Integer.valueOf(i);
+        }
+        Shuffles.shuffle(l, new SplitMix64(1L));
+        Shuffles.shuffle(d, new SplitMix64(1L));
+        Shuffles.shuffle(o, new SplitMix64(1L));
+        int[] a = identity(n);
+        Shuffles.shuffle(a, new SplitMix64(1L));
+        // same generator, same swaps
+        for (int i = 0; i < n; ++i) {
+            assertEquals(a[i], l[i]);
+            assertEquals(a[i], d[i], 0.0);
+            assertEquals(Integer.valueOf(a[i]), o[i]);
+        }
+        assertFalse(Arrays.equals(identity(n), a));
+        assertPermutation(a);
+    }
+
+    public void testRange() {
+        int[] a = identity(100);
+        Shuffles.shuffle(a, 10, 20, new SplitMix64(1L));
+        for (int i = 0; i < 100; ++i) {
+            if (i < 10 || i >= 20) {
+                assertEquals(i, a[i]);
+            } else {
+                assertTrue(a[i] >= 10 && a[i] < 20);
+            }
+        }
+        try {
+            Shuffles.shuffle(a, 20, 10, new SplitMix64(1L));
+            fail("Accepted a backwards range");
+        } catch (IndexOutOfBoundsException e) {
+            // ok
+        }
+        Shuffles.shuffle(new int[0], new SplitMix64(1L));
+    }
+
+    public void testPermutation() {
+        int[] a = new int[1000];
+        Shuffles.permutation(a, new SplitMix64(1L));
+        assertPermutation(a);
+        assertFalse(Arrays.equals(identity(1000), a));
+    }
+
+    public void testParallel() {
+        final int n = Shuffles.PARALLEL_THRESHOLD * 2 + 12345;
+        int[] a = identity(n);
+        Shuffles.parallelShuffle(a, new SplitMix64(1L));
+        assertPermutation(a);
+
+        // same result whatever the pool
+        int[] b = identity(n);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            Shuffles.parallelShuffle(b, new SplitMix64(1L), one);
+            assertTrue(Arrays.equals(a, b));
+            b = identity(n);
+            Shuffles.parallelShuffle(b, new SplitMix64(1L), four);
+            assertTrue(Arrays.equals(a, b));
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        // elements from each 16th of the input land evenly in each 16th
+        // of the output
+        int[][] counts = new int[16][16];
+        for (int i = 0; i < n; ++i) {
+            counts[(int) ((long) a[i] * 16 / n)][(int) ((long) i * 16 / n)]++;
+        }
+        double chi2 = 0.0;
+        for (int i = 0; i < 16; ++i) {
+            for (int j = 0; j < 16; ++j) {
+                double e = (double) n / 256;
+                double d = counts[i][j] - e;
+                chi2 += d * d / e;
+            }
+        }
+        // 225 degrees of freedom, p = 0.001
+        assertTrue("chi2 " + chi2, chi2 < 300.0);
+    }
+
+    public void testParallelTypes() {
+        final int n = Shuffles.PARALLEL_THRESHOLD + 1;
+        long[] l = new long[n];
+        double[] d = new double[n];
+        Object[] o = new Object[n];
+        for (int i = 0; i < n; ++i) {
+            l[i] = i;
+            d[i] = i;
+            o[i] = Integer.valueOf(i);
+        }
+        int[] a = identity(n);
+        Shuffles.parallelShuffle(a, new Xoshiro256PlusPlus(1L));
+        Shuffles.parallelShuffle(l, new Xoshiro256PlusPlus(1L));
+        Shuffles.parallelShuffle(d, new Xoshiro256PlusPlus(1L));
+        Shuffles.parallelShuffle(o, new Xoshiro256PlusPlus(1L));
+        for (int i = 0; i < n; ++i) {
+            assertEquals(a[i], l[i]);
+            assertEquals(a[i], d[i], 0.0);
+            assertEquals(Integer.valueOf(a[i]), o[i]);
+        }
+        assertPermutation(a);
+    }
+
+    public void testSplitDepth() {
+        // LinearSunJDK allows only 20 splits in a history
+        RandomGenerator[] gens = Substreams.split(new LinearSunJDK(1L), 512);
+        assertEquals(512, gens.length);
+        int[] a = identity(Shuffles.PARALLEL_THRESHOLD);
+        Shuffles.parallelShuffle(a, new LinearSunJDK(1L));
+        assertPermutation(a);
+    }
+
+    /**
+     * Generators that split by jumping a large state get few, big
+     * chunks, since each split costs milliseconds.  ShuffleBenchmark
+     * measures the time.
+     */
+    public void testJumpChunks() {
+        int n = Shuffles.PARALLEL_THRESHOLD;
+        assertEquals(1, Shuffles.chunks(n - 1, new SplitMix64(1L)));
+        assertEquals(4, Shuffles.chunks(n, new SplitMix64(1L)));
+        assertEquals(4, Shuffles.chunks(n, new Xoshiro256StarStar(1L)));
+        assertEquals(256, Shuffles.chunks(1 << 26, new Xoshiro256StarStar(1L)));
+
+        assertEquals(1, Shuffles.chunks(n, new MersenneTwister(1)));
+        assertEquals(1, Shuffles.chunks(n, new MersenneTwister64(1L)));
+        assertEquals(1, Shuffles.chunks((1 << 22) - 1, new MersenneTwister(1)));
+        assertEquals(2, Shuffles.chunks(1 << 22, new MersenneTwister(1)));
+        assertEquals(32, Shuffles.chunks(1 << 26, new MersenneTwister64(1L)));
+
+        // the decision follows the capability, not the class
+        GeneratorMetrics m = new GeneratorMetrics("test");
+        assertEquals(1, Shuffles.chunks(n, (SplittableGenerator)
+                                        InstrumentedGenerator.instrument(new MersenneTwister(1), m, false)));
+    }
+
+    /**
+     * With one chunk there are no splits at all: the parallel shuffle
+     * is the plain one, from the same generator
+     */
+    public void testMersenneTwisterFallback() {
+        int[] a = identity(Shuffles.PARALLEL_THRESHOLD);
+        int[] b = identity(Shuffles.PARALLEL_THRESHOLD);
+        MersenneTwister mt = new MersenneTwister(2);
+        MersenneTwister ref = new MersenneTwister(2);
+        Shuffles.parallelShuffle(a, mt);
+        Shuffles.shuffle(b, ref);
+        assertTrue(Arrays.equals(b, a));
+        assertEquals(ref.next(32), mt.next(32));
+    }
+
+    /**
+     * Big enough for two Mersenne Twister chunks
+     */
+    public void testMersenneTwisterParallel() {
+        int[] a = identity(1 << 22);
+        Shuffles.parallelShuffle(a, new MersenneTwister64(3L));
+        assertPermutation(a);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(ShufflesTest.class);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.SplittableRandom;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for SplitMix64.
+ *
+ * With the default gamma SplitMix64 is the same algorithm as
+ * <code>java.util.SplittableRandom</code>, which is used as the
+ * reference.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class SplitMix64Test extends TestCase {
+
+    public void testCorrectness() {
+        // from splitmix64.c, seed 0
+        SplitMix64 r = new SplitMix64(0L);
+        assertEquals(0xe220a8397b1dcdafL, r.next64());
+        assertEquals(0x6e789e6aa1b965f4L, r.next64());
+        assertEquals(0x06c45d188009454fL, r.next64());
+        assertEquals(0xf88bb8a8724c81ecL, r.next64());
+
+        SplittableRandom jdk = new SplittableRandom(42L);
+        r = new SplitMix64(42L);
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals("Step " + i, jdk.nextLong(), r.next64());
+        }
+    }
+
+    public void testSplit() {
+        SplittableRandom jdk = new SplittableRandom(42L);
+        SplitMix64 r = new SplitMix64(42L);
+        SplittableRandom jdkChild = jdk.split();
+        SplitMix64 child = r.split();
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals("Step " + i, jdkChild.nextLong(), child.next64());
+            assertEquals("Step " + i, jdk.nextLong(), r.next64());
+        }
+    }
+
+    public void testBulkAndSkip() {
+        SplitMix64 r1 = new SplitMix64(7L);
+        SplitMix64 r2 = new SplitMix64(7L);
+        long[] buf = new long[100];
+        r1.nextLongs(buf, 0, buf.length);
+        for (int i = 0; i < buf.length; ++i) {
+            assertEquals(r2.next64(), buf[i]);
+        }
+        r2.skip(-50L);
+        assertEquals(buf[50], r2.next64());
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(SplitMix64Test.class);
+    }
+}
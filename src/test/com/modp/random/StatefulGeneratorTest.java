@@ -0,0 +1,305 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link StatefulGenerator} across all the generators.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class StatefulGeneratorTest extends TestCase {
+
+    private static StatefulGenerator[] generators() {
+        return new StatefulGenerator[] {
+            new LinearSunJDK(42L),
+            new ConcurrentLinearSunJDK(42L),
+            new MersenneTwister(42),
+            new MersenneTwister64(42L),
+            new Rule30Cells192(42L),
+            new Rule30Cells(256, 4, 42L),
+            new BaileyCrandall(42L),
+            // 11 * 23, both 3 mod 4
+            new BlumBlumShub(BigInteger.valueOf(253L), new byte[] { 3 }),
+            new Philox4x32(42L),
+            new Threefry2x64(42L),
+            new SplitMix64(42L),
+            new Xoshiro256StarStar(42L),
+            new Xoshiro256PlusPlus(42L),
+            new Xoroshiro128PlusPlus(42L)
+        };
+    }
+
+    /**
+     * Step by an odd number of bits so generators with buffered output
+     * are saved mid-word.
+     */
+    private static void advance(final RandomGenerator r, final int n) {
+        for (int i = 0; i < n; ++i) {
+            r.next(7);
+        }
+    }
+
+    public void testRoundTrip() {
+        final ByteOrder[] orders = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+        for (ByteOrder order : orders) {
+            StatefulGenerator[] gens = generators();
+            for (int g = 0; g < gens.length; ++g) {
+                StatefulGenerator r = gens[g];
+                String name = r.getClass().getName();
+                advance(r, 1001);
+                ByteBuffer buf = ByteBuffer.allocate(r.stateSize() + 5).order(order);
+                buf.put((byte) 0xff);
+                r.saveState(buf);
+                assertEquals(name, 1 + r.stateSize(), buf.position());
+
+                long[] expected = new long[100];
+                for (int i = 0; i < expected.length; ++i) {
+                    expected[i] = r.next(31);
+                }
+
+                // restore into a fresh generator with a different seed
+                StatefulGenerator s = generators()[g];
+                buf.flip();
+                buf.get();
+                s.restoreState(buf);
+                assertEquals(name, 1 + r.stateSize(), buf.position());
+                for (int i = 0; i < expected.length; ++i) {
+                    assertEquals(name + " step " + i, expected[i], s.next(31));
+                }
+            }
+        }
+    }
+
+    public void testCopy() {
+        StatefulGenerator[] gens = generators();
+        for (int g = 0; g < gens.length; ++g) {
+            StatefulGenerator r = gens[g];
+            String name = r.getClass().getName();
+            advance(r, 333);
+            StatefulGenerator c = r.copy();
+            assertEquals(name, r.getClass(), c.getClass());
+            for (int i = 0; i < 100; ++i) {
+                assertEquals(name + " step " + i, r.next(32), c.next(32));
+            }
+        }
+    }
+
+    public void testRejects() {
+        StatefulGenerator[] gens = generators();
+        for (int g = 0; g < gens.length; ++g) {
+            StatefulGenerator r = gens[g];
+            String name = r.getClass().getName();
+            StatefulGenerator other = gens[(g + 1) % gens.length];
+            ByteBuffer buf = ByteBuffer.allocate(other.stateSize());
+            other.saveState(buf);
+            buf.flip();
+            try {
+                r.restoreState(buf);
+                fail(name + " accepted another algorithm");
+            } catch (IllegalArgumentException e) {
+                assertEquals(name, 0, buf.position());
+            }
+
+            buf = ByteBuffer.allocate(r.stateSize());
+            r.saveState(buf);
+            buf.flip();
+            buf.limit(buf.limit() - 1);
+            try {
+                r.restoreState(buf);
+                fail(name + " accepted a short record");
+            } catch (IllegalArgumentException e) {
+                assertEquals(name, 0, buf.position());
+            }
+
+            buf.limit(buf.capacity());
+            buf.put(2, (byte) 99);
+            try {
+                r.restoreState(buf);
+                fail(name + " accepted an unknown version");
+            } catch (IllegalArgumentException e) {
+                assertEquals(name, 0, buf.position());
+            }
+        }
+    }
+
+    public void testRule30CellsSize() {
+        Rule30Cells r = new Rule30Cells(256, 4, 42L);
+        ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+        r.saveState(buf);
+        buf.flip();
+        try {
+            new Rule30Cells(128, 4, 42L).restoreState(buf);
+            fail("Accepted a different number of cells");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testXoshiroZero() {
+        Xoshiro256StarStar r = new Xoshiro256StarStar(42L);
+        ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+        StateFormat.write(buf, StateFormat.XOSHIRO_256_STAR_STAR, 1);
+        buf.flip();
+        buf.limit(buf.capacity());
+        try {
+            r.restoreState(buf);
+            fail("Accepted an all zero state");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public void testLinearSunJDKSplitLevel() {
+        LinearSunJDK r = new LinearSunJDK(42L);
+        long before = r.copy().next(32);
+        int[] bad = { -1, 48 - 28 + 1, Integer.MAX_VALUE };
+        for (int i = 0; i < bad.length; ++i) {
+            ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+            StateFormat.write(buf, StateFormat.LINEAR_SUN_JDK, 1);
+            buf.putLong(7L);
+            buf.putInt(bad[i]);
+            buf.flip();
+            try {
+                r.restoreState(buf);
+                fail("Accepted split level " + bad[i]);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+            assertEquals(0, buf.position());
+        }
+        assertEquals(before, r.next(32));
+    }
+
+    /**
+     * Save <code>r</code>, overwrite the int at <code>offset</code>
+     * past the header with each bad value, and check that
+     * <code>restoreState</code> rejects it and leaves both the buffer
+     * and the generator alone.
+     */
+    private static void assertRejectsInt(final StatefulGenerator r,
+                                         final int offset, final int[] bad) {
+        String name = r.getClass().getName();
+        long before = r.copy().next(32);
+        for (int i = 0; i < bad.length; ++i) {
+            ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+            r.saveState(buf);
+            buf.putInt(StateFormat.HEADER + offset, bad[i]);
+            buf.flip();
+            try {
+                r.restoreState(buf);
+                fail(name + " accepted " + bad[i]);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+            assertEquals(name, 0, buf.position());
+        }
+        assertEquals(name, before, r.next(32));
+    }
+
+    /**
+     * Restore a record with the given split level at
+     * <code>offset</code>, check that it is accepted, and that the
+     * next split is refused.
+     */
+    private static void assertLastSplitLevel(final StatefulGenerator r,
+                                             final int offset, final int level) {
+        ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+        r.saveState(buf);
+        buf.putInt(StateFormat.HEADER + offset, level);
+        buf.flip();
+        r.restoreState(buf);
+        assertEquals(r.stateSize(), buf.position());
+        try {
+            ((SplittableGenerator) r).split();
+            fail(r.getClass().getName() + " split past level " + level);
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+
+    public void testMersenneTwisterSplitLevel() {
+        int[] bad = { -1, MersenneTwister.MAX_SPLIT_LEVEL + 1,
+                      Integer.MAX_VALUE, Integer.MIN_VALUE };
+        assertRejectsInt(new MersenneTwister(42), 4, bad);
+        assertLastSplitLevel(new MersenneTwister(42), 4,
+                             MersenneTwister.MAX_SPLIT_LEVEL);
+    }
+
+    public void testMersenneTwister64SplitLevel() {
+        int[] bad = { -1, MersenneTwister64.MAX_SPLIT_LEVEL + 1,
+                      Integer.MAX_VALUE, Integer.MIN_VALUE };
+        assertRejectsInt(new MersenneTwister64(42L), 4, bad);
+        assertLastSplitLevel(new MersenneTwister64(42L), 4,
+                             MersenneTwister64.MAX_SPLIT_LEVEL);
+    }
+
+    public void testBaileyCrandallSplitLevel() {
+        int[] bad = { -1, -28, 51 - 28 + 1, Integer.MAX_VALUE };
+        assertRejectsInt(new BaileyCrandall(42L), 8, bad);
+        assertLastSplitLevel(new BaileyCrandall(42L), 8, 51 - 28);
+    }
+
+    public void testBaileyCrandallIterate() {
+        BaileyCrandall r = new BaileyCrandall(42L);
+        long before = r.copy().next(32);
+        double[] bad = { 0.0, 1.5, 5559060566555523.0, Double.NaN };
+        for (int i = 0; i < bad.length; ++i) {
+            ByteBuffer buf = ByteBuffer.allocate(r.stateSize());
+            r.saveState(buf);
+            buf.putDouble(StateFormat.HEADER, bad[i]);
+            buf.flip();
+            try {
+                r.restoreState(buf);
+                fail("Accepted iterate " + bad[i]);
+            } catch (IllegalArgumentException e) {
+                // ok
+            }
+            assertEquals(0, buf.position());
+        }
+        assertEquals(before, r.next(32));
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(StatefulGeneratorTest.class);
+    }
+}
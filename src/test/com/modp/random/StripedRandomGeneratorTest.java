@@ -0,0 +1,128 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for StripedRandomGenerator
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class StripedRandomGeneratorTest extends TestCase {
+
+    public void testStripes() {
+	StripedRandomGenerator r =
+	    new StripedRandomGenerator(ThreadLocalGenerators.LINEAR_SUN_JDK, 1L, 5);
+	assertEquals(8, r.getStripes());
+	r = new StripedRandomGenerator(ThreadLocalGenerators.LINEAR_SUN_JDK, 1L);
+	assertTrue(r.getStripes() >= Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * With no contention a thread stays on one stripe, so its output is
+     * exactly one of the factory's streams.
+     */
+    public void testSingleThread() {
+	final long seed = 99L;
+	StripedRandomGenerator r =
+	    new StripedRandomGenerator(ThreadLocalGenerators.MERSENNE_TWISTER, seed, 4);
+	long[] out = new long[100];
+	for (int i = 0; i < out.length; ++i) {
+	    out[i] = r.next(32);
+	}
+	int matches = 0;
+	for (int s = 0; s < 4; ++s) {
+	    MersenneTwister ref = ThreadLocalGenerators.MERSENNE_TWISTER.create(seed, s);
+	    boolean same = true;
+	    for (int i = 0; i < out.length; ++i) {
+		same &= (ref.next(32) == out[i]);
+	    }
+	    if (same) {
+		matches++;
+	    }
+	}
+	assertEquals(1, matches);
+    }
+
+    /**
+     * Under contention every value still comes from one of the streams
+     */
+    public void testThreads() throws InterruptedException {
+	final long seed = 5L;
+	final int nthreads = 8;
+	final int per = 5000;
+	final StripedRandomGenerator r =
+	    new StripedRandomGenerator(ThreadLocalGenerators.MERSENNE_TWISTER_64, seed, 4);
+	final long[][] out = new long[nthreads][per];
+	Thread[] threads = new Thread[nthreads];
+	for (int t = 0; t < nthreads; ++t) {
+	    final long[] mine = out[t];
+	    threads[t] = new Thread() {
+		    public void run() {
+			for (int i = 0; i < per; ++i) {
+			    mine[i] = r.next(32);
+			}
+		    }
+		};
+	    threads[t].start();
+	}
+	for (int t = 0; t < nthreads; ++t) {
+	    threads[t].join();
+	}
+
+	Set<Long> possible = new HashSet<Long>();
+	for (int s = 0; s < r.getStripes(); ++s) {
+	    RandomGenerator ref = ThreadLocalGenerators.MERSENNE_TWISTER_64.create(seed, s);
+	    for (int i = 0; i < nthreads * per; ++i) {
+		possible.add(Long.valueOf(ref.next(32)));
+	    }
+	}
+	for (int t = 0; t < nthreads; ++t) {
+	    for (int i = 0; i < per; ++i) {
+		assertTrue(possible.contains(Long.valueOf(out[t][i])));
+	    }
+	}
+    }
+
+    public static void main(String[] args) {
+	junit.textui.TestRunner.run(StripedRandomGeneratorTest.class);
+    }
+}
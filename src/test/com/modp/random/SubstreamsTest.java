@@ -0,0 +1,104 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Substreams.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class SubstreamsTest extends TestCase {
+
+    /**
+     * Stream i is a copy jumped i times, and the root is not changed
+     */
+    public void testJumps() {
+        Xoshiro256StarStar root = new Xoshiro256StarStar(1L);
+        Xoshiro256StarStar ref = root.copy();
+        RandomGenerator[] gens = Substreams.jumps(root, 5);
+        assertEquals(5, gens.length);
+        for (int i = 0; i < gens.length; ++i) {
+            assertEquals(ref.copy().next64(), ((Xoshiro256StarStar) gens[i]).next64());
+            ref.jump();
+        }
+        assertEquals(new Xoshiro256StarStar(1L).next64(), root.next64());
+    }
+
+    /**
+     * A balanced tree keeps LinearSunJDK, which allows only 20 splits
+     * in a history, going for many streams
+     */
+    public void testSplit() {
+        RandomGenerator[] gens = Substreams.split(new LinearSunJDK(1L), 100000);
+        assertEquals(100000, gens.length);
+        assertNotSame(gens[0], gens[1]);
+        try {
+            Substreams.split(new LinearSunJDK(1L), (1 << 20) + 1);
+            fail("too many splits");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+
+    /**
+     * Jumps when it can, splits when it can't
+     */
+    public void testCreate() {
+        assertTrue(Substreams.create(new Xoroshiro128PlusPlus(1L), 3)[2] instanceof Xoroshiro128PlusPlus);
+        SplitMix64 s = new SplitMix64(1L);
+        RandomGenerator[] gens = Substreams.create(s, 3);
+        assertSame(s, gens[0]);
+        try {
+            Substreams.create(new Rule30Cells192(1L, 2L, 3L), 2);
+            fail("neither jumps nor splits");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            Substreams.create(new SplitMix64(1L), 0);
+            fail("no streams");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(SubstreamsTest.class);
+    }
+}
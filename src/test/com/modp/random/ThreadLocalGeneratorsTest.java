@@ -0,0 +1,187 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for ThreadLocalGenerators
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class ThreadLocalGeneratorsTest extends TestCase {
+
+    public void testSameThread() {
+	ThreadLocalGenerators<MersenneTwister> tlg =
+	    new ThreadLocalGenerators<MersenneTwister>(ThreadLocalGenerators.MERSENNE_TWISTER, 1L);
+	assertEquals(-1L, tlg.currentIndex());
+	MersenneTwister r = tlg.get();
+	assertSame(r, tlg.get());
+	assertEquals(0L, tlg.currentIndex());
+	tlg.remove();
+	assertEquals(-1L, tlg.currentIndex());
+    }
+
+    /**
+     * A bound stream must be the same as the same stream made directly,
+     * and different from other streams
+     */
+    public void testReproducible() {
+	ThreadLocalGenerators<LinearSunJDK> tlg =
+	    new ThreadLocalGenerators<LinearSunJDK>(ThreadLocalGenerators.LINEAR_SUN_JDK, 42L);
+	LinearSunJDK a = tlg.bind(7L);
+	assertSame(a, tlg.get());
+	assertEquals(7L, tlg.currentIndex());
+	LinearSunJDK b = tlg.stream(7L);
+	LinearSunJDK c = tlg.stream(8L);
+	boolean differ = false;
+	for (int i = 0; i < 100; ++i) {
+	    long x = a.next(32);
+	    assertEquals(x, b.next(32));
+	    differ |= (x != c.next(32));
+	}
+	assertTrue(differ);
+    }
+
+    /**
+     * Each thread gets its own generator and index
+     */
+    public void testThreads() throws InterruptedException {
+	final ThreadLocalGenerators<MersenneTwister64> tlg =
+	    new ThreadLocalGenerators<MersenneTwister64>(ThreadLocalGenerators.MERSENNE_TWISTER_64, 1L);
+	final int nthreads = 8;
+	final Object[] gens = new Object[nthreads];
+	final long[] indexes = new long[nthreads];
+	Thread[] threads = new Thread[nthreads];
+	for (int i = 0; i < nthreads; ++i) {
+	    final int id = i;
+	    threads[i] = new Thread() {
+		    public void run() {
+			gens[id] = tlg.get();
+			indexes[id] = tlg.currentIndex();
+		    }
+		};
+	    threads[i].start();
+	}
+	Set<Object> seen = new HashSet<Object>();
+	Set<Long> seenIndex = new HashSet<Long>();
+	for (int i = 0; i < nthreads; ++i) {
+	    threads[i].join();
+	    seen.add(gens[i]);
+	    seenIndex.add(Long.valueOf(indexes[i]));
+	}
+	assertEquals(nthreads, seen.size());
+	assertEquals(nthreads, seenIndex.size());
+	for (long i = 0; i < nthreads; ++i) {
+	    assertTrue(seenIndex.contains(Long.valueOf(i)));
+	}
+    }
+
+    /**
+     * Stream seeds should not collide
+     */
+    public void testStreamSeed() {
+	Set<Long> seeds = new HashSet<Long>();
+	for (long index = 0; index < 1000; ++index) {
+	    for (int k = 0; k < 3; ++k) {
+		assertTrue(seeds.add(Long.valueOf(ThreadLocalGenerators.streamSeed(0L, index, k))));
+		assertTrue(seeds.add(Long.valueOf(ThreadLocalGenerators.streamSeed(1L, index, k))));
+	    }
+	}
+    }
+
+    /**
+     * Jumped streams are the root stream moved ahead by whole jumps
+     */
+    public void testJumpedStreams() {
+	MersenneTwister mt = ThreadLocalGenerators.MERSENNE_TWISTER.create(9L, 0L);
+	mt.jump();
+	mt.jump();
+	mt.jump();
+	MersenneTwister mt3 = ThreadLocalGenerators.MERSENNE_TWISTER.create(9L, 3L);
+	for (int i = 0; i < 1000; ++i) {
+	    assertEquals(mt.next(32), mt3.next(32));
+	}
+
+	MersenneTwister64 mt64 = ThreadLocalGenerators.MERSENNE_TWISTER_64.create(9L, 0L);
+	mt64.jump();
+	mt64.jump();
+	MersenneTwister64 mt64b = ThreadLocalGenerators.MERSENNE_TWISTER_64.create(9L, 2L);
+	for (int i = 0; i < 1000; ++i) {
+	    assertEquals(mt64.next64(), mt64b.next64());
+	}
+
+	Xoshiro256PlusPlus x = ThreadLocalGenerators.XOSHIRO_256_PLUS_PLUS.create(9L, 0L);
+	for (int i = 0; i < 5; ++i) {
+	    x.jump();
+	}
+	assertEquals(x.next64(), ThreadLocalGenerators.XOSHIRO_256_PLUS_PLUS.create(9L, 5L).next64());
+
+	Xoroshiro128PlusPlus y = ThreadLocalGenerators.XOROSHIRO_128_PLUS_PLUS.create(9L, 0L);
+	for (int i = 0; i < 13; ++i) {
+	    y.jump();
+	}
+	assertEquals(y.next64(), ThreadLocalGenerators.XOROSHIRO_128_PLUS_PLUS.create(9L, 13L).next64());
+
+	// a long jump is 2^32 jumps, taken by set bits rather than one by one
+	Xoroshiro128PlusPlus big = ThreadLocalGenerators.XOROSHIRO_128_PLUS_PLUS.create(9L, 0L);
+	big.longJump();
+	for (int i = 0; i < 7; ++i) {
+	    big.jump();
+	}
+	assertEquals(big.next64(),
+		     ThreadLocalGenerators.XOROSHIRO_128_PLUS_PLUS.create(9L, (1L << 32) + 7L).next64());
+
+	// and the largest index is as quick as any
+	assertNotNull(ThreadLocalGenerators.XOSHIRO_256_PLUS_PLUS.create(9L, Long.MAX_VALUE));
+	assertNotNull(ThreadLocalGenerators.XOROSHIRO_128_PLUS_PLUS.create(9L, Long.MAX_VALUE));
+
+	try {
+	    ThreadLocalGenerators.XOSHIRO_256_STAR_STAR.create(9L, -1L);
+	    fail();
+	} catch (IllegalArgumentException e) {
+	    // ok
+	}
+    }
+
+    public static void main(String[] args) {
+	junit.textui.TestRunner.run(ThreadLocalGeneratorsTest.class);
+    }
+}
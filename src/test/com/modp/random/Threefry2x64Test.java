@@ -0,0 +1,99 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Threefry-2x64-20.
+ *
+ * The known answer is from the Random123 distribution
+ * (examples/kat_vectors).
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Threefry2x64Test extends TestCase {
+
+    public void testCorrectness() {
+        long[] out = new long[2];
+        Threefry2x64.encrypt(0L, 0L, 0L, 0L, out);
+        assertEquals(0xc2b6e3a8c2c69865L, out[0]);
+        assertEquals(0x6f81ed42f350084dL, out[1]);
+    }
+
+    /**
+     * seek, at and next64 agree
+     */
+    public void testSeek() {
+        final long k0 = 0x0123456789abcdefL;
+        final long k1 = 42L;
+        Threefry2x64 r = new Threefry2x64(k0, k1);
+        long[] words = new long[100];
+        for (int i = 0; i < words.length; ++i) {
+            assertEquals(i, r.getPosition());
+            words[i] = r.next64();
+            assertEquals(Threefry2x64.at(k0, k1, i), words[i]);
+        }
+        for (int i = words.length - 1; i >= 0; --i) {
+            r.seek(i);
+            assertEquals(i, r.getPosition());
+            assertEquals(words[i], r.next64());
+        }
+    }
+
+    /**
+     * Bulk output is the same as one at a time, from any position
+     */
+    public void testNextLongs() {
+        for (int start = 0; start < 2; ++start) {
+            Threefry2x64 r1 = new Threefry2x64(7L);
+            Threefry2x64 r2 = new Threefry2x64(7L);
+            r1.seek(start);
+            r2.seek(start);
+            long[] buf = new long[13];
+            r1.nextLongs(buf, 1, 11);
+            for (int i = 1; i < 12; ++i) {
+                assertEquals("Start " + start + " step " + i, r2.next64(), buf[i]);
+            }
+            assertEquals(r2.next64(), r1.next64());
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(Threefry2x64Test.class);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for WeightedSampler.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class WeightedSamplerTest extends TestCase {
+
+    private static void assertFrequencies(final WeightedSampler s, final RandomGenerator r,
+                                          final int trials) {
+        final int n = s.size();
+        int[] counts = new int[n];
+        for (int t = 0; t < trials; ++t) {
+            counts[s.next(r)]++;
+        }
+        double chi2 = 0.0;
+        int df = -1;
+        for (int i = 0; i < n; ++i) {
+            double e = trials * s.get(i) / s.getTotal();
+            if (e == 0.0) {
+                assertEquals("Item " + i, 0, counts[i]);
+            } else {
+                double d = counts[i] - e;
+                chi2 += d * d / e;
+                ++df;
+            }
+        }
+        // p = 0.001 for up to 9 degrees of freedom
+        assertTrue(df <= 9);
+        assertTrue("chi2 " + chi2, chi2 < 27.9);
+    }
+
+    public void testFrequencies() {
+        RandomGenerator r = new SplitMix64(1L);
+        WeightedSampler s = new WeightedSampler(new double[] { 1, 2, 3, 0, 4, 0.5 });
+        assertEquals(10.5, s.getTotal(), 0.0);
+        assertFrequencies(s, r, 100000);
+
+        s.set(3, 5.0);
+        s.remove(0);
+        assertEquals(14.5, s.getTotal(), 0.0);
+        assertFrequencies(s, new MersenneTwister(1), 100000);
+    }
+
+    public void testRemove() {
+        WeightedSampler s = new WeightedSampler(new double[] { 1, 1e-300, 1e300, 7 });
+        RandomGenerator r = new SplitMix64(1L);
+        boolean[] seen = new boolean[4];
+        for (int i = 0; i < 4; ++i) {
+            int j = s.nextAndRemove(r);
+            assertFalse(seen[j]);
+            seen[j] = true;
+        }
+        assertEquals(0.0, s.getTotal(), 0.0);
+        try {
+            s.next(r);
+            fail("Drew from an empty sampler");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+    }
+
+    public void testNoDrift() {
+        // many updates leave the total exact, and removed items never drawn
+        WeightedSampler s = new WeightedSampler(1000);
+        RandomGenerator r = new Xoshiro256StarStar(1L);
+        for (int t = 0; t < 100000; ++t) {
+            s.set((int) ((r.next(32) & 0xFFFFFFFFL) % 1000), Sampling.nextOpenDouble(r) * 1e6);
+        }
+        for (int i = 0; i < 1000; ++i) {
+            if (i != 17) {
+                s.remove(i);
+            }
+        }
+        assertEquals(s.get(17), s.getTotal(), 0.0);
+        for (int t = 0; t < 1000; ++t) {
+            assertEquals(17, s.next(r));
+        }
+    }
+
+    public void testSample() {
+        double[] w = { 5, 1, 1, 1, 0, 1, 1 };
+        WeightedSampler s = new WeightedSampler(w);
+        double total = s.getTotal();
+        int[] dest = new int[6];
+        double[] scratch = new double[6];
+        RandomGenerator r = new SplitMix64(1L);
+        int first = 0;
+        for (int t = 0; t < 10000; ++t) {
+            s.sample(r, dest, scratch, 6);
+            boolean[] seen = new boolean[w.length];
+            for (int i = 0; i < 6; ++i) {
+                assertFalse(seen[dest[i]]);
+                seen[dest[i]] = true;
+            }
+            assertFalse(seen[4]);
+            if (dest[0] == 0) {
+                ++first;
+            }
+            assertEquals(total, s.getTotal(), 0.0);
+        }
+        // item 0 is first with probability 1/2
+        assertEquals(5000.0, first, 5 * 50.0);
+
+        // asking for too many puts everything back
+        try {
+            s.sample(r, new int[7], new double[7], 7);
+            fail("Drew 7 items with only 6 non-zero");
+        } catch (IllegalStateException e) {
+            // ok
+        }
+        for (int i = 0; i < w.length; ++i) {
+            assertEquals(w[i], s.get(i), 0.0);
+        }
+        assertEquals(total, s.getTotal(), 0.0);
+    }
+
+    public void testBulk() {
+        WeightedSampler s = new WeightedSampler(new double[] { 0, 1, 0 });
+        int[] dest = new int[10];
+        s.next(new SplitMix64(1L), dest, 2, 5);
+        for (int i = 0; i < 10; ++i) {
+            assertEquals((i >= 2 && i < 7) ? 1 : 0, dest[i]);
+        }
+    }
+
+    public void testArgs() {
+        WeightedSampler s = new WeightedSampler(3);
+        try {
+            s.set(0, -1.0);
+            fail("Accepted a negative weight");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            s.set(0, Double.NaN);
+            fail("Accepted NaN");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            s.set(3, 1.0);
+            fail("Accepted an index past the end");
+        } catch (IndexOutOfBoundsException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(WeightedSamplerTest.class);
+    }
+}
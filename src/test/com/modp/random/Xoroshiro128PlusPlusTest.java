@@ -0,0 +1,154 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for xoroshiro128++.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Xoroshiro128PlusPlusTest extends TestCase {
+
+    /**
+     * From the reference C code, with state {1, 2}
+     */
+    public void testCorrectness() {
+        Xoroshiro128PlusPlus r = new Xoroshiro128PlusPlus(1L, 2L);
+        assertEquals(393217L, r.next64());
+        assertEquals(669327710093319L, r.next64());
+        assertEquals(1732421326133921491L, r.next64());
+        assertEquals(-7051953992050424633L, r.next64());
+    }
+
+    public void testNextLongs() {
+        Xoroshiro128PlusPlus r1 = new Xoroshiro128PlusPlus(7L);
+        Xoroshiro128PlusPlus r2 = new Xoroshiro128PlusPlus(7L);
+        long[] buf = new long[100];
+        r1.nextLongs(buf, 3, 90);
+        for (int i = 3; i < 93; ++i) {
+            assertEquals(r2.next64(), buf[i]);
+        }
+        assertEquals(r2.next64(), r1.next64());
+    }
+
+    /**
+     * The jump tables are x<sup>2<sup>k</sup></sup> mod the characteristic
+     * polynomial, which can be found from the output with Berlekamp-Massey.
+     */
+    public void testJump() {
+        Xoroshiro128PlusPlus g = new Xoroshiro128PlusPlus(1L, 2L);
+        final int n = 256;
+        long[] bits = new long[n / 64];
+        long[] state = new long[2];
+        for (int i = 0; i < n; ++i) {
+            g.getState(state);
+            bits[i >>> 6] |= (state[0] & 1L) << i;
+            g.next64();
+        }
+        MersenneJump poly = new MersenneJump(bits, n, 128);
+
+        Xoroshiro128PlusPlus r = new Xoroshiro128PlusPlus(99L);
+        long[] expected = applyJump(r, poly.xPow2(64));
+        r.jump();
+        r.getState(state);
+        assertEquals(expected[0], state[0]);
+        assertEquals(expected[1], state[1]);
+
+        expected = applyJump(r, poly.xPow2(96));
+        r.longJump();
+        r.getState(state);
+        assertEquals(expected[0], state[0]);
+        assertEquals(expected[1], state[1]);
+    }
+
+    /**
+     * The state after stepping by the jump polynomial, without
+     * changing the generator.
+     */
+    private static long[] applyJump(Xoroshiro128PlusPlus r, long[] poly) {
+        long[] state = new long[2];
+        r.getState(state);
+        Xoroshiro128PlusPlus g = new Xoroshiro128PlusPlus(state[0], state[1]);
+        long[] result = new long[2];
+        for (int i = 0; i < 128; ++i) {
+            if (MersenneJump.testBit(poly, i)) {
+                g.getState(state);
+                result[0] ^= state[0];
+                result[1] ^= state[1];
+            }
+            g.next64();
+        }
+        return result;
+    }
+
+    /**
+     * Power-of-two jumps match jump() and longJump()
+     */
+    public void testJumpPow2() {
+        Xoroshiro128PlusPlus a = new Xoroshiro128PlusPlus(7L);
+        Xoroshiro128PlusPlus b = new Xoroshiro128PlusPlus(7L);
+        a.jumpPow2(64);
+        b.jump();
+        assertEquals(b.next64(), a.next64());
+        a.jumpPow2(65);
+        b.jump();
+        b.jump();
+        assertEquals(b.next64(), a.next64());
+        a.jumpPow2(96);
+        b.longJump();
+        assertEquals(b.next64(), a.next64());
+    }
+
+    public void testSplit() {
+        Xoroshiro128PlusPlus p1 = new Xoroshiro128PlusPlus(42L);
+        Xoroshiro128PlusPlus p2 = new Xoroshiro128PlusPlus(42L);
+        Xoroshiro128PlusPlus c1 = p1.split();
+        Xoroshiro128PlusPlus c2 = p2.split();
+        for (int i = 0; i < 100; ++i) {
+            long c = c1.next64();
+            assertEquals(c, c2.next64());
+            assertTrue(c != p1.next64());
+            p2.next64();
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(Xoroshiro128PlusPlusTest.class);
+    }
+}
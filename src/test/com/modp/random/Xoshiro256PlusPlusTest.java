@@ -0,0 +1,93 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for xoshiro256++.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Xoshiro256PlusPlusTest extends TestCase {
+
+    /**
+     * From the reference C code, with state {1, 2, 3, 4}
+     */
+    public void testCorrectness() {
+        Xoshiro256PlusPlus r = new Xoshiro256PlusPlus(1L, 2L, 3L, 4L);
+        assertEquals(41943041L, r.next64());
+        assertEquals(58720359L, r.next64());
+        assertEquals(3588806011781223L, r.next64());
+        assertEquals(3591011842654386L, r.next64());
+    }
+
+    public void testNextLongs() {
+        Xoshiro256PlusPlus r1 = new Xoshiro256PlusPlus(7L);
+        Xoshiro256PlusPlus r2 = new Xoshiro256PlusPlus(7L);
+        long[] buf = new long[100];
+        r1.nextLongs(buf, 3, 90);
+        for (int i = 3; i < 93; ++i) {
+            assertEquals(r2.next64(), buf[i]);
+        }
+        assertEquals(r2.next64(), r1.next64());
+    }
+
+    /**
+     * The engine is the same as xoshiro256**, only the output differs,
+     * so the jumps must land on the same state.
+     */
+    public void testJump() {
+        Xoshiro256PlusPlus r1 = new Xoshiro256PlusPlus(99L);
+        Xoshiro256StarStar r2 = new Xoshiro256StarStar(99L);
+        long[] s1 = new long[4];
+        long[] s2 = new long[4];
+        r1.jump();
+        r2.jump();
+        r1.longJump();
+        r2.longJump();
+        r1.getState(s1);
+        r2.getState(s2);
+        for (int i = 0; i < 4; ++i) {
+            assertEquals("Word " + i, s2[i], s1[i]);
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(Xoshiro256PlusPlusTest.class);
+    }
+}
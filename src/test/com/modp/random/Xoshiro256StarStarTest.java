@@ -0,0 +1,168 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for xoshiro256**.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class Xoshiro256StarStarTest extends TestCase {
+
+    /**
+     * From the reference C code, with state {1, 2, 3, 4}
+     */
+    public void testCorrectness() {
+        Xoshiro256StarStar r = new Xoshiro256StarStar(1L, 2L, 3L, 4L);
+        assertEquals(11520L, r.next64());
+        assertEquals(0L, r.next64());
+        assertEquals(1509978240L, r.next64());
+        assertEquals(1215971899390074240L, r.next64());
+    }
+
+    public void testNextLongs() {
+        Xoshiro256StarStar r1 = new Xoshiro256StarStar(7L);
+        Xoshiro256StarStar r2 = new Xoshiro256StarStar(7L);
+        long[] buf = new long[100];
+        r1.nextLongs(buf, 3, 90);
+        for (int i = 3; i < 93; ++i) {
+            assertEquals(r2.next64(), buf[i]);
+        }
+        assertEquals(r2.next64(), r1.next64());
+    }
+
+    /**
+     * The jump tables are x<sup>2<sup>k</sup></sup> mod the characteristic
+     * polynomial, which can be found from the output with Berlekamp-Massey.
+     */
+    public void testJump() {
+        Xoshiro256StarStar g = new Xoshiro256StarStar(1L, 2L, 3L, 4L);
+        final int n = 512;
+        long[] bits = new long[n / 64];
+        long[] state = new long[4];
+        for (int i = 0; i < n; ++i) {
+            g.getState(state);
+            bits[i >>> 6] |= (state[0] & 1L) << i;
+            g.next64();
+        }
+        MersenneJump poly = new MersenneJump(bits, n, 256);
+
+        Xoshiro256StarStar r = new Xoshiro256StarStar(99L);
+        long[] expected = applyJump(r, poly.xPow2(128));
+        r.jump();
+        r.getState(state);
+        assertStateEquals(expected, state);
+
+        expected = applyJump(r, poly.xPow2(192));
+        r.longJump();
+        r.getState(state);
+        assertStateEquals(expected, state);
+    }
+
+    /**
+     * The state after stepping by the jump polynomial, without
+     * changing the generator.
+     */
+    private static long[] applyJump(Xoshiro256StarStar r, long[] poly) {
+        long[] state = new long[4];
+        r.getState(state);
+        Xoshiro256StarStar g = new Xoshiro256StarStar(state[0], state[1], state[2], state[3]);
+        long[] result = new long[4];
+        for (int i = 0; i < 256; ++i) {
+            if (MersenneJump.testBit(poly, i)) {
+                g.getState(state);
+                for (int j = 0; j < 4; ++j) {
+                    result[j] ^= state[j];
+                }
+            }
+            g.next64();
+        }
+        return result;
+    }
+
+    private static void assertStateEquals(long[] expected, long[] actual) {
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals("Word " + i, expected[i], actual[i]);
+        }
+    }
+
+    /**
+     * Power-of-two jumps match jump() and longJump()
+     */
+    public void testJumpPow2() {
+        Xoshiro256StarStar a = new Xoshiro256StarStar(7L);
+        Xoshiro256StarStar b = new Xoshiro256StarStar(7L);
+        a.jumpPow2(128);
+        b.jump();
+        assertEquals(b.next64(), a.next64());
+        a.jumpPow2(129);
+        b.jump();
+        b.jump();
+        assertEquals(b.next64(), a.next64());
+        a.jumpPow2(192);
+        b.longJump();
+        assertEquals(b.next64(), a.next64());
+    }
+
+    public void testSplit() {
+        Xoshiro256StarStar p1 = new Xoshiro256StarStar(42L);
+        Xoshiro256StarStar p2 = new Xoshiro256StarStar(42L);
+        Xoshiro256StarStar c1 = p1.split();
+        Xoshiro256StarStar c2 = p2.split();
+        for (int i = 0; i < 100; ++i) {
+            long c = c1.next64();
+            assertEquals(c, c2.next64());
+            assertTrue(c != p1.next64());
+            p2.next64();
+        }
+    }
+
+    public void testZeroState() {
+        try {
+            new Xoshiro256StarStar(0L, 0L, 0L, 0L);
+            fail("all zero state");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(Xoshiro256StarStarTest.class);
+    }
+}
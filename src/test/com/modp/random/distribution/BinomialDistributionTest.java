@@ -0,0 +1,111 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.MersenneTwister64;
+import com.modp.random.RandomGenerator;
+import com.modp.random.Xoshiro256PlusPlus;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for BinomialDistribution.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class BinomialDistributionTest extends TestCase {
+
+    private static void check(final int n, final double p, final RandomGenerator r) {
+        BinomialDistribution d = new BinomialDistribution(n, p);
+        final int trials = 200000;
+        double[] pmf = new double[n + 1];
+        for (int k = 0; k <= n; ++k) {
+            pmf[k] = Math.exp(Variates.logFactorial(n) - Variates.logFactorial(k)
+                              - Variates.logFactorial(n - k)
+                              + k * Math.log(p) + (n - k) * Math.log1p(-p));
+        }
+        int[] counts = new int[n + 1];
+        double sum = 0.0;
+        for (int t = 0; t < trials; ++t) {
+            int k = d.sample(r);
+            assertTrue(k >= 0 && k <= n);
+            counts[k]++;
+            sum += k;
+        }
+        final String name = "n " + n + " p " + p;
+        assertEquals(name, d.getMean(), sum / trials, 5 * Math.sqrt(d.getVariance() / trials));
+        double c = PoissonDistributionTest.chi2(counts, pmf, trials);
+        assertTrue(name + " chi2 / critical " + c, c < 1.0);
+    }
+
+    public void testDistribution() {
+        final int[] ns = { 1, 10, 30, 100, 1000, 100000 };
+        final double[] ps = { 0.01, 0.2, 0.5, 0.73, 0.999 };
+        int seed = 0;
+        for (int i = 0; i < ns.length; ++i) {
+            for (int j = 0; j < ps.length; ++j) {
+                ++seed;
+                check(ns[i], ps[j], (seed % 2 == 0)
+                      ? (RandomGenerator) new Xoshiro256PlusPlus(seed)
+                      : new MersenneTwister64(seed));
+            }
+        }
+    }
+
+    public void testEdges() {
+        RandomGenerator r = new Xoshiro256PlusPlus(1L);
+        assertEquals(0, new BinomialDistribution(10, 0.0).sample(r));
+        assertEquals(10, new BinomialDistribution(10, 1.0).sample(r));
+        assertEquals(0, new BinomialDistribution(0, 0.5).sample(r));
+        int[] buf = new int[5];
+        new BinomialDistribution(7, 1.0).fill(r, buf, 1, 3);
+        assertEquals(0, buf[0]);
+        assertEquals(7, buf[1]);
+        assertEquals(7, buf[3]);
+        assertEquals(0, buf[4]);
+        try {
+            new BinomialDistribution(10, 1.1);
+            fail("Accepted p > 1");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(BinomialDistributionTest.class);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import java.util.Arrays;
+
+import com.modp.random.MersenneTwister;
+import com.modp.random.RandomGenerator;
+import com.modp.random.SplitMix64;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for GammaDistribution, BetaDistribution and
+ * DirichletDistribution.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class GammaDistributionTest extends TestCase {
+
+    /**
+     * Something with a known CDF.
+     */
+    interface Cdf {
+        double at(double x);
+    }
+
+    /**
+     * Kolmogorov-Smirnov test, p = 0.001.
+     */
+    static void assertKs(final String name, final double[] x, final Cdf cdf) {
+        Arrays.sort(x);
+        final int n = x.length;
+        double d = 0.0;
+        for (int i = 0; i < n; ++i) {
+            final double f = cdf.at(x[i]);
+            d = Math.max(d, Math.max(f - (double) i / n, (i + 1.0) / n - f));
+        }
+        assertTrue(name + " D " + d, d < 1.95 / Math.sqrt(n));
+    }
+
+    private static void assertMoments(final ContinuousDistribution d, final RandomGenerator r) {
+        final int n = 200000;
+        double[] x = new double[n];
+        d.fill(r, x, 0, n);
+        double sum = 0.0;
+        for (int i = 0; i < n; ++i) {
+            assertTrue(x[i] >= 0.0);
+            sum += x[i];
+        }
+        final double mean = sum / n;
+        double m2 = 0.0;
+        for (int i = 0; i < n; ++i) {
+            m2 += (x[i] - mean) * (x[i] - mean);
+        }
+        final double var = m2 / (n - 1);
+        assertEquals(d.toString(), d.getMean(), mean, 5 * Math.sqrt(d.getVariance() / n));
+        assertEquals(d.toString(), d.getVariance(), var, 0.05 * d.getVariance());
+    }
+
+    public void testMoments() {
+        final double[] shapes = { 0.05, 0.3, 0.999, 1.0, 2.5, 10.0, 1000.0 };
+        for (int i = 0; i < shapes.length; ++i) {
+            assertMoments(new GammaDistribution(shapes[i], 2.0), new SplitMix64(i));
+            assertMoments(new GammaDistribution(shapes[i]), new MersenneTwister(i));
+        }
+    }
+
+    public void testCdf() {
+        final int n = 100000;
+        double[] x = new double[n];
+        RandomGenerator r = new SplitMix64(1L);
+        new GammaDistribution(1.0, 3.0).fill(r, x, 0, n);
+        assertKs("exponential", x, new Cdf() {
+                public double at(double v) {
+                    return 1.0 - Math.exp(-v / 3.0);
+                }
+            });
+        new GammaDistribution(2.0).fill(r, x, 0, n);
+        assertKs("shape 2", x, new Cdf() {
+                public double at(double v) {
+                    return 1.0 - Math.exp(-v) * (1.0 + v);
+                }
+            });
+    }
+
+    public void testBeta() {
+        final int n = 100000;
+        double[] x = new double[n];
+        RandomGenerator r = new SplitMix64(2L);
+        new BetaDistribution(1.0, 1.0).fill(r, x, 0, n);
+        assertKs("beta(1,1)", x, new Cdf() {
+                public double at(double v) {
+                    return v;
+                }
+            });
+        new BetaDistribution(0.3, 1.0).fill(r, x, 0, n);
+        assertKs("beta(0.3,1)", x, new Cdf() {
+                public double at(double v) {
+                    return Math.pow(v, 0.3);
+                }
+            });
+        assertMoments(new BetaDistribution(2.0, 5.0), r);
+
+        // both gammas underflow to 0 most of the time at these shapes
+        BetaDistribution tiny = new BetaDistribution(0.01, 0.01);
+        double sum = 0.0;
+        for (int i = 0; i < n; ++i) {
+            double v = tiny.sample(r);
+            assertTrue("" + v, v >= 0.0 && v <= 1.0);
+            sum += v;
+        }
+        assertEquals(0.5, sum / n, 5 * Math.sqrt(tiny.getVariance() / n));
+    }
+
+    public void testDirichlet() {
+        final double[] alpha = { 0.001, 0.5, 2.0, 7.5 };
+        DirichletDistribution d = new DirichletDistribution(alpha);
+        assertEquals(4, d.getDimension());
+        final int n = 50000;
+        double[] x = new double[n * 4 + 1];
+        RandomGenerator r = new SplitMix64(3L);
+        d.fill(r, x, 1, n);
+        assertEquals(0.0, x[0], 0.0);
+        double[] sums = new double[4];
+        for (int j = 0; j < n; ++j) {
+            double total = 0.0;
+            for (int i = 0; i < 4; ++i) {
+                double v = x[1 + 4 * j + i];
+                assertTrue(v >= 0.0 && v <= 1.0);
+                total += v;
+                sums[i] += v;
+            }
+            assertEquals(1.0, total, 1e-12);
+        }
+        final double a0 = 10.001;
+        for (int i = 0; i < 4; ++i) {
+            double mean = alpha[i] / a0;
+            double var = mean * (1.0 - mean) / (a0 + 1.0);
+            assertEquals(d.getMean(i), sums[i] / n, 5 * Math.sqrt(var / n));
+        }
+    }
+
+    public void testArgs() {
+        try {
+            new GammaDistribution(0.0);
+            fail("Accepted shape 0");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            new GammaDistribution(1.0, Double.NaN);
+            fail("Accepted NaN scale");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            new DirichletDistribution(new double[0]);
+            fail("Accepted no components");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(GammaDistributionTest.class);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.distribution;
+
+import com.modp.random.MersenneTwister;
+import com.modp.random.RandomGenerator;
+import com.modp.random.SplitMix64;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for PoissonDistribution.
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class PoissonDistributionTest extends TestCase {
+
+    /**
+     * Chi-square of counts against a pmf, pooling bins with fewer than
+     * 5 expected into their neighbors.
+     *
+     * @return chi-square over its p = 0.001 critical value, so more
+     *   than 1 is a failure
+     */
+    static double chi2(final int[] counts, final double[] pmf, final int trials) {
+        double chi2 = 0.0;
+        int df = -1;
+        double e = 0.0;
+        double o = 0.0;
+        for (int k = 0; k < pmf.length; ++k) {
+            e += pmf[k] * trials;
+            o += counts[k];
+            if (e >= 5.0) {
+                chi2 += (o - e) * (o - e) / e;
+                ++df;
+                e = 0.0;
+                o = 0.0;
+            }
+        }
+        // whatever is left, plus anything past the end
+        e += trials * Math.max(0.0, 1.0 - sum(pmf));
+        if (e > 0.0) {
+            chi2 += (o - e) * (o - e) / e;
+            ++df;
+        }
+        if (df < 1) {
+            return 0.0;
+        }
+        // Wilson-Hilferty approximation, z = 3.09 for p = 0.001
+        final double h = 2.0 / (9.0 * df);
+        final double crit = df * Math.pow(1.0 - h + 3.09 * Math.sqrt(h), 3.0);
+        return chi2 / crit;
+    }
+
+    private static double sum(final double[] x) {
+        double s = 0.0;
+        for (int i = 0; i < x.length; ++i) {
+            s += x[i];
+        }
+        return s;
+    }
+
+    private static void check(final double mean, final RandomGenerator r) {
+        PoissonDistribution d = new PoissonDistribution(mean);
+        final int trials = 200000;
+        final int size = (int) (mean + 20 * Math.sqrt(mean) + 30);
+        double[] pmf = new double[size];
+        for (int k = 0; k < size; ++k) {
+            pmf[k] = Math.exp(-mean + k * Math.log(mean) - Variates.logFactorial(k));
+        }
+        int[] counts = new int[size];
+        int[] buf = new int[1000];
+        double sum = 0.0;
+        for (int t = 0; t < trials; t += buf.length) {
+            d.fill(r, buf, 0, buf.length);
+            for (int i = 0; i < buf.length; ++i) {
+                assertTrue(buf[i] >= 0 && buf[i] < size);
+                counts[buf[i]]++;
+                sum += buf[i];
+            }
+        }
+        assertEquals("mean " + mean, mean, sum / trials, 5 * Math.sqrt(mean / trials));
+        double c = chi2(counts, pmf, trials);
+        assertTrue("mean " + mean + " chi2 / critical " + c, c < 1.0);
+    }
+
+    public void testDistribution() {
+        final double[] means = { 0.1, 1.0, 4.5, 9.99, 10.0, 17.3, 100.0, 1234.5 };
+        for (int i = 0; i < means.length; ++i) {
+            check(means[i], new SplitMix64(i));
+            check(means[i], new MersenneTwister(i));
+        }
+    }
+
+    public void testLarge() {
+        PoissonDistribution d = new PoissonDistribution(1e8);
+        RandomGenerator r = new SplitMix64(1L);
+        double sum = 0.0;
+        double sum2 = 0.0;
+        final int n = 100000;
+        for (int i = 0; i < n; ++i) {
+            double x = d.sample(r) - 1e8;
+            sum += x;
+            sum2 += x * x;
+        }
+        assertEquals(0.0, sum / n, 5 * Math.sqrt(1e8 / n));
+        assertEquals(1e8, sum2 / n, 0.03 * 1e8);
+    }
+
+    public void testZero() {
+        PoissonDistribution d = new PoissonDistribution(0.0);
+        RandomGenerator r = new SplitMix64(1L);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(0, d.sample(r));
+        }
+        try {
+            new PoissonDistribution(-1.0);
+            fail("Accepted a negative mean");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(PoissonDistributionTest.class);
+    }
+}
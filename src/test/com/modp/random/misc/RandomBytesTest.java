@@ -0,0 +1,146 @@
+/*
+ * Copyright 2005, Nick Galbreath -- nickg [at] modp [dot] com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *   Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ *   Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ *   Neither the name of the modp.com nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * This is the standard "new" BSD license:
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+
+package com.modp.random.misc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+
+import junit.framework.TestCase;
+
+import com.modp.random.*;
+
+/**
+ * Unit tests for RandomBytes
+ *
+ * @author Nick Galbreath -- nickg [at] modp [dot] com
+ * @version 1
+ */
+public class RandomBytesTest extends TestCase {
+
+    private static byte[] write(RandomGenerator[] streams, long bytes, int bufferSize)
+        throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        RandomBytes.write(streams, Channels.newChannel(bos), bytes, bufferSize);
+        return bos.toByteArray();
+    }
+
+    /**
+     * One thread gives the generator's own sequence, little-endian
+     */
+    public void testSingle() throws IOException {
+        byte[] out = write(new RandomGenerator[] { new MersenneTwister64(42L) }, 1003, 64);
+        assertEquals(1003, out.length);
+        ByteBuffer bb = ByteBuffer.wrap(out).order(ByteOrder.LITTLE_ENDIAN);
+        MersenneTwister64 r = new MersenneTwister64(42L);
+        while (bb.remaining() >= 8) {
+            assertEquals(r.next64(), bb.getLong());
+        }
+
+        out = write(new RandomGenerator[] { new MersenneTwister(42) }, 1000, 64);
+        bb = ByteBuffer.wrap(out).order(ByteOrder.LITTLE_ENDIAN);
+        MersenneTwister r32 = new MersenneTwister(42);
+        while (bb.hasRemaining()) {
+            assertEquals((int) r32.next(32), bb.getInt());
+        }
+    }
+
+    /**
+     * Threads' buffers are written in turn, whatever the scheduling
+     */
+    public void testThreads() throws IOException {
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("Xoshiro256StarStar");
+        byte[] a = write(RandomBytes.streams(p, "x", 7L, 3), 10000, 256);
+        byte[] b = write(RandomBytes.streams(p, "x", 7L, 3), 10000, 256);
+        assertTrue(java.util.Arrays.equals(a, b));
+
+        // the second buffer is the start of the second stream
+        RandomGenerator[] streams = RandomBytes.streams(p, "x", 7L, 3);
+        long first = ((BulkGenerator) streams[1]).next64();
+        assertEquals(first, ByteBuffer.wrap(a, 256, 8).order(ByteOrder.LITTLE_ENDIAN).getLong());
+    }
+
+    /**
+     * Many threads from a generator that allows only 20 splits
+     */
+    public void testManyThreads() {
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("LinearSunJDK");
+        RandomGenerator[] streams = RandomBytes.streams(p, "LinearSunJDK", 7L, 64);
+        assertEquals(64, streams.length);
+    }
+
+    /**
+     * A short period limits how much each thread may write
+     */
+    public void testCheckLength() {
+        GeneratorProvider p = GeneratorRegistry.getDefault().getProvider("LinearSunJDK");
+        GeneratorInfo info = p.getInfo();
+        RandomGenerator[] one = RandomBytes.streams(p, "x", 7L, 1);
+        RandomGenerator[] four = RandomBytes.streams(p, "x", 7L, 4);
+        assertEquals(Long.MAX_VALUE, RandomBytes.maxBytesPerThread(info, one));
+        assertEquals(1L << 30, RandomBytes.maxBytesPerThread(info, four));
+
+        RandomBytes.checkLength(info, one, -1L, 1 << 20);
+        RandomBytes.checkLength(info, four, 4L << 30, 1 << 20);
+        try {
+            RandomBytes.checkLength(info, four, -1L, 1 << 20);
+            fail("unbounded");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+        try {
+            RandomBytes.checkLength(info, four, (4L << 30) + 1, 1 << 20);
+            fail("too long");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+
+        GeneratorProvider x = GeneratorRegistry.getDefault().getProvider("Xoshiro256StarStar");
+        RandomBytes.checkLength(x.getInfo(), RandomBytes.streams(x, "x", 7L, 4), -1L, 1 << 20);
+    }
+
+    public void testParseSize() {
+        assertEquals(100L, RandomBytes.parseSize("100"));
+        assertEquals(64L << 10, RandomBytes.parseSize("64k"));
+        assertEquals(3L << 30, RandomBytes.parseSize("3G"));
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(RandomBytesTest.class);
+    }
+}